@@ -42,6 +42,10 @@ class ConnectionPoolBenchmark extends CommonBenchmark {
   @Param(Array("1", "10", "100", "1000", "10000"))
   var maxConnections: String = _
 
+  // compares sending one request at a time per connection with pipelining several
+  @Param(Array("1", "8"))
+  var pipeliningLimit: String = _
+
   implicit var system: ActorSystem = _
   implicit var mat: ActorMaterializer = _
   implicit def ec: ExecutionContext = system.dispatcher
@@ -72,6 +76,7 @@ class ConnectionPoolBenchmark extends CommonBenchmark {
         s"""
            pekko.actor.default-dispatcher.fork-join-executor.parallelism-max = 1
            pekko.http.host-connection-pool.max-connections = ${maxConnections}
+           pekko.http.host-connection-pool.pipelining-limit = ${pipeliningLimit}
            pekko.http.host-connection-pool.max-open-requests = 16384
            pekko.http.client.user-agent = pekko-http-bench
         """)
@@ -93,7 +98,7 @@ class ConnectionPoolBenchmark extends CommonBenchmark {
         override def connectTo(host: String, port: Int, settings: ClientConnectionSettings)(
             implicit system: ActorSystem): Flow[ByteString, ByteString, Future[Http.OutgoingConnection]] =
           Flow[ByteString]
-            // currently not needed because request will be sent in single chunk
+            // currently not needed because every request (also a pipelined one) will be sent in a single chunk
             // .via(Framing.delimiter(ByteString("\r\n\r\n"), 1000))
             .map { req =>
               require(req.takeRight(4) == endOfRequest)
@@ -49,6 +49,9 @@ private[engine] class HeaderParserBenchmark {
 
   val requestBytes = ByteString(request)
 
+  // a long header value like a session cookie or token, which is scanned but never cached
+  val longHeaderBytes = ByteString(s"X-Session-Token: ${"eyJzdWIiOiIxMjM0NTY3ODkwIn0." * 64}\r\nx")
+
   @Setup
   def setup(): Unit = {
     parser = HttpHeaderParser.prime(HttpHeaderParser.unprimed(settings(), system.log, _ => ()))
@@ -72,4 +75,8 @@ private[engine] class HeaderParserBenchmark {
     val next = parser.parseHeaderLine(requestBytes, firstHeaderStart)()
     parser.parseHeaderLine(requestBytes, next)()
   }
+
+  @Benchmark
+  def bench_parse_long_header_value(): Int =
+    parser.parseHeaderLine(longHeaderBytes)()
 }
@@ -32,7 +32,11 @@ import com.typesafe.config.ConfigFactory
 import org.openjdk.jmh.annotations._
 
 class ServerProcessingBenchmark extends CommonBenchmark {
-  val request = ByteString("GET / HTTP/1.1\r\nHost: localhost\r\nUser-Agent: test\r\n\r\n")
+  // "long-headers" carries a bearer token and a session cookie, whose values are scanned but never cached
+  @Param(Array("small", "long-headers"))
+  var requestHeaders: String = _
+
+  var request: ByteString = _
   val response = HttpResponse()
 
   var httpFlow: Flow[ByteString, ByteString, Any] = _
@@ -54,6 +58,14 @@ class ServerProcessingBenchmark extends CommonBenchmark {
 
   @Setup
   def setup(): Unit = {
+    request = requestHeaders match {
+      case "small" => ByteString("GET / HTTP/1.1\r\nHost: localhost\r\nUser-Agent: test\r\n\r\n")
+      case "long-headers" =>
+        ByteString(
+          "GET /api/items?page=2&sort=name HTTP/1.1\r\nHost: localhost\r\nUser-Agent: test\r\n" +
+          s"Authorization: Bearer ${"eyJzdWIiOiIxMjM0NTY3ODkwIn0." * 32}\r\n" +
+          s"Cookie: session=${"a1b2c3d4e5f6" * 64}\r\n\r\n")
+    }
     val config =
       ConfigFactory.parseString(
         """
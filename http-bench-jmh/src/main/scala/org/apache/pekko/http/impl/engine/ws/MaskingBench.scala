@@ -13,17 +13,36 @@
 
 package org.apache.pekko.http.impl.engine.ws
 
-import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.{ Benchmark, Param, Setup }
 
 import org.apache.pekko
 import pekko.util.ByteString
 import pekko.http.CommonBenchmark
 
 class MaskingBench extends CommonBenchmark {
-  val data = ByteString(new Array[Byte](10000))
+  @Param(Array("16", "125", "1024", "10000", "65536"))
+  var payloadSize: Int = _
+
+  var data: ByteString = _
   val mask = 0xFEDCBA09
 
+  @Setup
+  def setup(): Unit =
+    data = ByteString(new Array[Byte](payloadSize))
+
   @Benchmark
   def benchRequestProcessing(): (ByteString, Int) =
     FrameEventParser.mask(data, mask)
+
+  /** The previous byte-at-a-time implementation as a baseline */
+  @Benchmark
+  def benchByteAtATime(): (ByteString, Int) = {
+    val buffer = data.toArray[Byte]
+    var i = 0
+    while (i < buffer.length) {
+      buffer(i) = (buffer(i) ^ (mask >> (24 - 8 * (i & 3)))).toByte
+      i += 1
+    }
+    (ByteString.fromArrayUnsafe(buffer), Integer.rotateLeft(mask, (buffer.length % 4) * 8))
+  }
 }
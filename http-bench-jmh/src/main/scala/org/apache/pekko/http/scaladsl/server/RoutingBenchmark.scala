@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.scaladsl.server
+
+import scala.concurrent.{ Await, Future }
+import scala.concurrent.duration._
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.http.CommonBenchmark
+import pekko.http.scaladsl.model.{ HttpMethods, HttpRequest, HttpResponse, StatusCodes }
+import pekko.http.scaladsl.server.Directives._
+import com.typesafe.config.ConfigFactory
+import org.openjdk.jmh.annotations.{ Benchmark, Param, Setup, TearDown }
+
+/**
+ * Measures the routing overhead of a sealed route tree for requests that are completed synchronously
+ * (`sync`) and for the same tree where the matching endpoint completes with a future that isn't completed yet
+ * (`async`), which forces every enclosing directive onto the asynchronous path.
+ */
+class RoutingBenchmark extends CommonBenchmark {
+  @Param(Array("sync", "async"))
+  var completion: String = _
+
+  @Param(Array("concat", "dispatch"))
+  var composition: String = _
+
+  implicit var system: ActorSystem = _
+
+  var handler: HttpRequest => Future[HttpResponse] = _
+
+  private val endpoints = 50
+  private val request = HttpRequest(uri = s"/endpoint${endpoints - 1}/item")
+
+  @Benchmark
+  def handleRequest(): HttpResponse = {
+    val result = handler(request)
+    result.value match {
+      case Some(response) => response.get
+      case None           => Await.result(result, 10.seconds)
+    }
+  }
+
+  @Setup
+  def setup(): Unit = {
+    val config =
+      ConfigFactory.parseString(
+        """
+           pekko.actor.default-dispatcher.fork-join-executor.parallelism-max = 1
+        """)
+        .withFallback(ConfigFactory.load())
+    system = ActorSystem("RoutingBenchmark", config)
+
+    val endpoint: Route = completion match {
+      case "sync"  => complete(StatusCodes.OK)
+      case "async" => onSuccess(Future(StatusCodes.OK)(system.dispatcher)) { status => complete(status) }
+    }
+
+    val route = composition match {
+      case "concat" =>
+        concat((0 until endpoints).map { i =>
+          pathPrefix(s"endpoint$i") {
+            concat(
+              post { complete(StatusCodes.Created) },
+              get { path("item") { endpoint } })
+          }
+        }: _*)
+      case "dispatch" =>
+        RouteDispatch((0 until endpoints).flatMap { i =>
+          Seq(
+            RouteDispatch.pathPrefix(s"endpoint$i", HttpMethods.POST)(complete(StatusCodes.Created)),
+            RouteDispatch.pathPrefix(s"endpoint$i", HttpMethods.GET)(path("item") { endpoint }))
+        }: _*)
+    }
+
+    handler = Route.toFunction(route)
+  }
+
+  @TearDown
+  def tearDown(): Unit = system.terminate()
+}
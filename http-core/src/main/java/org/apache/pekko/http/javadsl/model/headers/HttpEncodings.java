@@ -16,6 +16,7 @@ package org.apache.pekko.http.javadsl.model.headers;
 public final class HttpEncodings {
     private HttpEncodings() {}
 
+    public static final HttpEncoding BR = org.apache.pekko.http.scaladsl.model.headers.HttpEncodings.br();
     public static final HttpEncoding CHUNKED = org.apache.pekko.http.scaladsl.model.headers.HttpEncodings.chunked();
     public static final HttpEncoding COMPRESS = org.apache.pekko.http.scaladsl.model.headers.HttpEncodings.compress();
     public static final HttpEncoding DEFLATE = org.apache.pekko.http.scaladsl.model.headers.HttpEncodings.deflate();
@@ -23,4 +24,5 @@ public final class HttpEncodings {
     public static final HttpEncoding IDENTITY = org.apache.pekko.http.scaladsl.model.headers.HttpEncodings.identity();
     public static final HttpEncoding X_COMPRESS = org.apache.pekko.http.scaladsl.model.headers.HttpEncodings.x$minuscompress();
     public static final HttpEncoding X_ZIP = org.apache.pekko.http.scaladsl.model.headers.HttpEncodings.x$minuszip();
+    public static final HttpEncoding ZSTD = org.apache.pekko.http.scaladsl.model.headers.HttpEncodings.zstd();
 }
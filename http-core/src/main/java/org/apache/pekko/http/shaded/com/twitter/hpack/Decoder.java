@@ -69,6 +69,15 @@ public final class Decoder {
   private int valueLength;
   private String name;
 
+  // Parsed values of the static table entries. They are kept per decoder (and not in the shared static table entries)
+  // because parsing depends on the settings of the header listener. Parsed values of dynamic table entries are kept in
+  // the entries and are evicted together with them.
+  private final Object[] staticParsedValues = new Object[StaticTable.length + 1];
+
+  // scratch buffers for string literals, reused for all header blocks
+  private byte[] literalBuffer = new byte[64];
+  private byte[] huffmanBuffer = new byte[64];
+
   private enum State {
     READ_HEADER_REPRESENTATION,
     READ_MAX_DYNAMIC_TABLE_SIZE,
@@ -287,7 +296,7 @@ public final class Decoder {
           return;
         }
 
-        name = readStringLiteral(in, nameLength);
+        name = readStringLiteral(in, nameLength, true);
 
         state = State.READ_LITERAL_HEADER_VALUE_LENGTH_PREFIX;
         break;
@@ -380,7 +389,7 @@ public final class Decoder {
           return;
         }
 
-        String value = readStringLiteral(in, valueLength);
+        String value = readStringLiteral(in, valueLength, false);
         insertHeader(headerListener, name, value, indexType);
         state = State.READ_HEADER_REPRESENTATION;
         break;
@@ -480,8 +489,8 @@ public final class Decoder {
   private void indexHeader(int index, HeaderListener headerListener) throws IOException {
     if (index <= StaticTable.length) {
       HeaderField headerField = StaticTable.getEntry(index);
-      Object parsed = addHeader(headerListener, headerField.name, headerField.value, headerField.parsedValue, false);
-      headerField.parsedValue = parsed;
+      staticParsedValues[index] =
+          addHeader(headerListener, headerField.name, headerField.value, staticParsedValues[index], false);
     } else if (index - StaticTable.length <= dynamicTable.length()) {
       HeaderField headerField = dynamicTable.getEntry(index - StaticTable.length);
       Object parsed = addHeader(headerListener, headerField.name, headerField.value, headerField.parsedValue, false);
@@ -534,19 +543,36 @@ public final class Decoder {
     return true;
   }
 
-  private String readStringLiteral(InputStream in, int length) throws IOException {
-    byte[] buf = new byte[length];
-    if (in.read(buf) != length) {
+  private String readStringLiteral(InputStream in, int length, boolean isName) throws IOException {
+    if (literalBuffer.length < length) {
+      literalBuffer = new byte[Math.max(length, literalBuffer.length * 2)];
+    }
+    if (in.read(literalBuffer, 0, length) != length) {
       throw DECOMPRESSION_EXCEPTION;
     }
     final byte[] result;
+    final int resultLength;
 
     if (huffmanEncoded) {
-      result = Huffman.DECODER.decode(buf);
+      int maxLength = HuffmanDecoder.maxDecodedLength(length);
+      if (huffmanBuffer.length < maxLength) {
+        huffmanBuffer = new byte[Math.max(maxLength, huffmanBuffer.length * 2)];
+      }
+      result = huffmanBuffer;
+      resultLength = Huffman.DECODER.decode(literalBuffer, length, huffmanBuffer);
     } else {
-      result = buf;
+      result = literalBuffer;
+      resultLength = length;
+    }
+
+    if (isName) {
+      // reuse the String instances of the static table for well-known names
+      String staticName = StaticTable.getName(result, resultLength);
+      if (staticName != null) {
+        return staticName;
+      }
     }
-    return StringTools.asciiStringFromBytes(result);
+    return StringTools.asciiStringFromBytes(result, 0, resultLength);
   }
 
   // Unsigned Little Endian Base 128 Variable-Length Integer Encoding
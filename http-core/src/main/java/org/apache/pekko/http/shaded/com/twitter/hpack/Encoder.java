@@ -35,7 +35,6 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Arrays;
 
-import org.apache.pekko.http.impl.util.StringTools;
 import org.apache.pekko.http.shaded.com.twitter.hpack.HpackUtil.IndexType;
 
 public final class Encoder {
@@ -193,9 +192,11 @@ public final class Encoder {
       encodeInteger(out, 0x80, 7, huffmanLength);
       Huffman.ENCODER.encode(out, string);
     } else {
-      byte[] stringBytes = StringTools.asciiStringBytes(string);
       encodeInteger(out, 0x00, 7, length);
-      out.write(stringBytes, 0, stringBytes.length);
+      // write the characters directly instead of copying the string into a temporary array first
+      for (int i = 0; i < length; i++) {
+        out.write(string.charAt(i));
+      }
     }
   }
 
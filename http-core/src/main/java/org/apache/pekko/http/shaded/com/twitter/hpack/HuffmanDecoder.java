@@ -31,8 +31,8 @@
 
 package org.apache.pekko.http.shaded.com.twitter.hpack;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
 
 final class HuffmanDecoder {
 
@@ -62,12 +62,31 @@ final class HuffmanDecoder {
    *         output stream has been closed.
    */
   public byte[] decode(byte[] buf) throws IOException {
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    byte[] out = new byte[maxDecodedLength(buf.length)];
+    int length = decode(buf, buf.length, out);
+    return Arrays.copyOf(out, length);
+  }
 
+  /**
+   * Returns the maximum number of bytes the given number of Huffman coded bytes can decode to,
+   * based on the shortest code having 5 bits.
+   */
+  static int maxDecodedLength(int length) {
+    return (int) (length * 8L / 5);
+  }
+
+  /**
+   * Decompresses the first <code>length</code> bytes of the given Huffman coded string literal into
+   * <code>out</code>, which must provide room for at least <code>maxDecodedLength(length)</code> bytes.
+   * @return the number of decoded bytes
+   * @throws IOException if the string literal is not correctly Huffman coded
+   */
+  int decode(byte[] buf, int length, byte[] out) throws IOException {
+    int outLength = 0;
     Node node = root;
     int current = 0;
     int bits = 0;
-    for (int i = 0; i < buf.length; i++) {
+    for (int i = 0; i < length; i++) {
       int b = buf[i] & 0xFF;
       current = (current << 8) | b;
       bits += 8;
@@ -79,7 +98,7 @@ final class HuffmanDecoder {
           if (node.symbol == HpackUtil.HUFFMAN_EOS) {
             throw EOS_DECODED;
           }
-          baos.write(node.symbol);
+          out[outLength++] = (byte) node.symbol;
           node = root;
         }
       }
@@ -90,7 +109,7 @@ final class HuffmanDecoder {
       node = node.children[c];
       if (node.isTerminal() && node.bits <= bits) {
         bits -= node.bits;
-        baos.write(node.symbol);
+        out[outLength++] = (byte) node.symbol;
         node = root;
       } else {
         break;
@@ -105,7 +124,7 @@ final class HuffmanDecoder {
       throw INVALID_PADDING;
     }
 
-    return baos.toByteArray();
+    return outLength;
   }
 
   private static final class Node {
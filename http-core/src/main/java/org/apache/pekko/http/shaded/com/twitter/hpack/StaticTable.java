@@ -31,6 +31,7 @@
 
 package org.apache.pekko.http.shaded.com.twitter.hpack;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -110,6 +111,8 @@ final class StaticTable {
 
   private static final Map<String, Integer> STATIC_INDEX_BY_NAME = createMap();
 
+  private static final String[][] STATIC_NAMES_BY_LENGTH = createNamesByLength();
+
   /**
    * The number of header fields in the static table.
    */
@@ -156,6 +159,55 @@ final class StaticTable {
     return -1;
   }
 
+  /**
+   * Returns the static table's String instance for the header field name given as the first
+   * <code>length</code> ISO-8859-1 encoded bytes of <code>bytes</code>.
+   * Returns null if the header field name is not in the static table.
+   */
+  static String getName(byte[] bytes, int length) {
+    if (length >= STATIC_NAMES_BY_LENGTH.length) {
+      return null;
+    }
+    for (String name : STATIC_NAMES_BY_LENGTH[length]) {
+      if (equalsBytes(name, bytes, length)) {
+        return name;
+      }
+    }
+    return null;
+  }
+
+  private static boolean equalsBytes(String name, byte[] bytes, int length) {
+    for (int i = 0; i < length; i++) {
+      if (name.charAt(i) != (bytes[i] & 0xFF)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // group the distinct header names by length to allow looking up names without creating a String first
+  private static String[][] createNamesByLength() {
+    int maxLength = 0;
+    for (String name : STATIC_INDEX_BY_NAME.keySet()) {
+      maxLength = Math.max(maxLength, name.length());
+    }
+    List<List<String>> namesByLength = new ArrayList<List<String>>(maxLength + 1);
+    for (int i = 0; i <= maxLength; i++) {
+      namesByLength.add(new ArrayList<String>());
+    }
+    for (HeaderField entry : STATIC_TABLE) {
+      List<String> names = namesByLength.get(entry.name.length());
+      if (!names.contains(entry.name)) {
+        names.add(entry.name);
+      }
+    }
+    String[][] ret = new String[maxLength + 1][];
+    for (int i = 0; i <= maxLength; i++) {
+      ret[i] = namesByLength.get(i).toArray(new String[0]);
+    }
+    return ret;
+  }
+
   // create a map of header name to index value to allow quick lookup
   private static Map<String, Integer> createMap() {
     int length = STATIC_TABLE.size();
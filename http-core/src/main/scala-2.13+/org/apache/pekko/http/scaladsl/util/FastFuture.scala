@@ -82,6 +82,25 @@ object FastFuture {
   def successful[T]: T => Future[T] = _successful.asInstanceOf[T => Future[T]]
   val failed: Throwable => Future[Nothing] = ErrorFuture.apply
 
+  /**
+   * INTERNAL API
+   *
+   * Returns the value of the given future if it has already been completed successfully and `null` otherwise.
+   * In contrast to `future.value` this doesn't allocate for futures created by `FastFuture`, which allows
+   * callers to handle already available results inline and only fall back to the transformations above
+   * (which also cover failures) for everything else.
+   */
+  private[http] def successfulValueOrNull[T <: AnyRef](future: Future[T]): T = future match {
+    case FulfilledFuture(a) => a
+    case ErrorFuture(_)     => null.asInstanceOf[T]
+    case _                  =>
+      if (future.isCompleted) future.value match {
+        case Some(Success(a)) => a
+        case _                => null.asInstanceOf[T]
+      }
+      else null.asInstanceOf[T]
+  }
+
   private case class FulfilledFuture[+A](a: A) extends Future[A] {
     def value = Some(Success(a))
     def onComplete[U](f: Try[A] => U)(implicit executor: ExecutionContext) = Future.successful(a).onComplete(f)
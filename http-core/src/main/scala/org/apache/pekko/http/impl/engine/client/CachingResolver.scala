@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.engine.client
+
+import java.net.{ InetAddress, InetSocketAddress, UnknownHostException }
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.{ AtomicBoolean, AtomicInteger }
+
+import org.apache.pekko
+import pekko.actor.{ ActorSystem, Cancellable, ExtendedActorSystem, Extension, ExtensionId, ExtensionIdProvider }
+import pekko.annotation.InternalApi
+import pekko.dispatch.ExecutionContexts
+import pekko.http.impl.util._
+import pekko.io.{ Dns, IO }
+import pekko.io.dns.{ AAAARecord, ARecord, DnsProtocol }
+import pekko.pattern.ask
+import pekko.util.Timeout
+
+import scala.annotation.tailrec
+import scala.collection.immutable
+import scala.concurrent.{ Future, Promise }
+import scala.concurrent.duration._
+
+/**
+ * INTERNAL API
+ *
+ * Caches DNS answers for client connections, see `ClientTransport.withCachingResolver`.
+ *
+ * Answers are cached for the smallest TTL of their records (limited by `min-ttl` and `max-ttl`). Answers for hosts that
+ * are watched by a pool are refreshed in the background before they expire, so that new connections usually don't have
+ * to wait for DNS resolution and the pool learns about addresses that have disappeared. New connections to a host are
+ * spread over all of its addresses in turn. An address a connection attempt failed to is skipped for the
+ * `failure-ejection-period`, as long as there are other addresses.
+ *
+ * @param lookup Resolves a host to its addresses and their TTLs
+ */
+@InternalApi
+private[http] final class CachingResolver(
+    system: ExtendedActorSystem, lookup: String => Future[immutable.Seq[(InetAddress, FiniteDuration)]])
+    extends Extension {
+  import CachingResolver.Entry
+
+  private val config = system.settings.config.getConfig("pekko.http.client.caching-resolver")
+  private val minTtl = config.getFiniteDuration("min-ttl")
+  private val maxTtl = config.getFiniteDuration("max-ttl")
+  private val refreshAhead = config.getDouble("refresh-ahead")
+  private val failureEjectionNanos = config.getFiniteDuration("failure-ejection-period").toNanos
+
+  require(minTtl <= maxTtl, "min-ttl must be <= max-ttl")
+  require(refreshAhead > 0 && refreshAhead <= 1, "refresh-ahead must be > 0 and <= 1")
+
+  private val entries = new ConcurrentHashMap[String, Entry]
+  private val ongoingLookups = new ConcurrentHashMap[String, Future[Entry]]
+  private val ejectedUntil = new ConcurrentHashMap[InetAddress, java.lang.Long]
+  // hosts that are watched by pools and are therefore refreshed in the background, guarded by itself
+  private val refreshers = new java.util.HashMap[String, Refresher]
+
+  def resolve(host: String, port: Int): Future[InetSocketAddress] = {
+    val now = System.nanoTime()
+    val entry = entries.get(host)
+    if ((entry ne null) && now - entry.expiresAt < 0) {
+      if (now - entry.refreshAt >= 0) refresh(host)
+      Future.successful(new InetSocketAddress(select(entry, now), port))
+    } else
+      refresh(host).map(e => new InetSocketAddress(select(e, System.nanoTime()), port))(
+        ExecutionContexts.sameThreadExecutionContext)
+  }
+
+  /** Skips the given address for new connections for the `failure-ejection-period` */
+  def eject(address: InetAddress): Unit =
+    ejectedUntil.put(address, System.nanoTime() + failureEjectionNanos)
+
+  /** Returns false if the given address is not part of the latest known answer for the given host any more */
+  def isCurrent(host: String, address: InetAddress): Boolean = {
+    val entry = entries.get(host)
+    (entry eq null) || entry.addresses.contains(address)
+  }
+
+  /**
+   * Keeps the answer for the given host refreshed in the background until the returned handle is cancelled, and calls
+   * `onChange` from any thread whenever the addresses of the host have changed.
+   */
+  def watch(host: String, onChange: () => Unit): Cancellable = refreshers.synchronized {
+    val refresher = refreshers.get(host) match {
+      case null =>
+        val refresher = new Refresher(host)
+        refreshers.put(host, refresher)
+        refresher.scheduleNext(Duration.Zero)
+        refresher
+      case refresher => refresher
+    }
+    refresher.add(onChange)
+  }
+
+  private def refresh(host: String): Future[Entry] = {
+    val promise = Promise[Entry]()
+    val ongoing = ongoingLookups.putIfAbsent(host, promise.future)
+    if (ongoing ne null) ongoing
+    else {
+      promise.completeWith(resolveRecords(host))
+      promise.future.onComplete { _ =>
+        ongoingLookups.remove(host, promise.future)
+      }(ExecutionContexts.sameThreadExecutionContext)
+      promise.future
+    }
+  }
+
+  private def resolveRecords(host: String): Future[Entry] =
+    lookup(host).map { records =>
+      if (records.isEmpty) throw new UnknownHostException(host)
+
+      val ttl = records.map(_._2).min.max(minTtl).min(maxTtl)
+      val now = System.nanoTime()
+      val entry = new Entry(records.map(_._1).distinct.toVector, now + ttl.toNanos, now + (ttl * refreshAhead).toNanos)
+      val previous = entries.put(host, entry)
+      if ((previous ne null) && previous.addresses.toSet != entry.addresses.toSet) {
+        val refresher = refreshers.synchronized(refreshers.get(host))
+        if (refresher ne null) refresher.onChange()
+      }
+      entry
+    }(ExecutionContexts.sameThreadExecutionContext)
+
+  /** Selects the next address of the entry in turn, skipping ejected addresses if possible */
+  private def select(entry: Entry, now: Long): InetAddress = {
+    val addresses = entry.addresses
+    val start = entry.next.getAndIncrement()
+
+    @tailrec def rec(i: Int): InetAddress =
+      if (i == addresses.size) addresses(Math.floorMod(start, addresses.size))
+      else {
+        val address = addresses(Math.floorMod(start + i, addresses.size))
+        val until = ejectedUntil.get(address)
+        if ((until eq null) || now - until >= 0) address
+        else rec(i + 1)
+      }
+
+    rec(0)
+  }
+
+  /**
+   * Refreshes the answer for a host whenever it is due while the host is watched. A failed lookup is retried after
+   * `min-ttl`, the cached answer is kept until it expires in the meantime.
+   */
+  private final class Refresher(host: String) extends Runnable {
+    // guarded by `refreshers`
+    private var watchers: List[Watcher] = Nil
+    private var scheduled: Cancellable = _
+
+    def add(onChange: () => Unit): Cancellable = {
+      val watcher = new Watcher(this, onChange)
+      watchers ::= watcher
+      watcher
+    }
+
+    def remove(watcher: Watcher): Unit = refreshers.synchronized {
+      watchers = watchers.filterNot(_ eq watcher)
+      if (watchers.isEmpty && (refreshers.get(host) eq this)) {
+        refreshers.remove(host)
+        scheduled.cancel()
+      }
+    }
+
+    def onChange(): Unit = refreshers.synchronized(watchers).foreach(_.onChange())
+
+    def scheduleNext(delay: FiniteDuration): Unit = refreshers.synchronized {
+      if (refreshers.get(host) eq this) scheduled = system.scheduler.scheduleOnce(delay, this)(system.dispatcher)
+    }
+
+    def run(): Unit = {
+      val entry = entries.get(host)
+      val now = System.nanoTime()
+      if ((entry ne null) && now - entry.refreshAt < 0) scheduleNext((entry.refreshAt - now).nanos)
+      else
+        refresh(host).onComplete { result =>
+          if (result.isSuccess) run() else scheduleNext(minTtl)
+        }(ExecutionContexts.sameThreadExecutionContext)
+    }
+  }
+
+  private final class Watcher(refresher: Refresher, val onChange: () => Unit) extends Cancellable {
+    private val cancelled = new AtomicBoolean
+
+    def cancel(): Boolean =
+      if (cancelled.compareAndSet(false, true)) {
+        refresher.remove(this)
+        true
+      } else false
+    def isCancelled: Boolean = cancelled.get
+  }
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[http] object CachingResolver extends ExtensionId[CachingResolver] with ExtensionIdProvider {
+  private final class Entry(val addresses: Vector[InetAddress], val expiresAt: Long, val refreshAt: Long) {
+    val next = new AtomicInteger
+  }
+
+  override def get(system: ActorSystem): CachingResolver = super.get(system)
+  def lookup: ExtensionId[_ <: Extension] = CachingResolver
+  def createExtension(system: ExtendedActorSystem): CachingResolver = new CachingResolver(system, dnsLookup(system))
+
+  /** Resolves A and AAAA records through the `IO(Dns)` extension */
+  private def dnsLookup(system: ExtendedActorSystem): String => Future[immutable.Seq[(InetAddress, FiniteDuration)]] = {
+    implicit val resolveTimeout: Timeout =
+      Timeout(system.settings.config.getFiniteDuration("pekko.http.client.caching-resolver.resolve-timeout"))
+
+    host =>
+      (IO(Dns)(system) ? DnsProtocol.Resolve(host)).mapTo[DnsProtocol.Resolved].map { resolved =>
+        resolved.records.collect {
+          case a: ARecord    => a.ip -> a.ttl.value
+          case a: AAAARecord => a.ip -> a.ttl.value
+        }
+      }(ExecutionContexts.sameThreadExecutionContext)
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.engine.client
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.http.scaladsl.settings.ConcurrencyLimitSettings
+
+/**
+ * INTERNAL API
+ *
+ * Adaptive limit for the number of requests in flight, adjusted with an additive increase / multiplicative decrease
+ * scheme from the outcome and latency of each request.
+ *
+ * The limit grows by `1 / limit` for every successful sample taken while at least half of the limit was in use, i.e. by
+ * about one per round of `limit` requests, and is multiplied with the `backoff-ratio` for a sample that failed or
+ * took longer than the `latency-threshold`. As the requests in flight during a back off are likely to fail or be slow
+ * as well, the limit backs off at most once per round trip: only requests dispatched after the last back off can
+ * trigger the next one. Not thread-safe, to be used from within a single stage.
+ */
+@InternalApi
+private[client] final class ConcurrencyLimit(settings: ConcurrencyLimitSettings) {
+  private[this] val latencyThresholdNanos = settings.latencyThreshold.toNanos
+  private[this] var estimate: Double = settings.initialLimit
+  private[this] var backedOff = false
+  private[this] var lastBackoffNanos = 0L
+
+  def limit: Int = estimate.toInt
+
+  /**
+   * Adjusts the limit for a finished request.
+   *
+   * @param dispatchedNanos the `System.nanoTime` at which the request was dispatched
+   * @param completedNanos the `System.nanoTime` at which the response (or failure) was received
+   * @param failed whether the request failed
+   * @param inflight the number of requests that were in flight when the request finished, including itself
+   */
+  def onSample(dispatchedNanos: Long, completedNanos: Long, failed: Boolean, inflight: Int): Unit =
+    if (failed || completedNanos - dispatchedNanos > latencyThresholdNanos) {
+      if (!backedOff || dispatchedNanos - lastBackoffNanos > 0) {
+        estimate = math.max(settings.minLimit, math.floor(estimate * settings.backoffRatio))
+        backedOff = true
+        lastBackoffNanos = completedNanos
+      }
+    } else if (inflight * 2 >= limit)
+      estimate = math.min(settings.maxLimit, estimate + 1.0 / estimate)
+}
@@ -28,13 +28,16 @@ import pekko.http.impl.settings.HostConnectionPoolSetup
 private[http] final class PoolId(val hcps: HostConnectionPoolSetup, val usage: PoolUsage) {
   override def toString = s"PoolId(hcps = $hcps, usage = $usage)"
 
+  // pool ids are created and looked up for every request sent with `singleRequest`
+  private[this] val cachedHashCode = hcps.hashCode() ^ usage.hashCode()
+
   override def equals(that: Any): Boolean =
     that match {
-      case p: PoolId => p.hcps == hcps && p.usage == usage
+      case p: PoolId => (p eq this) || (p.hashCode == cachedHashCode && p.hcps == hcps && p.usage == usage)
       case _         => false
     }
 
-  override def hashCode(): Int = hcps.hashCode() ^ usage.hashCode()
+  override def hashCode(): Int = cachedHashCode
 }
 
 private[http] object PoolId {
@@ -19,10 +19,11 @@ import pekko.actor._
 import pekko.annotation.InternalStableApi
 import pekko.event.{ LogSource, Logging, LoggingAdapter }
 import pekko.http.impl.engine.client.PoolFlow._
-import pekko.http.impl.engine.client.pool.NewHostConnectionPool
+import pekko.http.impl.engine.client.pool.{ Http2HostConnectionPool, NewHostConnectionPool }
+import pekko.http.impl.engine.http2.Http2
 import pekko.http.impl.util._
 import pekko.http.scaladsl.model._
-import pekko.http.scaladsl.Http
+import pekko.http.scaladsl.{ ClientTransport, Http, HttpsConnectionContext }
 import pekko.macros.LogHelper
 import pekko.stream.ActorMaterializer
 import pekko.stream.Attributes
@@ -65,7 +66,8 @@ private[http] object PoolInterface {
     case object IdleTimeout extends ShutdownReason
   }
 
-  def apply(poolId: PoolId, parent: ActorRefFactory, master: PoolMaster)(implicit fm: Materializer): PoolInterface = {
+  def apply(poolId: PoolId, parent: ActorRefFactory, master: PoolMaster, metricsSpi: PoolMetricsSpi)(
+      implicit fm: Materializer): PoolInterface = {
     import poolId.hcps
     import hcps._
     import setup.{ connectionContext, settings }
@@ -74,19 +76,43 @@ private[http] object PoolInterface {
 
     log.debug("Creating pool.")
 
-    val connectionFlow =
-      Http().outgoingConnectionUsingContext(host, port, connectionContext, settings.connectionSettings, setup.log)
+    val metrics = metricsSpi.poolStarted(
+      PoolMetrics.PoolInfo(PoolLogSource.genString(poolId), host, port, connectionContext.isSecure))
 
-    val poolFlow = NewHostConnectionPool(connectionFlow, settings, log).named("PoolFlow")
+    val poolFlow =
+      if (settings.http2Enabled) {
+        val connectionFlow = connectionContext match {
+          case httpsContext: HttpsConnectionContext =>
+            Http2().outgoingConnection(host, port, httpsContext, settings.connectionSettings, setup.log)
+          case _ =>
+            Http2().outgoingConnectionPriorKnowledge(host, port, settings.connectionSettings, setup.log)
+        }
+        Http2HostConnectionPool(connectionFlow, settings, log, metrics).named("PoolFlow")
+      } else {
+        val connectionFlow =
+          Http().outgoingConnectionUsingContext(host, port, connectionContext, settings.connectionSettings, setup.log)
+        val connectionFilter = settings.connectionSettings.transport match {
+          case transport: ClientTransport.CachingResolverTransport =>
+            val resolver = transport.resolverFor(system)
+            new NewHostConnectionPool.ConnectionFilter {
+              def isCurrent(connection: Http.OutgoingConnection): Boolean =
+                resolver.isCurrent(host, connection.remoteAddress.getAddress)
+              def watch(onChange: () => Unit): Cancellable = resolver.watch(host, onChange)
+            }
+          case _ => NewHostConnectionPool.ConnectionFilter.AllCurrent
+        }
+        NewHostConnectionPool(connectionFlow, settings, log, connectionFilter, metrics).named("PoolFlow")
+      }
 
-    Flow.fromGraph(new PoolInterfaceStage(poolId, master, settings.maxOpenRequests, log))
+    Flow.fromGraph(new PoolInterfaceStage(poolId, master, settings.maxOpenRequests, metrics, log))
       .join(poolFlow)
       .run()
   }
 
   private val IdleTimeout = "idle-timeout"
 
-  class PoolInterfaceStage(poolId: PoolId, master: PoolMaster, bufferSize: Int, log: LoggingAdapter)
+  class PoolInterfaceStage(poolId: PoolId, master: PoolMaster, bufferSize: Int, metrics: PoolMetrics,
+      log: LoggingAdapter)
       extends GraphStageWithMaterializedValue[FlowShape[ResponseContext, RequestContext], PoolInterface] {
     private val requestOut = Outlet[RequestContext]("PoolInterface.requestOut")
     private val responseIn = Inlet[ResponseContext]("PoolInterface.responseIn")
@@ -97,19 +123,24 @@ private[http] object PoolInterface {
     override def createLogicAndMaterializedValue(
         inheritedAttributes: Attributes, _materializer: Materializer): (GraphStageLogic, PoolInterface) = {
       import _materializer.executionContext
-      val logic = new Logic(poolId, shape, master, requestOut, responseIn, bufferSize, log)
+      val logic = new Logic(poolId, shape, master, requestOut, responseIn, bufferSize, metrics, log)
       (logic, logic)
     }
   }
 
   @InternalStableApi // name `Logic` and annotated methods
   private class Logic(poolId: PoolId, shape: FlowShape[ResponseContext, RequestContext], master: PoolMaster,
-      requestOut: Outlet[RequestContext], responseIn: Inlet[ResponseContext], bufferSize: Int,
+      requestOut: Outlet[RequestContext], responseIn: Inlet[ResponseContext], bufferSize: Int, metrics: PoolMetrics,
       val log: LoggingAdapter)(implicit executionContext: ExecutionContext) extends TimerGraphStageLogic(shape)
       with PoolInterface with InHandler with OutHandler with LogHelper {
+    private[this] val concurrencyLimit: ConcurrencyLimit = {
+      val limitSettings = poolId.hcps.setup.settings.concurrencyLimitSettings
+      if (limitSettings.enabled) new ConcurrencyLimit(limitSettings) else null
+    }
     private[this] val PoolOverflowException = new BufferOverflowException( // stack trace cannot be prevented here because `BufferOverflowException` is final
       s"Exceeded configured max-open-requests value of [${poolId.hcps.setup.settings.maxOpenRequests}]. This means that the request queue of this pool (${poolId.hcps}) " +
-      s"has completely filled up because the pool currently does not process requests fast enough to handle the incoming request load. " +
+      s"has completely filled up because the pool currently does not process requests fast enough to handle the incoming request load" +
+      (if (concurrencyLimit ne null) " within its adaptive concurrency limit. " else ". ") +
       "Please retry the request later. See https://pekko.apache.org/docs/pekko-http/current/scala/http/client-side/pool-overflow.html for " +
       "more information.")
 
@@ -121,6 +152,12 @@ private[http] object PoolInterface {
     var shuttingDownReason: Option[ShutdownReason] = None
     var remainingRequested = 0
     val buffer = new util.ArrayDeque[RequestContext](bufferSize)
+    val metricsEnabled = metrics ne NoOpPoolMetrics
+    // times at which the requests in the buffer were enqueued, only tracked if metrics are collected
+    val bufferedAt = if (metricsEnabled) new util.ArrayDeque[java.lang.Long](bufferSize) else null
+    // dispatch times of the requests waiting for a response from the pool, only tracked if the concurrency limit is enabled
+    val dispatchedAt =
+      if (concurrencyLimit ne null) new util.IdentityHashMap[Promise[HttpResponse], java.lang.Long] else null
 
     setHandlers(responseIn, requestOut, this)
 
@@ -156,38 +193,72 @@ private[http] object PoolInterface {
       onResponseComplete(ctx)
       pull(responseIn)
 
+      if (concurrencyLimit ne null) {
+        val inflight = dispatchedAt.size
+        val dispatchTime = dispatchedAt.remove(rc.responsePromise)
+        if (dispatchTime ne null)
+          concurrencyLimit.onSample(dispatchTime, System.nanoTime(), response0.isFailure, inflight)
+        dispatchFromBuffer()
+      }
+
       afterRequestFinished()
     }
-    override def onPull(): Unit =
-      if (!buffer.isEmpty) {
+    override def onPull(): Unit = dispatchFromBuffer()
+
+    def dispatchFromBuffer(): Unit =
+      if (!buffer.isEmpty && canDispatch) {
         val ctx = buffer.removeFirst()
         debug(
           s"Dispatching request [${ctx.request.debugString}] from buffer to pool. Remaining buffer: ${buffer.size()}/$bufferSize")
-        push(requestOut, ctx)
+        if (metricsEnabled) {
+          metrics.onBufferedRequestsChanged(buffer.size)
+          metrics.onRequestDispatched(System.nanoTime() - bufferedAt.removeFirst())
+        }
+        dispatch(ctx)
       }
 
+    def canDispatch: Boolean =
+      isAvailable(requestOut) && ((concurrencyLimit eq null) || dispatchedAt.size < concurrencyLimit.limit)
+
+    def dispatch(ctx: RequestContext): Unit = {
+      if (concurrencyLimit ne null) dispatchedAt.put(ctx.responsePromise, System.nanoTime())
+      push(requestOut, ctx)
+    }
+
     val responseCompletedCallback = getAsyncCallback[Done] { _ => remainingRequested -= 1; afterRequestFinished() }
     val requestCallback = getAsyncCallback[(HttpRequest, Promise[HttpResponse])] {
       case (request, responsePromise) =>
-        val scheme = Uri.httpScheme(hcps.setup.connectionContext.isSecure)
+        val isSecure = hcps.setup.connectionContext.isSecure
+        val scheme = Uri.httpScheme(isSecure)
         val hostHeader = headers.Host(hcps.host, Uri.normalizePort(hcps.port, scheme))
         val effectiveRequest =
           onDispatch(
-            request
-              .withUri(request.uri.toHttpRequestTargetOriginForm)
-              .withDefaultHeaders(hostHeader))
+            // HTTP/2 renders the `:scheme` and `:authority` pseudo-headers from the request URI
+            if (hcps.setup.settings.http2Enabled) request.withEffectiveUri(isSecure, hostHeader)
+            else
+              request
+                .withUri(request.uri.toHttpRequestTargetOriginForm)
+                .withDefaultHeaders(hostHeader))
         val retries = if (request.method.isIdempotent) hcps.setup.settings.maxRetries else 0
         remainingRequested += 1
         resetIdleTimer()
         val ctx = RequestContext(effectiveRequest, responsePromise, retries)
-        if (isAvailable(requestOut)) {
+        if (canDispatch) {
           debug(s"Dispatching request [${request.debugString}] to pool")
-          push(requestOut, ctx)
+          if (metricsEnabled) metrics.onRequestDispatched(0L)
+          dispatch(ctx)
         } else if (buffer.size < bufferSize) {
           buffer.addLast(ctx)
+          if (metricsEnabled) {
+            bufferedAt.addLast(System.nanoTime())
+            metrics.onBufferedRequestsChanged(buffer.size)
+          }
           debug(s"Buffering request [${request.debugString}] at position ${buffer.size}/$bufferSize")
         } else {
-          debug(s"Could not dispatch request [${request.debugString}] because buffer is full")
+          if (concurrencyLimit ne null)
+            debug(s"Could not dispatch request [${request.debugString}] because buffer is full and " +
+              s"[${dispatchedAt.size}] requests are in flight with a concurrency limit of [${concurrencyLimit.limit}]")
+          else debug(s"Could not dispatch request [${request.debugString}] because buffer is full")
           responsePromise.tryFailure(PoolOverflowException)
         }
     }
@@ -221,7 +292,10 @@ private[http] object PoolInterface {
       !shuttingDown && remainingRequested == 0 && idleTimeout.isFinite && hcps.setup.settings.minConnections == 0
 
     override def onUpstreamFailure(ex: Throwable): Unit = shutdownPromise.tryFailure(ex)
-    override def postStop(): Unit = shutdownPromise.tryFailure(new IllegalStateException("Pool shutdown unexpectedly"))
+    override def postStop(): Unit = {
+      metrics.onPoolStopped()
+      shutdownPromise.tryFailure(new IllegalStateException("Pool shutdown unexpectedly"))
+    }
 
     // PoolInterface implementations
     override def request(request: HttpRequest, responsePromise: Promise[HttpResponse]): Unit =
@@ -31,6 +31,8 @@ import pekko.http.impl.engine.client.PoolInterface.ShutdownReason
 import pekko.http.scaladsl.model.{ HttpRequest, HttpResponse }
 import pekko.stream.Materializer
 
+import java.util.concurrent.ConcurrentHashMap
+
 import scala.concurrent.{ Future, Promise }
 import scala.util.Failure
 import scala.util.Success
@@ -40,9 +42,12 @@ import scala.util.Try
  * INTERNAL API
  *
  * API for accessing the global pool master actor.
+ *
+ * Requests for running pools are handed to the pool directly, using the registry of running pools that is
+ * maintained by the actor, so that the actor's mailbox is only involved when pools are started or shut down.
  */
 @InternalApi
-private[http] class PoolMaster(val ref: ActorRef) {
+private[http] class PoolMaster(val ref: ActorRef, runningPools: ConcurrentHashMap[PoolId, PoolInterface]) {
   import PoolMasterActor._
 
   /**
@@ -55,7 +60,9 @@ private[http] class PoolMaster(val ref: ActorRef) {
    */
   def dispatchRequest(poolId: PoolId, request: HttpRequest)(implicit fm: Materializer): Future[HttpResponse] = {
     val responsePromise = Promise[HttpResponse]()
-    ref ! SendRequest(poolId, request, responsePromise, fm)
+    val pool = runningPools.get(poolId)
+    if (pool ne null) pool.request(request, responsePromise)
+    else ref ! SendRequest(poolId, request, responsePromise, fm)
     responsePromise.future
   }
 
@@ -106,8 +113,10 @@ private[http] class PoolMaster(val ref: ActorRef) {
   }
 }
 private[http] object PoolMaster {
-  def apply()(implicit system: ExtendedActorSystem): PoolMaster =
-    new PoolMaster(system.systemActorOf(PoolMasterActor.props, "pool-master"))
+  def apply()(implicit system: ExtendedActorSystem): PoolMaster = {
+    val runningPools = new ConcurrentHashMap[PoolId, PoolInterface]
+    new PoolMaster(system.systemActorOf(PoolMasterActor.props(runningPools), "pool-master"), runningPools)
+  }
 }
 
 /**
@@ -126,10 +135,16 @@ private[http] object PoolMaster {
  * and are marked as being shared. This is the case for example for gateways obtained through
  * [[HttpExt.cachedHostConnectionPool]]. Some other gateways are not shared, such as those obtained through
  * [[HttpExt.newHostConnectionPool]], and will have their dedicated restartable pool.
+ *
+ * Running pools are also published to `runningPools`, which [[PoolMaster.dispatchRequest]] reads without going
+ * through this actor. A pool is removed from it as soon as it starts to shut down, so that requests for pools
+ * that are shutting down still reach this actor and are resent once the shutdown is complete.
  */
 @InternalApi
-private[http] final class PoolMasterActor extends Actor with ActorLogging {
-  private[this] val thisMaster: PoolMaster = new PoolMaster(self)
+private[http] final class PoolMasterActor(runningPools: ConcurrentHashMap[PoolId, PoolInterface])
+    extends Actor with ActorLogging {
+  private[this] val thisMaster: PoolMaster = new PoolMaster(self, runningPools)
+  private[this] val poolMetricsSpi: PoolMetricsSpi = PoolMetricsSpi.create(context.system)
 
   import PoolMasterActor._
 
@@ -148,9 +163,13 @@ private[http] final class PoolMasterActor extends Actor with ActorLogging {
     if (statusById.contains(poolId)) {
       throw new IllegalStateException(s"pool interface actor for $poolId already exists")
     }
-    val interface = PoolInterface(poolId, context, thisMaster)
+    val interface = PoolInterface(poolId, context, thisMaster, poolMetricsSpi)
     statusById += poolId -> PoolInterfaceRunning(interface)
     idByPool += interface -> poolId
+    runningPools.put(poolId, interface)
+    // unregister synchronously, i.e. before the pool stops accepting requests after an idle timeout
+    interface.whenShutdown.onComplete { _ => runningPools.remove(poolId, interface) }(
+      ExecutionContexts.sameThreadExecutionContext)
     interface.whenShutdown.onComplete { reason => self ! HasBeenShutdown(interface, reason) }(context.dispatcher)
     interface
   }
@@ -189,6 +208,7 @@ private[http] final class PoolMasterActor extends Actor with ActorLogging {
           // Ask the pool to shutdown itself. Queued connections will be resent here
           // to this actor by the pool actor, they will be retried once the shutdown
           // has completed.
+          runningPools.remove(poolId, pool)
           val completed = pool.shutdown()(context.dispatcher)
           shutdownCompletedPromise.tryCompleteWith(
             completed.map(_ => Done)(ExecutionContexts.sameThreadExecutionContext))
@@ -233,6 +253,7 @@ private[http] final class PoolMasterActor extends Actor with ActorLogging {
         }
         statusById -= poolId
         idByPool -= pool
+        runningPools.remove(poolId, pool)
       }
 
     // Testing only.
@@ -248,7 +269,8 @@ private[http] final class PoolMasterActor extends Actor with ActorLogging {
 
 private[http] object PoolMasterActor {
 
-  val props = Props[PoolMasterActor]().withDeploy(Deploy.local)
+  def props(runningPools: ConcurrentHashMap[PoolId, PoolInterface]): Props =
+    Props(new PoolMasterActor(runningPools)).withDeploy(Deploy.local)
 
   sealed trait PoolInterfaceStatus
   final case class PoolInterfaceRunning(interface: PoolInterface) extends PoolInterfaceStatus
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.engine.client
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.actor.ExtendedActorSystem
+import pekko.annotation.InternalApi
+import pekko.annotation.InternalStableApi
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[http] object PoolMetricsSpi {
+  private val ConfigKey = "pekko.http.host-connection-pool-metrics-class"
+  def create(system: ActorSystem): PoolMetricsSpi = {
+    if (!system.settings.config.hasPath(ConfigKey)) NoOpPoolMetricsSpi
+    else {
+      val fqcn = system.settings.config.getString(ConfigKey)
+      try {
+        system.asInstanceOf[ExtendedActorSystem].dynamicAccess
+          .createInstanceFor[PoolMetricsSpi](fqcn, (classOf[ActorSystem], system) :: Nil)
+          .get
+      } catch {
+        case ex: Throwable =>
+          system.log.debug(
+            "{} references a class that could not be instantiated ({}) falling back to no-op implementation", fqcn,
+            ex.toString)
+          NoOpPoolMetricsSpi
+      }
+    }
+  }
+}
+
+/**
+ * INTERNAL API
+ *
+ * Hook to observe host connection pools. An implementation is configured by setting
+ * `pekko.http.host-connection-pool-metrics-class` to the name of a class with a constructor that takes an
+ * `ActorSystem`. If the setting is absent, pools don't collect any measurements.
+ */
+@InternalStableApi
+trait PoolMetricsSpi {
+
+  /**
+   * Called whenever a pool (or a new incarnation of a pool after an idle shutdown) is started. The returned
+   * [[PoolMetrics]] receive the events of this pool until [[PoolMetrics.onPoolStopped]] is called.
+   */
+  def poolStarted(pool: PoolMetrics.PoolInfo): PoolMetrics
+}
+
+/**
+ * INTERNAL API
+ *
+ * Receives the events of a single pool. All methods are called from within the pool's stream, so implementations
+ * must not block, and must be thread-safe if they share state between pools. Durations are given in nanoseconds.
+ *
+ * The slot events are only reported by HTTP/1.1 pools, HTTP/2 pools (see `host-connection-pool.http2`) don't use slots.
+ */
+@InternalStableApi
+abstract class PoolMetrics {
+
+  /** A slot changed its status. All slots start as [[PoolMetrics.SlotStatus.Unconnected]]. */
+  def onSlotStatusChanged(from: PoolMetrics.SlotStatus, to: PoolMetrics.SlotStatus): Unit = ()
+
+  /** The number of requests waiting in the `max-open-requests` buffer in front of the pool changed */
+  def onBufferedRequestsChanged(bufferedRequests: Int): Unit = ()
+
+  /** A request was handed from the buffer to the pool after waiting there for the given time */
+  def onRequestDispatched(timeInQueueNanos: Long): Unit = ()
+
+  /** A connection attempt finished after the given time */
+  def onConnectionAttempt(connectTimeNanos: Long, succeeded: Boolean): Unit = ()
+
+  /** The headers of a response arrived the given time after the request was sent over a connection */
+  def onResponseReceived(timeToFirstByteNanos: Long): Unit = ()
+
+  /** A failed request is retried */
+  def onRequestRetried(): Unit = ()
+
+  /** The pool was stopped, no more events will be reported */
+  def onPoolStopped(): Unit = ()
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalStableApi
+object PoolMetrics {
+
+  /**
+   * Describes a pool.
+   *
+   * @param name a name that identifies the pool instance, the same one that is used as its log source
+   */
+  final case class PoolInfo(name: String, host: String, port: Int, secure: Boolean)
+
+  sealed trait SlotStatus
+  object SlotStatus {
+    case object Unconnected extends SlotStatus
+    case object Connecting extends SlotStatus
+    case object Idle extends SlotStatus
+    case object Busy extends SlotStatus
+    case object Embargoed extends SlotStatus
+  }
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[http] object NoOpPoolMetricsSpi extends PoolMetricsSpi {
+  override def poolStarted(pool: PoolMetrics.PoolInfo): PoolMetrics = NoOpPoolMetrics
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[http] object NoOpPoolMetrics extends PoolMetrics
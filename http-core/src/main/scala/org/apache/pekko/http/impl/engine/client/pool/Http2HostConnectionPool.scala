@@ -0,0 +1,324 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.engine.client.pool
+
+import java.util
+import java.util.concurrent.ThreadLocalRandom
+
+import org.apache.pekko
+import pekko.NotUsed
+import pekko.annotation.InternalApi
+import pekko.dispatch.ExecutionContexts
+import pekko.event.LoggingAdapter
+import pekko.http.impl.engine.client.{ NoOpPoolMetrics, PoolMetrics }
+import pekko.http.impl.engine.client.PoolFlow.{ RequestContext, ResponseContext }
+import pekko.http.impl.util.{ RichHttpRequest, StageLoggingWithOverride }
+import pekko.http.scaladsl.Http
+import pekko.http.scaladsl.model.{ AttributeKey, HttpRequest, HttpResponse, RequestResponseAssociation }
+import pekko.http.scaladsl.settings.ConnectionPoolSettings
+import pekko.stream._
+import pekko.stream.scaladsl.{ Flow, Keep, Source }
+import pekko.stream.stage.{ GraphStage, GraphStageLogic, InHandler, OutHandler, TimerGraphStageLogic }
+
+import scala.collection.JavaConverters._
+import scala.concurrent.Future
+import scala.concurrent.duration._
+import scala.util.control.NoStackTrace
+import scala.util.{ Failure, Success, Try }
+
+/**
+ * Internal API
+ *
+ * Host connection pool implementation that multiplexes requests over HTTP/2 connections.
+ *
+ * Requests are dispatched to the connection with the fewest requests in flight among the connections that currently
+ * accept a request. An HTTP/2 connection only accepts new requests while it has not reached the maximum number
+ * of concurrent streams announced by the server, so a new connection (up to `max-connections`) is only opened once all
+ * existing connections are saturated.
+ *
+ * Backpressure logic of the external interface:
+ *
+ *  * pool pulls if no request is waiting to be dispatched and no response is waiting to be pulled
+ *  * responses are correlated with their requests using a [[RequestResponseAssociation]] attribute, so they can
+ *    be delivered in the order they arrive, independently of the connection they arrived on
+ */
+@InternalApi
+private[client] object Http2HostConnectionPool {
+  def apply(
+      connectionFlow: Flow[HttpRequest, HttpResponse, Future[Http.OutgoingConnection]],
+      settings: ConnectionPoolSettings, log: LoggingAdapter,
+      metrics: PoolMetrics = NoOpPoolMetrics): Flow[RequestContext, ResponseContext, NotUsed] =
+    Flow.fromGraph(new Http2HostConnectionPoolStage(connectionFlow, settings, log, metrics))
+
+  private final class RequestTag(val ctx: RequestContext, val dispatchedNanos: Long) extends RequestResponseAssociation
+  private val requestTagKey = AttributeKey[RequestTag]("Http2HostConnectionPool.requestTagKey")
+
+  private case object EmbargoEnded
+
+  private final class Http2HostConnectionPoolStage(
+      connectionFlow: Flow[HttpRequest, HttpResponse, Future[Http.OutgoingConnection]],
+      settings: ConnectionPoolSettings, _log: LoggingAdapter, metrics: PoolMetrics)
+      extends GraphStage[FlowShape[RequestContext, ResponseContext]] {
+    val requestsIn = Inlet[RequestContext]("Http2HostConnectionPoolStage.requestsIn")
+    val responsesOut = Outlet[ResponseContext]("Http2HostConnectionPoolStage.responsesOut")
+
+    override val shape = FlowShape(requestsIn, responsesOut)
+    def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+      new TimerGraphStageLogic(shape) with StageLoggingWithOverride with InHandler with OutHandler {
+        override def logOverride: LoggingAdapter = _log
+
+        setHandlers(requestsIn, responsesOut, this)
+
+        private[this] val metricsEnabled = metrics ne NoOpPoolMetrics
+        private[this] val retryBudget =
+          if (settings.retryBudgetSettings.enabled) new RetryBudget(settings.retryBudgetSettings) else null
+        private[this] var lastConnectionId = 0
+        private[this] var connections: List[Connection] = Nil
+        private[this] val pending: util.Deque[RequestContext] = new util.ArrayDeque[RequestContext]
+        private[this] val responses: util.Deque[ResponseContext] = new util.ArrayDeque[ResponseContext]
+
+        private[this] var connectionEmbargo: FiniteDuration = Duration.Zero
+        private[this] var embargoed = false
+        def baseEmbargo: FiniteDuration = settings.baseConnectionBackoff
+        def maxBaseEmbargo: FiniteDuration = settings.maxConnectionBackoff / 2 // because we'll add a random component of the same size to the base
+
+        override def preStart(): Unit = {
+          pull(requestsIn)
+          openConnectionIfNeeded()
+        }
+
+        def onPush(): Unit = {
+          if (retryBudget ne null) retryBudget.onRequest()
+          pending.addLast(grab(requestsIn))
+          dispatchPending()
+        }
+        def onPull(): Unit =
+          if (!responses.isEmpty) {
+            push(responsesOut, responses.pollFirst())
+            pullIfNeeded()
+          }
+
+        def pullIfNeeded(): Unit =
+          if (pending.isEmpty && responses.isEmpty && !hasBeenPulled(requestsIn) && !isClosed(requestsIn))
+            pull(requestsIn)
+
+        def dispatchPending(): Unit = {
+          var connection = nextConnection()
+          while (!pending.isEmpty && (connection ne null)) {
+            connection.dispatch(pending.pollFirst())
+            connection = nextConnection()
+          }
+          openConnectionIfNeeded()
+          pullIfNeeded()
+        }
+
+        /** Returns the connection that accepts a request and has the fewest requests in flight or null if there is none */
+        def nextConnection(): Connection = {
+          var best: Connection = null
+          var remaining = connections
+          while (remaining.nonEmpty) {
+            val connection = remaining.head
+            if (connection.canDispatch && ((best eq null) || connection.inflight.size < best.inflight.size))
+              best = connection
+            remaining = remaining.tail
+          }
+          best
+        }
+
+        def openConnectionIfNeeded(): Unit =
+          if (!embargoed && connections.size < settings.maxConnections && !connections.exists(_.isConnecting) &&
+            (connections.size < settings.minConnections || (!pending.isEmpty && !connections.exists(_.canDispatch))))
+            openConnection()
+
+        def openConnection(): Unit = {
+          lastConnectionId += 1
+          val connection = new Connection(lastConnectionId)
+          connections = connection :: connections
+          connection.debug("Establishing connection")
+          val connectStartNanos = if (metricsEnabled) System.nanoTime() else 0L
+
+          val established =
+            Source.fromGraph(connection.requestOut.source)
+              .viaMat(connectionFlow)(Keep.right)
+              .toMat(connection.responseIn.sink)(Keep.left)
+              .run()(subFusingMaterializer)
+
+          established.onComplete(safely { (result: Try[Http.OutgoingConnection]) =>
+            if (metricsEnabled)
+              metrics.onConnectionAttempt(System.nanoTime() - connectStartNanos, succeeded = result.isSuccess)
+            result match {
+              case Success(_)     => onConnectionAttemptSucceeded(connection)
+              case Failure(cause) => onConnectionAttemptFailed(connection, cause)
+            }
+          })(ExecutionContexts.parasitic)
+        }
+
+        def onConnectionAttemptSucceeded(connection: Connection): Unit = {
+          connection.debug("Connection attempt succeeded")
+          connection.connecting = false
+          connectionEmbargo = Duration.Zero
+          if (connection.isClosed) connection.close(None) // the connection already failed while it was established
+          else connection.established = true
+          dispatchPending()
+        }
+
+        def onConnectionAttemptFailed(connection: Connection, cause: Throwable): Unit = {
+          connection.debug(s"Connection attempt failed with ${cause.getMessage}")
+          connection.connecting = false
+          connection.close(Some(cause))
+
+          // requests are waiting for this connection if no other one is available
+          if (!connections.exists(_.established)) {
+            var waiting = pending.size
+            while (waiting > 0) {
+              dispatchResult(pending.pollFirst(), Failure(cause))
+              waiting -= 1
+            }
+          }
+
+          if (baseEmbargo > Duration.Zero) {
+            connectionEmbargo =
+              if (connectionEmbargo == Duration.Zero) baseEmbargo
+              else (connectionEmbargo * 2) min maxBaseEmbargo
+            val minMillis = connectionEmbargo.toMillis
+            val backoff = ThreadLocalRandom.current().nextLong(minMillis, minMillis * 2 + 1).millis
+            log.debug(s"Backing off new connection attempts for $backoff.")
+            embargoed = true
+            scheduleOnce(EmbargoEnded, backoff)
+          }
+          dispatchPending()
+        }
+
+        override protected def onTimer(timerKey: Any): Unit = timerKey match {
+          case EmbargoEnded =>
+            embargoed = false
+            dispatchPending()
+        }
+
+        def dispatchResult(req: RequestContext, result: Try[HttpResponse]): Unit =
+          if (result.isFailure && req.canBeRetried && ((retryBudget eq null) || retryBudget.tryWithdraw())) {
+            log.debug("Request [{}] has {} retries left, retrying...", req.request.debugString, req.retriesLeft)
+            metrics.onRequestRetried()
+            pending.addLast(req.copy(retriesLeft = req.retriesLeft - 1))
+          } else if (isAvailable(responsesOut)) push(responsesOut, ResponseContext(req, result))
+          else responses.addLast(ResponseContext(req, result))
+
+        final class Connection(connectionId: Int) extends InHandler with OutHandler {
+          val requestOut = new SubSourceOutlet[HttpRequest](s"Http2PoolConnection[$connectionId].requestOut")
+          val responseIn = new SubSinkInlet[HttpResponse](s"Http2PoolConnection[$connectionId].responseIn")
+          val inflight = new util.LinkedHashSet[RequestTag]
+          var connecting = true
+          var established = false
+
+          requestOut.setHandler(this)
+          responseIn.setHandler(this)
+          responseIn.pull()
+
+          def isClosed: Boolean = requestOut.isClosed || responseIn.isClosed
+          def isConnecting: Boolean = connecting
+          def canDispatch: Boolean = established && requestOut.isAvailable && !isClosed
+
+          def dispatch(req: RequestContext): Unit = {
+            debug(s"Dispatching request [${req.request.debugString}]")
+            val tag = new RequestTag(req, if (metricsEnabled) System.nanoTime() else 0L)
+            inflight.add(tag)
+            requestOut.push(req.request.addAttribute(requestTagKey, tag))
+          }
+
+          /**
+           * Closes the connection and fails or retries all requests that are still in flight on it.
+           */
+          def close(failure: Option[Throwable]): Unit = {
+            connections = connections.filterNot(_ eq this)
+            if (!requestOut.isClosed) failure match {
+              case None        => requestOut.complete()
+              case Some(cause) => requestOut.fail(cause)
+            }
+            if (!responseIn.isClosed) responseIn.cancel()
+
+            if (!inflight.isEmpty) {
+              val exception =
+                failure.getOrElse(new IllegalStateException("Connection was closed while response was still in-flight"))
+              val tags = inflight.asScala.toList
+              inflight.clear()
+              tags.foreach(tag => dispatchResult(tag.ctx, Failure(exception)))
+            }
+          }
+
+          def onPush(): Unit = {
+            val response = responseIn.grab()
+            response.attribute(requestTagKey) match {
+              case Some(tag) if inflight.remove(tag) =>
+                if (metricsEnabled) metrics.onResponseReceived(System.nanoTime() - tag.dispatchedNanos)
+                dispatchResult(tag.ctx, Success(response.removeAttribute(requestTagKey)))
+              case _ =>
+                log.warning("Received unexpected response [{}], ignoring it", response.status)
+            }
+            responseIn.pull()
+            dispatchPending()
+          }
+
+          override def onUpstreamFinish(): Unit = {
+            debug("Connection completed")
+            close(None)
+            dispatchPending()
+          }
+          override def onUpstreamFailure(ex: Throwable): Unit =
+            if (established) {
+              debug("Connection failed")
+              close(Some(ex))
+              dispatchPending()
+            }
+          // otherwise, rely on the connection attempt callback to close the connection
+          // (connection error is sent through matValue future and through the stream)
+
+          def onPull(): Unit = dispatchPending()
+
+          override def onDownstreamFinish(): Unit = {
+            debug("Connection cancelled")
+            close(Some(new StreamTcpException(
+              "Connection was cancelled (caused by a failure of the underlying HTTP connection)")))
+            dispatchPending()
+          }
+
+          def debug(msg: String): Unit =
+            if (log.isDebugEnabled) log.debug("[Connection {} ({} in flight)] {}", connectionId, inflight.size, msg)
+        }
+
+        override def onUpstreamFinish(): Unit = {
+          log.debug("Pool upstream was completed")
+          super.onUpstreamFinish()
+        }
+        override def onUpstreamFailure(ex: Throwable): Unit = {
+          log.debug("Pool upstream failed with {}", ex)
+          super.onUpstreamFailure(ex)
+        }
+        override def onDownstreamFinish(): Unit = {
+          log.debug("Pool downstream cancelled")
+          super.onDownstreamFinish()
+        }
+        override def postStop(): Unit = {
+          val shutdown = new IllegalStateException("Pool was shut down") with NoStackTrace
+          connections.foreach { connection =>
+            // idle connections are completed regularly, others are torn down with an error
+            if (connection.inflight.isEmpty) connection.close(None)
+            else {
+              connection.inflight.clear()
+              connection.close(Some(shutdown))
+            }
+          }
+          log.debug(s"Pool stopped")
+        }
+
+        private val safeCallback = getAsyncCallback[() => Unit](f => f())
+        private def safely[T, U](f: T => Unit): T => Unit = t => safeCallback.invoke(() => f(t))
+      }
+  }
+}
@@ -22,19 +22,21 @@ import pekko.actor.Cancellable
 import pekko.annotation.InternalApi
 import pekko.dispatch.ExecutionContexts
 import pekko.event.LoggingAdapter
+import pekko.http.impl.engine.client.{ NoOpPoolMetrics, PoolMetrics }
 import pekko.http.impl.engine.client.PoolFlow.{ RequestContext, ResponseContext }
 import pekko.http.impl.engine.client.pool.SlotState._
 import pekko.http.impl.util.{ RichHttpRequest, StageLoggingWithOverride, StreamUtils }
 import pekko.http.scaladsl.Http
 import pekko.http.scaladsl.model.{ headers, HttpEntity, HttpRequest, HttpResponse }
 import pekko.http.scaladsl.settings.ConnectionPoolSettings
+import pekko.http.scaladsl.settings.ConnectionPoolSettings.SlotSelection
 import pekko.util.OptionVal
 import pekko.stream._
 import pekko.stream.scaladsl.{ Flow, Keep, Sink, Source }
 import pekko.stream.stage.{ GraphStage, GraphStageLogic, InHandler, OutHandler }
 
 import scala.collection.JavaConverters._
-import scala.concurrent.Future
+import scala.concurrent.{ Future, Promise }
 import scala.concurrent.duration._
 import scala.util.control.{ NoStackTrace, NonFatal }
 import scala.util.{ Failure, Random, Success, Try }
@@ -58,14 +60,122 @@ import scala.util.{ Failure, Random, Success, Try }
  */
 @InternalApi
 private[client] object NewHostConnectionPool {
+  /**
+   * @param connectionFilter Decides which established connections should not be used any more
+   * @param metrics Receives the measurements of the pool
+   */
   def apply(
       connectionFlow: Flow[HttpRequest, HttpResponse, Future[Http.OutgoingConnection]],
-      settings: ConnectionPoolSettings, log: LoggingAdapter): Flow[RequestContext, ResponseContext, NotUsed] =
-    Flow.fromGraph(new HostConnectionPoolStage(connectionFlow, settings, log))
+      settings: ConnectionPoolSettings, log: LoggingAdapter,
+      connectionFilter: ConnectionFilter = ConnectionFilter.AllCurrent,
+      metrics: PoolMetrics = NoOpPoolMetrics)
+      : Flow[RequestContext, ResponseContext, NotUsed] =
+    Flow.fromGraph(new HostConnectionPoolStage(connectionFlow, settings, log, connectionFilter, metrics))
+
+  /**
+   * Decides whether established connections should still be used, e.g. because their remote address is still part of
+   * the DNS answer for the host. Connections that are not current any more are closed once they become idle and are
+   * not picked for new requests.
+   */
+  trait ConnectionFilter {
+    def isCurrent(connection: Http.OutgoingConnection): Boolean
+
+    /**
+     * Calls `onChange` from any thread whenever `isCurrent` may have changed for established connections, until the
+     * returned handle is cancelled.
+     */
+    def watch(onChange: () => Unit): Cancellable
+  }
+  object ConnectionFilter {
+    val AllCurrent: ConnectionFilter = new ConnectionFilter {
+      def isCurrent(connection: Http.OutgoingConnection): Boolean = true
+      def watch(onChange: () => Unit): Cancellable = Cancellable.alreadyCancelled
+    }
+  }
+
+  /** Maps the slot state to the coarser status that is reported to [[PoolMetrics]] */
+  private def slotStatus(state: SlotState): PoolMetrics.SlotStatus = state match {
+    case _: Embargoed                  => PoolMetrics.SlotStatus.Embargoed
+    case _: Connecting | PreConnecting => PoolMetrics.SlotStatus.Connecting
+    case s if !s.isConnected           => PoolMetrics.SlotStatus.Unconnected
+    case s if s.isIdle                 => PoolMetrics.SlotStatus.Idle
+    case _                             => PoolMetrics.SlotStatus.Busy
+  }
+
+  /** The time after which response time measurements have lost most of their weight for slot selection */
+  private val ResponseTimeDecay: Long = 10.seconds.toNanos
+
+  /**
+   * Peak-sensitive exponentially weighted moving average of response times in nanoseconds.
+   *
+   * A sample that is larger than the current average replaces it immediately, smaller samples are averaged in with a
+   * weight that grows with the time since the previous sample. The average also decays towards zero while there are no
+   * samples, so that a connection that was slow once is eventually tried again.
+   */
+  private[pool] final class PeakEwma(decayNanos: Long) {
+    private[this] var cost: Double = 0.0
+    private[this] var stamp: Long = 0L
+    private[this] var measured: Boolean = false
+
+    def hasSamples: Boolean = measured
+
+    def get(now: Long): Double =
+      if (cost == 0.0) 0.0
+      else cost * math.exp(-(now - stamp).toDouble / decayNanos)
+
+    def update(sampleNanos: Long, now: Long): Unit = {
+      if (sampleNanos > cost) cost = sampleNanos
+      else {
+        val w = math.exp(-(now - stamp).toDouble / decayNanos)
+        cost = cost * w + sampleNanos * (1 - w)
+      }
+      stamp = now
+      measured = true
+    }
+
+    def reset(): Unit = {
+      cost = 0.0
+      stamp = 0L
+      measured = false
+    }
+  }
+
+  /** The number of recent response times the hedging delay is computed from */
+  private val ResponseTimeSamples = 256
+
+  /** The number of new response times after which the hedging delay is recomputed */
+  private val ResponseTimeRecomputeInterval = 32
+
+  /**
+   * A percentile of the most recent response times in nanoseconds. It is recomputed after every
+   * `ResponseTimeRecomputeInterval` samples and is -1 before that.
+   */
+  private[pool] final class ResponseTimePercentile(percentile: Double) {
+    private[this] val samples = new Array[Long](ResponseTimeSamples)
+    private[this] val sorted = new Array[Long](ResponseTimeSamples)
+    private[this] var count = 0L
+    private[this] var value = -1L
+
+    def get: Long = value
+
+    def update(sampleNanos: Long): Unit = {
+      samples((count % ResponseTimeSamples).toInt) = sampleNanos
+      count += 1
+      if (count % ResponseTimeRecomputeInterval == 0) {
+        val n = math.min(count, ResponseTimeSamples.toLong).toInt
+        System.arraycopy(samples, 0, sorted, 0, n)
+        util.Arrays.sort(sorted, 0, n)
+        value = sorted(math.min(n - 1, (n * percentile / 100).toInt))
+      }
+    }
+  }
+
+  private final class PipelinedRequest(val request: RequestContext, val dispatchedNanos: Long)
 
   private final class HostConnectionPoolStage(
       connectionFlow: Flow[HttpRequest, HttpResponse, Future[Http.OutgoingConnection]],
-      _settings: ConnectionPoolSettings, _log: LoggingAdapter)
+      _settings: ConnectionPoolSettings, _log: LoggingAdapter,
+      connectionFilter: ConnectionFilter, metrics: PoolMetrics)
       extends GraphStage[FlowShape[RequestContext, ResponseContext]] {
     val requestsIn = Inlet[RequestContext]("HostConnectionPoolStage.requestsIn")
     val responsesOut = Outlet[ResponseContext]("HostConnectionPoolStage.responsesOut")
@@ -78,6 +188,7 @@ private[client] object NewHostConnectionPool {
         setHandlers(requestsIn, responsesOut, this)
 
         private[this] var lastTimeoutId = 0L
+        private[this] val metricsEnabled = metrics ne NoOpPoolMetrics
 
         val slots = Vector.tabulate(_settings.maxConnections)(new Slot(_))
         val slotsWaitingForDispatch: util.Deque[Slot] = new util.ArrayDeque[Slot]
@@ -95,22 +206,45 @@ private[client] object NewHostConnectionPool {
           res
         } // fast set to track idle slots
         val retryBuffer: util.Deque[RequestContext] = new util.ArrayDeque[RequestContext]
+        private[this] var lastSelectedSlotId = -1
+        private[this] val retryBudget =
+          if (_settings.retryBudgetSettings.enabled) new RetryBudget(_settings.retryBudgetSettings) else null
+        private[this] val hedgeDelay =
+          if (_settings.hedgingSettings.enabled) new ResponseTimePercentile(_settings.hedgingSettings.percentile)
+          else null
+        // requests that are or may be hedged, by the response promise that all their copies share
+        private[this] val hedgedRequests = new util.IdentityHashMap[Promise[HttpResponse], HedgedRequest]
+        private[this] val hedgeLost =
+          new IllegalStateException("The response of another copy of the hedged request was used") with NoStackTrace
+        private[this] val pipelining = _settings.pipeliningLimit > 1
+        private[this] val pipeliningLatencyThresholdNanos = _settings.pipeliningLatencyThreshold.toNanos
         var _connectionEmbargo: FiniteDuration = Duration.Zero
         def baseEmbargo: FiniteDuration = _settings.baseConnectionBackoff
         def maxBaseEmbargo: FiniteDuration = _settings.maxConnectionBackoff / 2 // because we'll add a random component of the same size to the base
 
+        private[this] var connectionFilterWatch: Cancellable = _
+
         override def preStart(): Unit = {
           pull(requestsIn)
           slots.foreach(_.initialize())
+          connectionFilterWatch = connectionFilter.watch(() => safeCallback.invoke(() => closeIdleConnectionsNotCurrent()))
         }
 
         def onPush(): Unit = {
           val nextRequest = grab(requestsIn)
+          if (retryBudget ne null) retryBudget.onRequest()
+          if (hedgeDelay ne null) scheduleHedge(nextRequest)
           if (hasIdleSlots) {
             dispatchRequest(nextRequest)
             pullIfNeeded()
-          } else // embargo might change state from unconnected -> embargoed losing an idle slot between the pull and the push here
-            retryBuffer.addFirst(nextRequest)
+          } else {
+            val slot = if (pipelining && canBePipelined(nextRequest)) selectPipeliningSlot() else null
+            if (slot ne null) {
+              slot.pipelineRequest(nextRequest)
+              pullIfNeeded()
+            } else // embargo might change state from unconnected -> embargoed losing an idle slot between the pull and the push here
+              retryBuffer.addFirst(nextRequest)
+          }
         }
         def onPull(): Unit =
           if (!slotsWaitingForDispatch.isEmpty)
@@ -118,12 +252,15 @@ private[client] object NewHostConnectionPool {
         // else push when next slot becomes dispatchable
 
         def pullIfNeeded(): Unit =
-          if (hasIdleSlots)
+          if (hasIdleSlots) {
             if (!retryBuffer.isEmpty) {
               log.debug("Dispatching request from retryBuffer")
               dispatchRequest(retryBuffer.pollFirst())
             } else if (!hasBeenPulled(requestsIn))
               pull(requestsIn)
+          } else if (pipelining && retryBuffer.isEmpty && !hasBeenPulled(requestsIn) && (selectPipeliningSlot() ne null))
+            // requests from the retryBuffer are only dispatched to idle slots, so only pull for pipelining if it is empty
+            pull(requestsIn)
 
         def hasIdleSlots: Boolean = {
           if (log.isDebugEnabled) { // somewhat sneaky way of enabling extra assertions in "debug-mode"
@@ -135,19 +272,181 @@ private[client] object NewHostConnectionPool {
           !idleSlots.isEmpty
         }
 
-        def dispatchResponseResult(req: RequestContext, result: Try[HttpResponse]): Unit =
-          if (result.isFailure && req.canBeRetried) {
+        def dispatchResponseResult(req: RequestContext, result: Try[HttpResponse]): Unit = {
+          val hedged = if (hedgedRequests.isEmpty) null else hedgedRequests.get(req.responsePromise)
+          if ((hedged ne null) && !hedged.onResult(result)) {
+            // the result of the other copy of the request is used instead
+            result.foreach(_.discardEntityBytes()(materializer))
+            if (isAvailable(responsesOut)) onPull() // let the next waiting slot dispatch its response instead
+          } else if (result.isFailure && req.canBeRetried) {
             log.debug("Request [{}] has {} retries left, retrying...", req.request.debugString, req.retriesLeft)
+            metrics.onRequestRetried()
             retryBuffer.addLast(req.copy(retriesLeft = req.retriesLeft - 1))
-          } else
+          } else {
             push(responsesOut, ResponseContext(req, result))
+            if ((hedged ne null) && hedged.inflight > 0) safeCallback.invoke(() => abortLosingCopy(hedged))
+          }
+        }
+
+        def mayRetry(req: RequestContext): Boolean =
+          req.canBeRetried && {
+            val hedged = if (hedgedRequests.isEmpty) null else hedgedRequests.get(req.responsePromise)
+            // while the other copy of a hedged request is in flight, its result is used instead of retrying
+            ((hedged eq null) || (!hedged.answered && hedged.inflight == 1)) &&
+            ((retryBudget eq null) || retryBudget.tryWithdraw())
+          }
+
+        /**
+         * A request that is sent a second time over another connection if no response was received for it after
+         * the hedging delay. Only the first result of the copies is used, unless it is a failure while the other copy
+         * is still in flight.
+         */
+        final class HedgedRequest(val ctx: RequestContext) {
+          var inflight = 1
+          var answered = false
+          var timeout: Cancellable = _
+
+          /** Returns true if the given result of one of the copies should be used */
+          def onResult(result: Try[HttpResponse]): Boolean = {
+            inflight -= 1
+            if (inflight == 0) hedgedRequests.remove(ctx.responsePromise)
+            if (answered || (result.isFailure && inflight > 0)) false
+            else {
+              answered = true
+              if (timeout ne null) timeout.cancel()
+              true
+            }
+          }
+        }
+
+        def scheduleHedge(req: RequestContext): Unit = {
+          val delay = hedgeDelay.get
+          if (delay >= 0 && req.request.method.isIdempotent && req.request.entity.isStrict) {
+            val hedged = new HedgedRequest(req)
+            hedgedRequests.put(req.responsePromise, hedged)
+            hedged.timeout = materializer.scheduleOnce(
+              math.max(delay, _settings.hedgingSettings.minDelay.toNanos).nanos, safeRunnable(sendHedge(hedged)))
+          }
+        }
+
+        def sendHedge(hedged: HedgedRequest): Unit =
+          if (!hedged.answered && hedged.inflight == 1 && hasIdleSlots &&
+            ((retryBudget eq null) || retryBudget.tryWithdraw())) {
+            log.debug("Hedging request [{}]", hedged.ctx.request.debugString)
+            hedged.inflight = 2
+            dispatchRequest(hedged.ctx.copy(retriesLeft = 0))
+          }
+
+        /**
+         * Stops the copy of an answered hedged request that is still in flight, so that its slot becomes available
+         * again. A copy that is the only request waiting for a response on a connection is aborted by closing the
+         * connection. If other requests are pipelined on the same connection, it is left alone instead and its response
+         * is discarded once it arrives, so that the other requests are not affected.
+         */
+        def abortLosingCopy(hedged: HedgedRequest): Unit =
+          if (hedged.inflight > 0) {
+            val promise = hedged.ctx.responsePromise
+            if (retryBuffer.removeIf(_.responsePromise eq promise)) hedged.onResult(Failure(hedgeLost))
+            else
+              slots.find(_.isWaitingForResponseTo(promise)).foreach { slot =>
+                if (slot.outstandingResponses == 1) {
+                  slot.debug("Aborting request because the response of another copy of the hedged request was used")
+                  slot.onConnectionFailed(hedgeLost)
+                } else
+                  slot.debug("Not aborting request whose response is not used because other requests are pipelined " +
+                    "on the connection")
+              }
+          }
 
         def dispatchRequest(req: RequestContext): Unit = {
-          val slot = idleSlots.first()
-          idleSlots.remove(slot)
+          val slot = selectIdleSlot()
+          if (slot.closeIfIdleAndNotCurrent()) {
+            // the slot is unconnected now or embargoed, so select again
+            if (hasIdleSlots) dispatchRequest(req)
+            else retryBuffer.addFirst(req)
+          } else {
+            idleSlots.remove(slot)
+
+            slot.debug(s"Dispatching request [${req.request.debugString}]")
+            slot.onNewRequest(req)
+          }
+        }
+
+        def closeIdleConnectionsNotCurrent(): Unit = slots.foreach(_.closeIfIdleAndNotCurrent())
+
+        def selectIdleSlot(): Slot = _settings.slotSelection match {
+          case SlotSelection.LowestId => idleSlots.first()
+          case SlotSelection.RoundRobin =>
+            val next = if (lastSelectedSlotId >= 0) idleSlots.higher(slots(lastSelectedSlotId)) else null
+            val slot = if (next ne null) next else idleSlots.first()
+            lastSelectedSlotId = slot.slotId
+            slot
+          case SlotSelection.PeakEwma => selectFastestIdleSlot()
+        }
 
-          slot.debug(s"Dispatching request [${req.request.debugString}]")
-          slot.onNewRequest(req)
+        /**
+         * Selects the connected idle slot with the lowest response time average. Connected slots without a measurement
+         * count with the mean of the measured ones, so that they are neither always preferred nor avoided. Unconnected
+         * slots are only used if no connected slot is idle, so that no new connection is opened while another one is
+         * available.
+         */
+        def selectFastestIdleSlot(): Slot = {
+          val now = System.nanoTime()
+          var measured = 0
+          var totalCost = 0.0
+          var it = idleSlots.iterator()
+          while (it.hasNext) {
+            val slot = it.next()
+            if (slot.isConnected && slot.responseTimes.hasSamples) {
+              measured += 1
+              totalCost += slot.responseTimes.get(now)
+            }
+          }
+          val neutralCost = if (measured > 0) totalCost / measured else 0.0
+
+          var best: Slot = null
+          var bestCost = Double.MaxValue
+          it = idleSlots.iterator()
+          while (it.hasNext) {
+            val slot = it.next()
+            if (slot.isConnected) {
+              val cost = if (slot.responseTimes.hasSamples) slot.responseTimes.get(now) else neutralCost
+              if (cost < bestCost) {
+                best = slot
+                bestCost = cost
+              }
+            }
+          }
+          if (best ne null) best else idleSlots.first()
+        }
+
+        /**
+         * Only idempotent requests with strict entities are pipelined, so that they can be sent again if unanswered,
+         * and only if they don't close the connection.
+         */
+        def canBePipelined(req: RequestContext): Boolean =
+          req.request.method.isIdempotent && req.request.entity.isStrict &&
+          !req.request.header[headers.Connection].exists(_.hasClose)
+
+        /**
+         * Selects the slot with the fewest outstanding responses among those that accept another pipelined request,
+         * preferring the one whose oldest outstanding response has been waited for the shortest time, or null if there
+         * is none.
+         */
+        def selectPipeliningSlot(): Slot = {
+          val now = System.nanoTime()
+          var best: Slot = null
+          var i = 0
+          while (i < slots.size) {
+            val slot = slots(i)
+            if (slot.acceptsPipelinedRequest(now) &&
+              ((best eq null) || slot.outstandingResponses < best.outstandingResponses ||
+              (slot.outstandingResponses == best.outstandingResponses &&
+              slot.oldestResponseWaitingNanos(now) < best.oldestResponseWaitingNanos(now))))
+              best = slot
+            i += 1
+          }
+          best
         }
 
         def numConnectedSlots: Int = slots.count(_.isConnected)
@@ -199,6 +498,8 @@ private[client] object NewHostConnectionPool {
 
           val onTimeout = event0("onTimeout", _.onTimeout(_))
 
+          val onConnectionNotCurrent = event0("onConnectionNotCurrent", _.onConnectionNotCurrent(_))
+
           private def event0(name: String, transition: (SlotState, Slot) => SlotState): Event[Unit] =
             new Event(name, (state, slot, _) => transition(state, slot))
           private def event[T](name: String, transition: (SlotState, Slot, T) => SlotState): Event[T] =
@@ -212,6 +513,11 @@ private[client] object NewHostConnectionPool {
           def changedIntoThisStateNanos: Long = _changedIntoThisStateNanos
           def state: SlotState = _state
           def state_=(newState: SlotState): Unit = {
+            if (metricsEnabled) {
+              val from = slotStatus(_state)
+              val to = slotStatus(newState)
+              if (from != to) metrics.onSlotStatusChanged(from, to)
+            }
             _state = newState
             _changedIntoThisStateNanos = System.nanoTime()
           }
@@ -222,8 +528,13 @@ private[client] object NewHostConnectionPool {
           private[this] var currentTimeout: Cancellable = _
           private[this] var disconnectAt: Long = Long.MaxValue
           private[this] var isEnqueuedForResponseDispatch: Boolean = false
+          private[this] var requestDispatchedNanos: Long = 0L
+          val responseTimes = new PeakEwma(ResponseTimeDecay)
+          // requests that were sent behind the ongoing request and are waiting for their responses, oldest first
+          private[this] val pipelinedRequests = new util.ArrayDeque[PipelinedRequest]
 
           private[this] var connection: SlotConnection = _
+          private[this] var outgoingConnection: Http.OutgoingConnection = _
           def isIdle: Boolean = state.isIdle
           def isConnected: Boolean = state.isConnected
           def shutdown(): Unit = {
@@ -242,8 +553,10 @@ private[client] object NewHostConnectionPool {
             if (slotId < settings.minConnections)
               updateState(Event.onPreConnect)
 
-          def onConnectionAttemptSucceeded(outgoing: Http.OutgoingConnection): Unit =
+          def onConnectionAttemptSucceeded(outgoing: Http.OutgoingConnection): Unit = {
+            outgoingConnection = outgoing
             updateState(Event.onConnectionAttemptSucceeded, outgoing)
+          }
 
           def onConnectionAttemptFailed(cause: Throwable): Unit =
             updateState(Event.onConnectionAttemptFailed, cause)
@@ -254,13 +567,58 @@ private[client] object NewHostConnectionPool {
           def onNewRequest(req: RequestContext): Unit =
             updateState(Event.onNewRequest, req)
 
+          def outstandingResponses: Int = 1 + pipelinedRequests.size
+
+          /**
+           * Returns true if the request with the given promise was sent by this slot, either as the ongoing request or
+           * pipelined behind it, and its response is outstanding
+           */
+          def isWaitingForResponseTo(promise: Promise[HttpResponse]): Boolean = (state match {
+            case Connecting(req)                 => req.responsePromise eq promise
+            case PushingRequestToConnection(req) => req.responsePromise eq promise
+            case WaitingForResponse(req, _)      => req.responsePromise eq promise
+            case _                               => false
+          }) || (!pipelinedRequests.isEmpty && pipelinedRequests.asScala.exists(_.request.responsePromise eq promise))
+          def oldestResponseWaitingNanos(now: Long): Long = now - requestDispatchedNanos
+
+          /**
+           * Returns true if another request can be sent over the connection of this slot, i.e. if the slot is below the
+           * pipelining limit and its oldest outstanding response has not yet been waited for longer than the threshold.
+           */
+          def acceptsPipelinedRequest(now: Long): Boolean =
+            outstandingResponses < settings.pipeliningLimit && state.acceptsPipelinedRequests(this) &&
+            oldestResponseWaitingNanos(now) < pipeliningLatencyThresholdNanos
+
+          def pipelineRequest(req: RequestContext): Unit = {
+            debug(s"Pipelining request [${req.request.debugString}] behind $outstandingResponses outstanding responses")
+            pipelinedRequests.addLast(new PipelinedRequest(req, System.nanoTime()))
+            connection.pushRequest(req.request)
+          }
+
+          override def nextPipelinedRequest(): OptionVal[RequestContext] = {
+            val next = pipelinedRequests.pollFirst()
+            if (next eq null) OptionVal.None
+            else {
+              requestDispatchedNanos = next.dispatchedNanos
+              OptionVal.Some(next.request)
+            }
+          }
+
           def onRequestEntityCompleted(): Unit =
             updateState(Event.onRequestEntityCompleted)
           def onRequestEntityFailed(cause: Throwable): Unit =
             updateState(Event.onRequestEntityFailed, cause)
 
-          def onResponseReceived(response: HttpResponse): Unit =
+          def onResponseReceived(response: HttpResponse): Unit = {
+            if (tracksResponseTimes) {
+              val now = System.nanoTime()
+              val responseTime = now - requestDispatchedNanos
+              responseTimes.update(responseTime, now)
+              if (hedgeDelay ne null) hedgeDelay.update(responseTime)
+              metrics.onResponseReceived(responseTime)
+            }
             updateState(Event.onResponseReceived, response)
+          }
 
           def onResponseDispatchable(): Unit = {
             isEnqueuedForResponseDispatch = false
@@ -323,9 +681,17 @@ private[client] object NewHostConnectionPool {
 
                 state match {
                   case PushingRequestToConnection(ctx) =>
+                    if (tracksResponseTimes) requestDispatchedNanos = System.nanoTime()
                     connection.pushRequest(ctx.request)
                     OptionVal.Some(Event.onRequestDispatched)
 
+                  case _: WaitingForResponse if pipelining =>
+                    // responses are only pulled when the slot is ready for them, another one might be on its way
+                    // already while the previous one is being dispatched
+                    connection.pullResponse()
+                    pullIfNeeded()
+                    OptionVal.None
+
                   case _: WaitingForResponseDispatch =>
                     if (isAvailable(responsesOut)) OptionVal.Some(Event.onResponseDispatchable)
                     else {
@@ -419,17 +785,38 @@ private[client] object NewHostConnectionPool {
             if (connection ne null) {
               connection.close(failure)
               connection = null
+              outgoingConnection = null
+              // the next connection might end up at a different backend
+              responseTimes.reset()
+              if (!pipelinedRequests.isEmpty) {
+                // requests that were not answered before the connection was closed are sent again (RFC 9112,
+                // section 9.3.2), they are retried like all others in the retryBuffer only over idle connections
+                debug(s"Resending ${pipelinedRequests.size} pipelined requests that were not answered")
+                while (!pipelinedRequests.isEmpty) retryBuffer.addFirst(pipelinedRequests.pollLast().request)
+              }
             }
           def isCurrentConnection(conn: SlotConnection): Boolean = connection eq conn
           def isConnectionClosed: Boolean = (connection eq null) || connection.isClosed
 
           def dispatchResponseResult(req: RequestContext, result: Try[HttpResponse]): Unit =
             logic.dispatchResponseResult(req, result)
+          override def mayRetry(req: RequestContext): Boolean = logic.mayRetry(req)
 
           def willCloseAfter(res: HttpResponse): Boolean = {
-            logic.willClose(res) || keepAliveTimeApplies()
+            logic.willClose(res) || keepAliveTimeApplies() || !isConnectionCurrent
           }
 
+          private def isConnectionCurrent: Boolean =
+            (outgoingConnection eq null) || connectionFilter.isCurrent(outgoingConnection)
+
+          /** Returns true if the connection was idle and was closed because it should not be used any more */
+          def closeIfIdleAndNotCurrent(): Boolean =
+            if (state.isInstanceOf[Idle] && !isConnectionCurrent) {
+              debug("Closing idle connection because it is not current any more")
+              updateState(Event.onConnectionNotCurrent)
+              true
+            } else false
+
           def keepAliveTimeApplies(): Boolean = if (settings.maxConnectionLifetime.isFinite) {
             Instant.now().toEpochMilli > disconnectAt
           } else false
@@ -451,10 +838,12 @@ private[client] object NewHostConnectionPool {
         final class SlotConnection(
             _slot: Slot,
             requestOut: SubSourceOutlet[HttpRequest],
-            responseIn: SubSinkInlet[HttpResponse]) extends InHandler with OutHandler { connection =>
+            responseIn: SubSinkInlet[HttpResponse]) extends InHandler with OutHandler {
           var ongoingResponseEntity: Option[HttpEntity] = None
           var ongoingResponseEntityKillSwitch: Option[KillSwitch] = None
           var connectionEstablished: Boolean = false
+          // requests waiting for demand of the connection, more than one only with pipelining
+          private[this] val pendingRequests = new util.ArrayDeque[HttpRequest](1)
 
           /** Will only be executed if this connection is still the current connection for its slot */
           def withSlot(f: Slot => Unit): Unit =
@@ -531,9 +920,13 @@ private[client] object NewHostConnectionPool {
               withSlot(_.onResponseReceived(response.withEntity(newEntity)))
             }
 
-            if (!responseIn.isClosed) responseIn.pull()
+            // with pipelining, the next response is only pulled once the slot is ready for it, see `pullResponse`
+            if (!pipelining && !responseIn.isClosed) responseIn.pull()
           }
 
+          def pullResponse(): Unit =
+            if (!responseIn.hasBeenPulled && !responseIn.isClosed) responseIn.pull()
+
           override def onUpstreamFinish(): Unit =
             withSlot { slot =>
               slot.debug("Connection completed")
@@ -549,7 +942,8 @@ private[client] object NewHostConnectionPool {
             // (connection error is sent through matValue future and through the stream)
             }
 
-          def onPull(): Unit = () // emitRequests makes sure not to push too early
+          def onPull(): Unit =
+            if (!pendingRequests.isEmpty) requestOut.push(pendingRequests.pollFirst())
 
           override def onDownstreamFinish(): Unit =
             withSlot { slot =>
@@ -564,25 +958,16 @@ private[client] object NewHostConnectionPool {
 
           /** Helper that makes sure requestOut is pulled before pushing */
           private def emitRequest(request: HttpRequest): Unit =
-            if (requestOut.isAvailable) requestOut.push(request)
-            else
-              requestOut.setHandler(new OutHandler {
-                def onPull(): Unit = {
-                  requestOut.push(request)
-                  // Implicit assumption is that `connection` was the previous handler. We would just use the
-                  // previous handler if there was a way to get at it... SubSourceOutlet.getHandler seems to be missing.
-                  requestOut.setHandler(connection)
-                }
-
-                override def onDownstreamFinish(): Unit = connection.onDownstreamFinish()
-              })
+            if (requestOut.isAvailable && pendingRequests.isEmpty) requestOut.push(request)
+            else pendingRequests.addLast(request)
         }
         def openConnection(slot: Slot): SlotConnection = {
           val currentEmbargoLevel = currentEmbargo
+          val connectStartNanos = if (metricsEnabled) System.nanoTime() else 0L
 
           val requestOut = new SubSourceOutlet[HttpRequest](s"PoolSlot[${slot.slotId}].requestOut")
           val responseIn = new SubSinkInlet[HttpResponse](s"PoolSlot[${slot.slotId}].responseIn")
-          responseIn.pull()
+          if (!pipelining) responseIn.pull() // otherwise pulled when the first request was sent
 
           slot.debug("Establishing connection")
           val connection =
@@ -597,6 +982,7 @@ private[client] object NewHostConnectionPool {
 
           connection.onComplete(safely {
             case Success(outgoingConnection) =>
+              if (metricsEnabled) metrics.onConnectionAttempt(System.nanoTime() - connectStartNanos, succeeded = true)
               slotCon.withSlot { sl =>
                 slotCon.connectionEstablished = true
                 slot.debug("Connection attempt succeeded")
@@ -604,6 +990,7 @@ private[client] object NewHostConnectionPool {
                 sl.onConnectionAttemptSucceeded(outgoingConnection)
               }
             case Failure(cause) =>
+              if (metricsEnabled) metrics.onConnectionAttempt(System.nanoTime() - connectStartNanos, succeeded = false)
               slotCon.withSlot { sl =>
                 slot.debug(s"Connection attempt failed with ${cause.getMessage}")
                 onConnectionAttemptFailed(currentEmbargoLevel)
@@ -627,10 +1014,14 @@ private[client] object NewHostConnectionPool {
           super.onDownstreamFinish()
         }
         override def postStop(): Unit = {
+          if (connectionFilterWatch ne null) connectionFilterWatch.cancel()
           slots.foreach(_.shutdown())
           log.debug(s"Pool stopped")
         }
 
+        private def tracksResponseTimes: Boolean =
+          metricsEnabled || pipelining || (hedgeDelay ne null) || _settings.slotSelection == SlotSelection.PeakEwma
+
         private def willClose(response: HttpResponse): Boolean =
           response.header[headers.Connection].exists(_.hasClose)
 
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.engine.client.pool
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.http.scaladsl.settings.RetryBudgetSettings
+
+/**
+ * INTERNAL API
+ *
+ * Token bucket that limits retries to a share of the requests of a pool. Every request deposits `ratio` tokens, the
+ * bucket is also refilled with `min-retries-per-second` tokens per second, and every retry withdraws one token. The
+ * bucket holds at most `min-retries-per-second` tokens, but at least one, so `ratio` limits the sustained rate of
+ * retries while bursts are limited by the capacity. Not thread-safe, to be used from within a single stage.
+ */
+@InternalApi
+private[pool] final class RetryBudget(settings: RetryBudgetSettings, clock: () => Long = () => System.nanoTime()) {
+  private[this] val capacity: Double = math.max(settings.minRetriesPerSecond, 1)
+  private[this] var tokens: Double = capacity
+  private[this] var lastRefillNanos: Long = clock()
+
+  def onRequest(): Unit = tokens = math.min(capacity, tokens + settings.ratio)
+
+  /** Takes a token for a retry if one is available */
+  def tryWithdraw(): Boolean = {
+    val now = clock()
+    tokens = math.min(capacity, tokens + (now - lastRefillNanos) * settings.minRetriesPerSecond / 1e9)
+    lastRefillNanos = now
+    if (tokens >= 1) {
+      tokens -= 1
+      true
+    } else false
+  }
+}
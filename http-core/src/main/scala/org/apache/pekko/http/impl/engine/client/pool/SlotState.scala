@@ -22,8 +22,10 @@ import pekko.http.impl.engine.client.PoolFlow.RequestContext
 import pekko.http.impl.util._
 import pekko.http.scaladsl.Http
 import pekko.http.scaladsl.model.HttpResponse
+import pekko.http.scaladsl.model.headers.Connection
 import pekko.http.scaladsl.settings.ConnectionPoolSettings
 import pekko.macros.LogHelper
+import pekko.util.OptionVal
 
 import scala.concurrent.duration._
 import scala.util.control.NoStackTrace
@@ -41,8 +43,17 @@ private[pool] abstract class SlotContext extends LogHelper {
 
   def dispatchResponseResult(req: RequestContext, result: Try[HttpResponse]): Unit
 
+  /** Returns true if the failed request should be retried, may take a token from the retry budget of the pool */
+  def mayRetry(req: RequestContext): Boolean = req.canBeRetried
+
   def willCloseAfter(res: HttpResponse): Boolean
 
+  /**
+   * Takes the oldest of the requests that were pipelined behind the ongoing one, whose response is the next one to be
+   * received over the connection.
+   */
+  def nextPipelinedRequest(): OptionVal[RequestContext] = OptionVal.None
+
   def settings: ConnectionPoolSettings
 }
 
@@ -52,6 +63,9 @@ private[pool] sealed abstract class SlotState extends Product {
   def isIdle: Boolean
   def isConnected: Boolean
 
+  /** Whether further requests may be pipelined behind the ongoing request over the connection of the slot */
+  def acceptsPipelinedRequests(ctx: SlotContext): Boolean = false
+
   def idle(ctx: SlotContext): SlotState = SlotState.Idle(ctx.settings.keepAliveTimeout)
   def onPreConnect(ctx: SlotContext): SlotState = illegalState(ctx, "onPreConnect")
   def onConnectionAttemptSucceeded(ctx: SlotContext, outgoingConnection: Http.OutgoingConnection): SlotState =
@@ -87,6 +101,9 @@ private[pool] sealed abstract class SlotState extends Product {
 
   def onTimeout(ctx: SlotContext): SlotState = illegalState(ctx, "onTimeout")
 
+  /** Called for idle connections that should not be used any more, e.g. because their address left the DNS answer */
+  def onConnectionNotCurrent(ctx: SlotContext): SlotState = illegalState(ctx, "onConnectionNotCurrent")
+
   def onShutdown(ctx: SlotContext): Unit = ()
 
   /** A slot can define a timeout for that state after which onTimeout will be called. */
@@ -118,15 +135,20 @@ private[pool] object SlotState {
     final override def isIdle = true
   }
   sealed private[pool] /* to avoid warnings */ trait BusyState extends SlotState {
-    // no HTTP pipelining: we could accept a new request when the request has been sent completely (or
+    // A busy slot is never idle: we could accept a new request when the request has been sent completely (or
     // even when the response has started to come in). However, that would mean the next request and response
     // are effectively blocked on the completion on the previous request and response. For this reason we
     // avoid accepting new connections in this slot while the previous request is still in progress: there might
-    // be another slot available which can process the request with lower latency.
+    // be another slot available which can process the request with lower latency. Only if pipelining is enabled and
+    // no slot is idle, requests are pipelined onto busy slots (see `acceptsPipelinedRequests`).
     final override def isIdle = false
     def ongoingRequest: RequestContext
     def waitingForEndOfRequestEntity: Boolean
 
+    /** Whether the ongoing request has been sent completely and does not ask to close the connection afterwards */
+    protected def ongoingRequestAllowsPipelining: Boolean =
+      !waitingForEndOfRequestEntity && !ongoingRequest.request.header[Connection].exists(_.hasClose)
+
     override def onShutdown(ctx: SlotContext): Unit = {
       // We would like to dispatch a failure here but responseOut might not be ready (or also already shutting down)
       // so we cannot do more than logging the problem here.
@@ -155,12 +177,12 @@ private[pool] object SlotState {
     private def failOngoingRequest(ctx: SlotContext, signal: String, cause: Throwable): SlotState = {
       ctx.debug(
         s"Ongoing request [${ongoingRequest.request.debugString}] is failed because of [$signal]: [${cause.getMessage}]")
-      if (ongoingRequest.canBeRetried) { // push directly because it will be buffered internally
+      if (ctx.mayRetry(ongoingRequest)) { // push directly because it will be buffered internally
         ctx.dispatchResponseResult(ongoingRequest, Failure(cause))
         if (waitingForEndOfRequestEntity) WaitingForEndOfRequestEntity
         else Failed(cause)
       } else
-        WaitingForResponseDispatch(ongoingRequest, Failure(cause), waitingForEndOfRequestEntity)
+        WaitingForResponseDispatch(ongoingRequest.copy(retriesLeft = 0), Failure(cause), waitingForEndOfRequestEntity)
     }
   }
 
@@ -217,6 +239,7 @@ private[pool] object SlotState {
       PushingRequestToConnection(requestContext)
 
     override def onTimeout(ctx: SlotContext): SlotState = ToBeClosed
+    override def onConnectionNotCurrent(ctx: SlotContext): SlotState = ToBeClosed
     override def onConnectionCompleted(ctx: SlotContext): SlotState = ToBeClosed
     override def onConnectionFailed(ctx: SlotContext, cause: Throwable): SlotState = ToBeClosed
   }
@@ -269,6 +292,8 @@ private[pool] object SlotState {
   final case class WaitingForResponse(
       ongoingRequest: RequestContext, waitingForEndOfRequestEntity: Boolean) extends ConnectedState with BusyState {
 
+    override def acceptsPipelinedRequests(ctx: SlotContext): Boolean = ongoingRequestAllowsPipelining
+
     override def onRequestEntityCompleted(ctx: SlotContext): SlotState = {
       require(waitingForEndOfRequestEntity)
       WaitingForResponse(ongoingRequest, waitingForEndOfRequestEntity = false)
@@ -286,6 +311,9 @@ private[pool] object SlotState {
       result: Try[HttpResponse],
       waitingForEndOfRequestEntity: Boolean) extends ConnectedState with BusyWithResultAlreadyDetermined {
 
+    override def acceptsPipelinedRequests(ctx: SlotContext): Boolean =
+      ongoingRequestAllowsPipelining && result.isSuccess && !ctx.willCloseAfter(result.get)
+
     override def onRequestEntityCompleted(ctx: SlotContext): SlotState = {
       require(waitingForEndOfRequestEntity)
       WaitingForResponseDispatch(ongoingRequest, result, waitingForEndOfRequestEntity = false)
@@ -322,6 +350,9 @@ private[pool] object SlotState {
       ongoingResponse: HttpResponse, override val stateTimeout: Duration, waitingForEndOfRequestEntity: Boolean)
       extends ConnectedState with BusyWithResultAlreadyDetermined {
 
+    override def acceptsPipelinedRequests(ctx: SlotContext): Boolean =
+      ongoingRequestAllowsPipelining && !ctx.willCloseAfter(ongoingResponse)
+
     override def onRequestEntityCompleted(ctx: SlotContext): SlotState = {
       require(waitingForEndOfRequestEntity)
       WaitingForResponseEntitySubscription(ongoingRequest, ongoingResponse, stateTimeout,
@@ -345,13 +376,20 @@ private[pool] object SlotState {
       ongoingResponse: HttpResponse,
       waitingForEndOfRequestEntity: Boolean) extends ConnectedState with BusyWithResultAlreadyDetermined {
 
+    override def acceptsPipelinedRequests(ctx: SlotContext): Boolean =
+      ongoingRequestAllowsPipelining && !ctx.willCloseAfter(ongoingResponse)
+
     override def onResponseEntityCompleted(ctx: SlotContext): SlotState =
       if (waitingForEndOfRequestEntity)
         WaitingForEndOfRequestEntity
       else if (ctx.willCloseAfter(ongoingResponse) || ctx.isConnectionClosed)
         ToBeClosed // when would ctx.isConnectionClose be true? what that mean that the connection has already failed before? do we need that state at all?
       else
-        idle(ctx)
+        ctx.nextPipelinedRequest() match {
+          // pipelined requests have strict entities, so they have been sent completely already
+          case OptionVal.Some(next) => WaitingForResponse(next, waitingForEndOfRequestEntity = false)
+          case _                    => idle(ctx)
+        }
 
     override def onRequestEntityCompleted(ctx: SlotContext): SlotState = {
       require(waitingForEndOfRequestEntity)
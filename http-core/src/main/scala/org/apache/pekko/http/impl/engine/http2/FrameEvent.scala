@@ -93,6 +93,16 @@ private[http] object FrameEvent {
       streamDependency: Int,
       weight: Int) extends StreamFrameEvent
 
+  /**
+   * A PRIORITY_UPDATE frame as defined by RFC 9218, which is always sent on stream 0.
+   *
+   * @param prioritizedStreamId the stream whose priority is updated
+   * @param priorityFieldValue the new priority, in the format of the `priority` header
+   */
+  final case class PriorityUpdateFrame(
+      prioritizedStreamId: Int,
+      priorityFieldValue: String) extends FrameEvent
+
   final case class Setting(
       identifier: SettingIdentifier,
       value: Int)
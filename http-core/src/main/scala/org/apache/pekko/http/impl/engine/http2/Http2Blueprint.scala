@@ -127,7 +127,7 @@ private[http] object Http2Blueprint {
       serverDemux(settings.http2Settings, initialDemuxerSettings, upgraded) atop
       FrameLogger.logFramesIfEnabled(settings.http2Settings.logFrames) atop // enable for debugging
       hpackCoding(masterHttpHeaderParser, settings.parserSettings) atop
-      framing(log) atop
+      framing(log, settings.http2Settings.outgoingFrameBatchSize) atop
       errorHandling(log) atop
       idleTimeoutIfConfigured(settings.idleTimeout)
   }
@@ -146,7 +146,7 @@ private[http] object Http2Blueprint {
       clientDemux(settings.http2Settings, masterHttpHeaderParser)).atop(
       FrameLogger.logFramesIfEnabled(settings.http2Settings.logFrames)).atop( // enable for debugging
       hpackCoding(masterHttpHeaderParser, settings.parserSettings)).atop(
-      framingClient(log)).atop(
+      framingClient(log, settings.http2Settings.outgoingFrameBatchSize)).atop(
       errorHandling(log)).atop(
       idleTimeoutIfConfigured(settings.idleTimeout))
   }
@@ -188,16 +188,27 @@ private[http] object Http2Blueprint {
       },
       Flow[ByteString])
 
-  def framing(log: LoggingAdapter): BidiFlow[FrameEvent, ByteString, ByteString, FrameEvent, NotUsed] =
+  def framing(log: LoggingAdapter, batchSize: Int): BidiFlow[FrameEvent, ByteString, ByteString, FrameEvent, NotUsed] =
     BidiFlow.fromFlows(
-      Flow[FrameEvent].map(FrameRenderer.render),
+      Flow[FrameEvent].map(FrameRenderer.render).via(batchFrames(batchSize)),
       Flow[ByteString].via(new Http2FrameParsing(shouldReadPreface = true, log)))
 
-  def framingClient(log: LoggingAdapter): BidiFlow[FrameEvent, ByteString, ByteString, FrameEvent, NotUsed] =
+  def framingClient(
+      log: LoggingAdapter, batchSize: Int): BidiFlow[FrameEvent, ByteString, ByteString, FrameEvent, NotUsed] =
     BidiFlow.fromFlows(
-      Flow[FrameEvent].map(FrameRenderer.render).prepend(Source.single(Http2Protocol.ClientConnectionPreface)),
+      Flow[FrameEvent].map(FrameRenderer.render).prepend(Source.single(Http2Protocol.ClientConnectionPreface))
+        .via(batchFrames(batchSize)),
       Flow[ByteString].via(new Http2FrameParsing(shouldReadPreface = false, log)))
 
+  /**
+   * Combines rendered frames into chunks of up to `batchSize` bytes while downstream backpressures, so that frames
+   * produced in the meantime are written to the network together. Frames are passed on immediately as long as
+   * downstream keeps up.
+   */
+  private[http2] def batchFrames(batchSize: Int): Flow[ByteString, ByteString, NotUsed] =
+    if (batchSize > 0) Flow[ByteString].batchWeighted(batchSize, _.length.toLong, identity)(_ ++ _)
+    else Flow[ByteString]
+
   /**
    * Runs hpack encoding and decoding. Incoming frames that are processed are HEADERS and CONTINUATION.
    * Outgoing frame is ParsedHeadersFrame.
@@ -78,6 +78,9 @@ private[http2] object Http2Compliance {
   final def requireFrameSize(size: Int, max: Int): Unit =
     if (size != max) throw new IllegalHttp2FrameSize(size, s"MUST BE == $max.")
 
+  final def requireMinFrameSize(size: Int, min: Int): Unit =
+    if (size < min) throw new IllegalHttp2FrameSize(size, s"MUST BE >= $min.")
+
   final def requireNoSelfDependency(id: Int, dependency: Int): Unit =
     if (id == dependency) throw new IllegalHttp2StreamDependency(id)
 }
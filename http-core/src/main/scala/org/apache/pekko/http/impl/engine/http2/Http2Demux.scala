@@ -357,6 +357,8 @@ private[http2] abstract class Http2Demux(http2Settings: Http2CommonSettings,
                   if streamId == 0 /* else fall through to StreamFrameEvent */ =>
                 multiplexer.updateConnectionLevelWindow(increment)
               case p: PriorityFrame => multiplexer.updatePriority(p)
+              case PriorityUpdateFrame(streamId, priorityFieldValue) =>
+                if (isServer) updateStreamPriority(streamId, priorityFieldValue)
               case s: StreamFrameEvent =>
                 if (!terminating)
                   handleStreamEvent(s)
@@ -382,7 +384,11 @@ private[http2] abstract class Http2Demux(http2Settings: Http2CommonSettings,
               // `enforceSettings(initialLocalSettings)`
 
               case PingFrame(true, data) =>
-                if (data != ConfigurablePing.Ping.data) {
+                if (data == IncomingFlowController.BdpPing.data) {
+                  // only valid while a BDP ping is in flight, which is never the case without auto-tuning
+                  if (!flowController.onBdpPingAck())
+                    pushGOAWAY(ErrorCode.PROTOCOL_ERROR, "Ping ack without a matching ping")
+                } else if (data != ConfigurablePing.Ping.data) {
                   // We only ever push static data, responding with anything else is wrong
                   pushGOAWAY(ErrorCode.PROTOCOL_ERROR, "Ping ack contained unexpected data")
                 } else {
@@ -41,6 +41,10 @@ private[http2] trait Http2Multiplexer {
   def updateDefaultWindow(newDefaultWindow: Int): Unit
   def updatePriority(priorityFrame: PriorityFrame): Unit
 
+  /** Applies a RFC 9218 priority signal, i.e. the value of a `priority` header or of a PRIORITY_UPDATE frame */
+  def updatePriority(streamId: Int, priorityFieldValue: String): Unit
+  def removePriority(streamId: Int): Unit
+
   def enqueueOutStream(streamId: Int): Unit
   def closeStream(streamId: Int): Unit
 
@@ -126,6 +130,9 @@ private[http2] trait Http2MultiplexerSupport { logic: GraphStageLogic with Stage
         distributeWindowDeltaToAllStreams(delta)
       }
       override def updatePriority(info: PriorityFrame): Unit = prioritizer.updatePriority(info)
+      override def updatePriority(streamId: Int, priorityFieldValue: String): Unit =
+        sendableOutstreams.updatePriority(streamId, ExtensiblePriority.parse(priorityFieldValue))
+      override def removePriority(streamId: Int): Unit = sendableOutstreams.removePriority(streamId)
 
       def enqueueOutStream(streamId: Int): Unit = updateState(_.enqueueOutStream(streamId))
       def closeStream(streamId: Int): Unit = updateState(_.closeStream(streamId))
@@ -144,14 +151,19 @@ private[http2] trait Http2MultiplexerSupport { logic: GraphStageLogic with Stage
       private def allDataFlushed(state: MultiplexerState): Boolean = (state eq WaitingForData) || (state eq Idle)
 
       private val controlFrameBuffer: mutable.Queue[FrameEvent] = new mutable.Queue[FrameEvent]
-      private val sendableOutstreams: mutable.Queue[Int] = new mutable.Queue[Int]
+      private val sendableOutstreams: StreamScheduler = new StreamScheduler
       private def enqueueStream(streamId: Int): Unit = {
         if (isDebugEnabled)
           require(!sendableOutstreams.contains(streamId), s"Stream [$streamId] was enqueued multiple times.") // requires expensive scanning -> avoid in production
         sendableOutstreams.enqueue(streamId)
       }
+      private def requeueStream(streamId: Int): Unit = {
+        if (isDebugEnabled)
+          require(!sendableOutstreams.contains(streamId), s"Stream [$streamId] was enqueued multiple times.") // requires expensive scanning -> avoid in production
+        sendableOutstreams.requeue(streamId)
+      }
       private def dequeueStream(streamId: Int): Unit =
-        sendableOutstreams -= streamId
+        sendableOutstreams.remove(streamId)
 
       private def updateState(transition: MultiplexerState => MultiplexerState): Unit = {
         val oldState = _state
@@ -185,7 +197,7 @@ private[http2] trait Http2MultiplexerSupport { logic: GraphStageLogic with Stage
             case PullFrameResult.SendFrame(frame, hasMore) =>
               send(frame)
               if (hasMore) {
-                enqueueStream(streamId)
+                requeueStream(streamId)
                 WaitingForNetworkToSendData
               } else {
                 if (sendableOutstreams.isEmpty) Idle
@@ -266,7 +278,7 @@ private[http2] trait Http2MultiplexerSupport { logic: GraphStageLogic with Stage
           if (prioritizer eq StreamPrioritizer.First)
             sendDataFrame(sendableOutstreams.dequeue())
           else {
-            val chosenId = prioritizer.chooseSubstream(sendableOutstreams.toSet)
+            val chosenId = prioritizer.chooseSubstream(sendableOutstreams.streamIds)
             // expensive operation, to be optimized when prioritizers can be configured
             dequeueStream(chosenId)
             sendDataFrame(chosenId)
@@ -18,7 +18,7 @@ import pekko.annotation.InternalApi
 import pekko.http.impl.engine.http2.FrameEvent._
 import pekko.http.impl.engine.http2.Http2Protocol.ErrorCode
 import pekko.http.impl.engine.rendering.DateHeaderRendering
-import pekko.http.scaladsl.model.{ AttributeKey, HttpEntity }
+import pekko.http.scaladsl.model.{ AttributeKey, HttpEntity, HttpHeader }
 import pekko.http.scaladsl.model.http2.PeerClosedStreamException
 import pekko.http.scaladsl.settings.Http2CommonSettings
 import pekko.macros.LogHelper
@@ -52,7 +52,7 @@ private[http2] trait Http2StreamHandling { self: GraphStageLogic with LogHelper
 
   def wrapTrailingHeaders(headers: ParsedHeadersFrame): Option[HttpEntity.ChunkStreamPart]
 
-  def flowController: IncomingFlowController = IncomingFlowController.default(settings)
+  val flowController: IncomingFlowController = IncomingFlowController(settings)
 
   /**
    * Tries to generate demand of SubStreams on the inlet from the user handler. The
@@ -117,6 +117,13 @@ private[http2] trait Http2StreamHandling { self: GraphStageLogic with LogHelper
   def handleStreamEvent(e: StreamFrameEvent): Unit =
     updateState(e.streamId, _.handle(e), "handleStreamEvent", e.frameTypeName)
 
+  /**
+   * Applies a RFC 9218 priority signal to an open stream. Signals for streams that are not open (yet) are ignored
+   * instead of being buffered.
+   */
+  def updateStreamPriority(streamId: Int, priorityFieldValue: String): Unit =
+    if (streamStates.contains(streamId)) multiplexer.updatePriority(streamId, priorityFieldValue)
+
   /** Called by Http2ServerDemux when a stream comes in from the user-handler */
   def handleOutgoingCreated(stream: Http2SubStream): Unit = {
     stream.initialHeaders.priorityInfo.foreach(multiplexer.updatePriority)
@@ -188,6 +195,7 @@ private[http2] trait Http2StreamHandling { self: GraphStageLogic with LogHelper
     newState match {
       case Closed =>
         streamStates.remove(streamId)
+        multiplexer.removePriority(streamId)
         if (streamStates.isEmpty) onAllStreamsClosed()
         tryPullSubStreams()
       case newState => streamStates.put(streamId, newState)
@@ -296,7 +304,11 @@ private[http2] trait Http2StreamHandling { self: GraphStageLogic with LogHelper
         nextStateStream: IncomingStreamBuffer => StreamState,
         correlationAttributes: Map[AttributeKey[_], _] = Map.empty): StreamState =
       event match {
-        case frame @ ParsedHeadersFrame(streamId, endStream, _, _) =>
+        case frame @ ParsedHeadersFrame(streamId, endStream, keyValuePairs, _) =>
+          if (isServer) keyValuePairs.foreach {
+            case ("priority", header: HttpHeader) => multiplexer.updatePriority(streamId, header.value)
+            case _                                =>
+          }
           if (endStream) {
             dispatchSubstream(frame, Left(ByteString.empty), correlationAttributes)
             nextStateEmpty
@@ -460,6 +472,8 @@ private[http2] trait Http2StreamHandling { self: GraphStageLogic with LogHelper
           pushGOAWAY(ErrorCode.FLOW_CONTROL_ERROR, "Received more data than connection-level window would allow")
           Closed
         } else {
+          if (flowController.onDataReceived(d.sizeInWindow))
+            multiplexer.pushControlFrame(IncomingFlowController.BdpPing)
           val nextState = onDataFrame(d)
 
           val windowSizeIncrement =
@@ -168,6 +168,9 @@ private[http2] object HttpMessageRendering {
             addHeader(x)
             dateSeen = true
 
+          case x: PreRenderedHeaders if isServer =>
+            x.headers.foreach(addHeader)
+
           case x: CustomHeader =>
             addHeader(x)
 
@@ -15,7 +15,9 @@ package org.apache.pekko.http.impl.engine.http2
 
 import org.apache.pekko
 import pekko.annotation.InternalApi
+import pekko.http.impl.engine.http2.FrameEvent.PingFrame
 import pekko.http.scaladsl.settings.Http2CommonSettings
+import pekko.util.ByteString
 
 /** INTERNAL API */
 @InternalApi
@@ -24,6 +26,18 @@ private[http2] trait IncomingFlowController {
 
   def onStreamDataDispatched(outstandingConnectionLevelWindow: Int, totalBufferedData: Int,
       outstandingStreamLevelWindow: Int, streamBufferedData: Int): IncomingFlowController.WindowIncrements
+
+  /**
+   * Called for every DATA frame received with the number of bytes it took from the connection-level window. Returns
+   * true if a [[IncomingFlowController.BdpPing]] should be sent now.
+   */
+  def onDataReceived(sizeInWindow: Int): Boolean = false
+
+  /**
+   * Called when the ack for a [[IncomingFlowController.BdpPing]] was received. Returns false if no such ping was in
+   * flight, in which case the ack is unexpected.
+   */
+  def onBdpPingAck(): Boolean = false
 }
 
 /** INTERNAL API */
@@ -37,6 +51,14 @@ private[http2] object IncomingFlowController {
     val NoIncrements = WindowIncrements(0, 0)
   }
 
+  /** The PING sent to measure the bandwidth-delay product, its payload differs from the one of keep-alive pings */
+  val BdpPing = PingFrame(false, ByteString("pekkobdp"))
+
+  def apply(settings: Http2CommonSettings): IncomingFlowController =
+    if (settings.incomingWindowAutoTuning)
+      new AutoTuning(settings.incomingConnectionLevelBufferSize, settings.incomingStreamLevelBufferSize)
+    else default(settings)
+
   def default(settings: Http2CommonSettings): IncomingFlowController =
     default(settings.incomingConnectionLevelBufferSize, settings.incomingStreamLevelBufferSize)
 
@@ -52,10 +74,65 @@ private[http2] object IncomingFlowController {
           onConnectionDataReceived(outstandingConnectionLevelWindow, totalBufferedData),
           ifMoreThanHalfUsed(maximumStreamLevelWindow, outstandingStreamLevelWindow, streamBufferedData))
 
-      private def ifMoreThanHalfUsed(max: Int, outstanding: Int, buffered: Int): Int = {
-        val totalReservedSpace = outstanding + buffered
-        if (totalReservedSpace < max / 2) max - totalReservedSpace
-        else 0
+    }
+
+  private def ifMoreThanHalfUsed(max: Int, outstanding: Int, buffered: Int): Int = {
+    val totalReservedSpace = outstanding + buffered
+    if (totalReservedSpace < max / 2) max - totalReservedSpace
+    else 0
+  }
+
+  /**
+   * Sizes the windows by an estimate of the bandwidth-delay product (BDP) of the connection, bounded by the configured
+   * maximum window sizes. When data arrives and no BDP ping is in flight, a PING is sent and all data received until
+   * its ack is counted, which is the amount of data the peer managed to send within one round-trip. If the peer used
+   * most of the current window during that time, the window is likely what limits the transfer and it is grown to twice
+   * the sample. If the peer used only a small part of it, the window is halved, down to the protocol default. As in the
+   * default scheme, WINDOW_UPDATE frames are sent when more than half of the current window is used.
+   *
+   * The estimate is used as the stream-level window, the connection-level window keeps the ratio between the configured
+   * maximum sizes, so that streams which are not read do not block others sooner than with the maximum sizes.
+   */
+  final class AutoTuning(maximumConnectionLevelWindow: Int, maximumStreamLevelWindow: Int)
+      extends IncomingFlowController {
+    private val minimumWindow = math.min(Http2Protocol.InitialWindowSize, maximumStreamLevelWindow)
+    private val connectionToStreamRatio = math.max(1L, maximumConnectionLevelWindow.toLong / maximumStreamLevelWindow)
+
+    private var estimate = minimumWindow
+    private var pingInFlight = false
+    private var sampledBytes = 0L
+
+    def streamLevelWindow: Int = estimate
+    def connectionLevelWindow: Int =
+      math.max(math.min(estimate * connectionToStreamRatio, maximumConnectionLevelWindow.toLong).toInt, estimate)
+
+    def onConnectionDataReceived(outstandingConnectionLevelWindow: Int, totalBufferedData: Int): Int =
+      ifMoreThanHalfUsed(connectionLevelWindow, outstandingConnectionLevelWindow, totalBufferedData)
+
+    def onStreamDataDispatched(outstandingConnectionLevelWindow: Int, totalBufferedData: Int,
+        outstandingStreamLevelWindow: Int, streamBufferedData: Int): WindowIncrements =
+      WindowIncrements(
+        onConnectionDataReceived(outstandingConnectionLevelWindow, totalBufferedData),
+        ifMoreThanHalfUsed(streamLevelWindow, outstandingStreamLevelWindow, streamBufferedData))
+
+    override def onDataReceived(sizeInWindow: Int): Boolean = {
+      sampledBytes += sizeInWindow
+      if (pingInFlight) false
+      else {
+        pingInFlight = true
+        true
       }
     }
+
+    override def onBdpPingAck(): Boolean =
+      if (pingInFlight) {
+        if (sampledBytes >= estimate * 2L / 3)
+          estimate = math.min(sampledBytes * 2, maximumStreamLevelWindow.toLong).toInt
+        else if (sampledBytes < estimate / 4)
+          estimate = math.max(estimate / 2, minimumWindow)
+        pingInFlight = false
+        sampledBytes = 0L
+        true
+      } else false
+  }
 }
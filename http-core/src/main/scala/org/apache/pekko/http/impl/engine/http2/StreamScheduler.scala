@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.engine.http2
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.http.ccompat._
+
+import scala.collection.mutable
+
+/**
+ * INTERNAL API
+ *
+ * The priority parameters of RFC 9218, as sent in the `priority` header and in PRIORITY_UPDATE frames, encoded into an
+ * Int: bits 0-2 hold the urgency, bit 3 is set for incremental streams.
+ */
+@InternalApi
+private[http2] object ExtensiblePriority {
+  final val DefaultUrgency = 3
+  final val Incremental = 8
+
+  /** The priority of streams that never signalled one: default urgency, and sent round robin like incremental ones */
+  final val Unsignalled: Int = DefaultUrgency | Incremental
+
+  def urgency(priority: Int): Int = priority & 7
+  def isIncremental(priority: Int): Boolean = (priority & Incremental) != 0
+
+  /**
+   * Parses a priority field value, a structured fields dictionary like `u=1, i`. Parameters that are absent, invalid
+   * or unknown take their default values (urgency 3, not incremental), see RFC 9218, section 4.
+   */
+  def parse(fieldValue: String): Int = {
+    var urgency = DefaultUrgency
+    var incremental = false
+    fieldValue.split(',').foreach { member =>
+      val eq = member.indexOf('=')
+      // parameters of dictionary members (after `;`) are ignored
+      val key = (if (eq == -1) member else member.substring(0, eq)).takeWhile(_ != ';').trim
+      val value = if (eq == -1) "?1" else member.substring(eq + 1).takeWhile(_ != ';').trim
+      key match {
+        case "u" => if (value.length == 1 && value(0) >= '0' && value(0) <= '7') urgency = value(0) - '0'
+        case "i" => if (value == "?1") incremental = true else if (value == "?0") incremental = false
+        case _   =>
+      }
+    }
+    urgency | (if (incremental) Incremental else 0)
+  }
+}
+
+/**
+ * INTERNAL API
+ *
+ * Decides which of the streams that have data to send goes next, following RFC 9218, section 10: streams of a lower
+ * urgency (a higher `u`) are only served when no stream of a higher urgency has data. Within an urgency,
+ * non-incremental streams are served one after the other and before incremental streams, which share the connection
+ * round robin. Streams that never signalled a priority are treated as incremental streams of the default urgency,
+ * i.e. they are served round robin as before RFC 9218 was supported.
+ *
+ * All operations are O(1), except for removing a cancelled stream.
+ */
+@InternalApi
+private[http2] final class StreamScheduler {
+  import ExtensiblePriority._
+
+  private val priorities = new mutable.LongMap[Int]
+  // per urgency, one queue for non-incremental streams and one for incremental streams
+  private val sequential = Array.fill(8)(new mutable.Queue[Int])
+  private val roundRobin = Array.fill(8)(new mutable.Queue[Int])
+  private var _size = 0
+
+  /** Sets the priority of a stream, which is applied the next time the stream is enqueued */
+  def updatePriority(streamId: Int, priority: Int): Unit = priorities.update(streamId, priority)
+  def removePriority(streamId: Int): Unit = priorities -= streamId
+  def priorityOf(streamId: Int): Int = priorities.getOrElse(streamId, Unsignalled)
+
+  def isEmpty: Boolean = _size == 0
+  def nonEmpty: Boolean = _size != 0
+  def size: Int = _size
+
+  /** Adds a stream that has data to send */
+  def enqueue(streamId: Int): Unit = {
+    val priority = priorityOf(streamId)
+    if (isIncremental(priority)) roundRobin(urgency(priority)).enqueue(streamId)
+    else sequential(urgency(priority)).enqueue(streamId)
+    _size += 1
+  }
+
+  /** Adds a stream that just sent a frame and has more data, a non-incremental stream goes on right away */
+  def requeue(streamId: Int): Unit = {
+    val priority = priorityOf(streamId)
+    if (isIncremental(priority)) roundRobin(urgency(priority)).enqueue(streamId)
+    else streamId +=: sequential(urgency(priority))
+    _size += 1
+  }
+
+  /** Removes and returns the stream that should send next, must only be called if non-empty */
+  def dequeue(): Int = {
+    var u = 0
+    while (u < 8) {
+      if (sequential(u).nonEmpty) {
+        _size -= 1
+        return sequential(u).dequeue()
+      } else if (roundRobin(u).nonEmpty) {
+        _size -= 1
+        return roundRobin(u).dequeue()
+      }
+      u += 1
+    }
+    throw new NoSuchElementException("No stream enqueued")
+  }
+
+  /** Removes a stream from the queues, expensive but only used for cancelled streams */
+  def remove(streamId: Int): Unit = {
+    def removeFrom(queue: mutable.Queue[Int]): Unit =
+      if (queue.nonEmpty) {
+        val before = queue.size
+        queue -= streamId
+        _size -= before - queue.size
+      }
+    sequential.foreach(removeFrom)
+    roundRobin.foreach(removeFrom)
+  }
+
+  def contains(streamId: Int): Boolean =
+    sequential.exists(_.contains(streamId)) || roundRobin.exists(_.contains(streamId))
+
+  def streamIds: Set[Int] = (sequential.iterator ++ roundRobin.iterator).flatMap(_.iterator).toSet
+}
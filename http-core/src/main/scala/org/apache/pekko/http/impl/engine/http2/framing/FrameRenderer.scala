@@ -145,6 +145,17 @@ private[http2] object FrameRenderer {
           streamId)
           .putPriorityInfo(frame)
           .build()
+
+      case PriorityUpdateFrame(prioritizedStreamId, priorityFieldValue) =>
+        val value = ByteString(priorityFieldValue)
+        Frame(
+          4 + value.length,
+          Http2Protocol.FrameType.PRIORITY_UPDATE,
+          Http2Protocol.Flags.NO_FLAGS,
+          Http2Protocol.NoStreamId)
+          .putInt32(prioritizedStreamId)
+          .put(value)
+          .build()
       case _ => throw new IllegalStateException(s"Unexpected frame type ${frame.frameTypeName}.")
     }
 
@@ -145,6 +145,14 @@ private[http] object Http2FrameParsing {
         Http2Compliance.requireNoSelfDependency(streamId, dependencyId)
         PriorityFrame(streamId, exclusiveFlag, dependencyId, priority)
 
+      case FrameType.PRIORITY_UPDATE =>
+        // see RFC 9218, section 7.1
+        Http2Compliance.requireZeroStreamId(streamId)
+        Http2Compliance.requireMinFrameSize(payload.remainingSize, 4)
+        val prioritizedStreamId = payload.readIntBE() & 0x7FFFFFFF // ignore reserved bit
+        Http2Compliance.requireNonZeroStreamId(prioritizedStreamId)
+        PriorityUpdateFrame(prioritizedStreamId, payload.remainingData.utf8String)
+
       case FrameType.PUSH_PROMISE =>
         val pad = Flags.PADDED.isSet(flags)
         val endHeaders = Flags.END_HEADERS.isSet(flags)
@@ -13,24 +13,54 @@
 
 package org.apache.pekko.http.impl.engine.http2.hpack
 
-import java.io.{ ByteArrayInputStream, InputStream }
+import java.io.InputStream
+import java.nio.ByteBuffer
 
 import org.apache.pekko
 import pekko.annotation.InternalApi
 import pekko.util.ByteString
-import pekko.util.ByteString.ByteString1C
 
 /** INTERNAL API */
 @InternalApi
 private[http2] object ByteStringInputStream {
 
-  def apply(bs: ByteString): InputStream =
-    bs match {
-      case cs: ByteString1C =>
-        // TODO optimise, ByteString needs to expose InputStream (esp if array backed, nice!)
-        new ByteArrayInputStream(cs.toArray)
-      case _ =>
-        // NOTE: We actually measured recently, and compact + use array was pretty good usually
-        apply(bs.compact)
+  /**
+   * Reads directly from the memory of the given ByteString. Only a ByteString that consists of several segments
+   * (e.g. a header block that was received in CONTINUATION frames) is compacted into a single array first.
+   */
+  def apply(bs: ByteString): InputStream = new ByteStringInputStream(bs.asByteBuffer)
+}
+
+/**
+ * INTERNAL API
+ *
+ * Unlike `ByteArrayInputStream` this stream is not synchronized, which matters as the HPACK decoder reads most of the
+ * input byte by byte.
+ */
+@InternalApi
+private[http2] final class ByteStringInputStream(buffer: ByteBuffer) extends InputStream {
+  override def read(): Int =
+    if (buffer.hasRemaining) buffer.get() & 0xFF
+    else -1
+
+  override def read(b: Array[Byte], off: Int, len: Int): Int =
+    if (len == 0) 0
+    else if (!buffer.hasRemaining) -1
+    else {
+      val n = math.min(len, buffer.remaining)
+      buffer.get(b, off, n)
+      n
     }
+
+  override def skip(n: Long): Long = {
+    val skipped = math.max(0, math.min(n, buffer.remaining.toLong)).toInt
+    buffer.position(buffer.position() + skipped)
+    skipped
+  }
+
+  override def available(): Int = buffer.remaining
+
+  override def markSupported(): Boolean = true
+  override def mark(readlimit: Int): Unit = buffer.mark()
+  override def reset(): Unit = buffer.reset()
 }
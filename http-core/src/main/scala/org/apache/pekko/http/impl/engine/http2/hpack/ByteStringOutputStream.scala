@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.engine.http2.hpack
+
+import java.io.OutputStream
+import java.util.Arrays
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.util.ByteString
+
+/**
+ * INTERNAL API
+ *
+ * A growable buffer that is reused for all header blocks of a connection. Unlike `ByteArrayOutputStream` it is not
+ * synchronized, which matters as the HPACK encoder writes most of its output byte by byte.
+ */
+@InternalApi
+private[http2] final class ByteStringOutputStream(initialSize: Int) extends OutputStream {
+  private[this] var buffer = new Array[Byte](initialSize)
+  private[this] var count = 0
+
+  override def write(b: Int): Unit = {
+    ensureCapacity(count + 1)
+    buffer(count) = b.toByte
+    count += 1
+  }
+
+  override def write(b: Array[Byte], off: Int, len: Int): Unit = {
+    ensureCapacity(count + len)
+    System.arraycopy(b, off, buffer, count, len)
+    count += len
+  }
+
+  def size: Int = count
+
+  /** Copies the bytes written since the last reset into a new ByteString and resets the buffer */
+  def result(): ByteString = {
+    val res = ByteString.fromArray(buffer, 0, count)
+    count = 0
+    res
+  }
+
+  def reset(): Unit = count = 0
+
+  private def ensureCapacity(required: Int): Unit =
+    if (required > buffer.length)
+      buffer = Arrays.copyOf(buffer, math.max(required, buffer.length * 2))
+}
@@ -59,39 +59,49 @@ private[http2] final class HeaderDecompression(masterHeaderParser: HttpHeaderPar
       // Idle: no ongoing HEADERS parsing
       // Receiving headers: waiting for CONTINUATION frame
 
-      def parseAndEmit(
-          streamId: Int, endStream: Boolean, payload: ByteString, prioInfo: Option[PriorityFrame]): Unit = {
-        val headers = new VectorBuilder[(String, AnyRef)]
-        object Receiver extends HeaderListener {
-          def addHeader(name: String, value: String, parsed: AnyRef, sensitive: Boolean): AnyRef = {
-            if (parsed ne null) {
-              headers += name -> parsed
-              parsed
-            } else {
-              import Http2HeaderParsing._
-              def handle(parsed: AnyRef): AnyRef = {
-                headers += name -> parsed
-                parsed
-              }
-
-              name match {
-                case "content-type"   => handle(ContentType.parse(name, value, parserSettings))
-                case ":authority"     => handle(Authority.parse(name, value, parserSettings))
-                case ":path"          => handle(PathAndQuery.parse(name, value, parserSettings))
-                case ":method"        => handle(Method.parse(name, value, parserSettings))
-                case ":scheme"        => handle(Scheme.parse(name, value, parserSettings))
-                case "content-length" => handle(ContentLength.parse(name, value, parserSettings))
-                case "cookie"         => handle(Cookie.parse(name, value, parserSettings))
-                case x if x(0) == ':' => handle(value)
-                case _                =>
-                  // cannot use OtherHeader.parse because that doesn't has access to header parser
-                  val header = parseHeaderPair(httpHeaderParser, name, value)
-                  RequestParsing.validateHeader(header)
-                  handle(header)
-              }
+      // reused for all header blocks to avoid allocating a listener per block
+      private var headers: VectorBuilder[(String, AnyRef)] = _
+      object Receiver extends HeaderListener {
+
+        /**
+         * The decoder remembers the returned value for the table entry of the header, if any, and passes it back in
+         * `parsed` whenever the peer refers to that entry again. The complete name/value pair is returned so that such
+         * a hit is neither parsed nor validated again, and doesn't allocate.
+         */
+        def addHeader(name: String, value: String, parsed: AnyRef, sensitive: Boolean): AnyRef = {
+          if (parsed ne null) {
+            headers += parsed.asInstanceOf[(String, AnyRef)]
+            parsed
+          } else {
+            import Http2HeaderParsing._
+            def handle(parsed: AnyRef): AnyRef = {
+              val header = name -> parsed
+              headers += header
+              header
+            }
+
+            name match {
+              case "content-type"   => handle(ContentType.parse(name, value, parserSettings))
+              case ":authority"     => handle(Authority.parse(name, value, parserSettings))
+              case ":path"          => handle(PathAndQuery.parse(name, value, parserSettings))
+              case ":method"        => handle(Method.parse(name, value, parserSettings))
+              case ":scheme"        => handle(Scheme.parse(name, value, parserSettings))
+              case "content-length" => handle(ContentLength.parse(name, value, parserSettings))
+              case "cookie"         => handle(Cookie.parse(name, value, parserSettings))
+              case x if x(0) == ':' => handle(value)
+              case _                =>
+                // cannot use OtherHeader.parse because that doesn't has access to header parser
+                val header = parseHeaderPair(httpHeaderParser, name, value)
+                RequestParsing.validateHeader(header)
+                handle(header)
             }
           }
         }
+      }
+
+      def parseAndEmit(
+          streamId: Int, endStream: Boolean, payload: ByteString, prioInfo: Option[PriorityFrame]): Unit = {
+        headers = new VectorBuilder[(String, AnyRef)]
         try {
           decoder.decode(ByteStringInputStream(payload), Receiver)
           decoder.endHeaderBlock() // TODO: do we have to check the result here?
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.engine.parsing
+
+import java.nio.{ ByteBuffer, ByteOrder }
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.util.ByteString
+
+/**
+ * INTERNAL API
+ *
+ * Finds the end of runs of "uninteresting" bytes in a `ByteString` eight bytes at a time (SWAR, SIMD within a
+ * register) by reading little-endian longs from a read-only `ByteBuffer` view of the input.
+ *
+ * Views are only used for compact inputs, for which `asByteBuffer` wraps the backing array without copying.
+ * Other inputs are scanned byte by byte. The view of the last input is kept, so an instance must only be used
+ * by a single parser at a time.
+ */
+@InternalApi
+private[parsing] final class ByteStringScanner {
+  import ByteStringScanner._
+
+  private[this] var lastInput: ByteString = _
+  private[this] var lastView: ByteBuffer = _
+
+  private def viewOf(input: ByteString): ByteBuffer =
+    if (input eq lastInput) lastView
+    else {
+      lastInput = input
+      lastView = if (input.isCompact) input.asByteBuffer.order(ByteOrder.LITTLE_ENDIAN) else null
+      lastView
+    }
+
+  /**
+   * Returns the index of the first byte in `[from, until)` that is not printable 7-bit ASCII (i.e. is below 0x20,
+   * like CR, LF or HTAB, or above 0x7F), or `until` if there is none. `until` must not exceed the input length.
+   */
+  def indexOfNonPrintableAscii(input: ByteString, from: Int, until: Int): Int = {
+    val view = viewOf(input)
+    var ix = from
+    if (view ne null)
+      while (ix + 8 <= until) {
+        val word = view.getLong(ix)
+        val flags = lessThan(word, 0x20) | (word & HighBits)
+        if (flags != 0) return ix + firstFlaggedByte(flags)
+        ix += 8
+      }
+    while (ix < until && { val b = input(ix); b >= 0x20 }) ix += 1 // bytes above 0x7F are negative
+    ix
+  }
+
+  /**
+   * Returns the index of the first byte in `[from, until)` that is a space or a control character (i.e. is 0x20
+   * or below, which includes HTAB, CR and LF), or `until` if there is none. `until` must not exceed the input length.
+   */
+  def indexOfSpaceOrControl(input: ByteString, from: Int, until: Int): Int = {
+    val view = viewOf(input)
+    var ix = from
+    if (view ne null)
+      while (ix + 8 <= until) {
+        val flags = lessThan(view.getLong(ix), 0x21)
+        if (flags != 0) return ix + firstFlaggedByte(flags)
+        ix += 8
+      }
+    while (ix < until && (input(ix) & 0xFF) > 0x20) ix += 1
+    ix
+  }
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[parsing] object ByteStringScanner {
+  private final val LowBits = 0x0101010101010101L
+  private final val HighBits = 0x8080808080808080L
+
+  /**
+   * Sets the high bit of every byte of `word` that is less than `n` (for `n <= 0x80`). A borrow can produce
+   * false positives, but only in bytes following a true positive, so the first flagged byte is always exact.
+   */
+  private def lessThan(word: Long, n: Int): Long = (word - LowBits * n) & ~word & HighBits
+
+  /** The offset of the first flagged byte of a little-endian word. */
+  private def firstFlaggedByte(flags: Long): Int = java.lang.Long.numberOfTrailingZeros(flags) >>> 3
+}
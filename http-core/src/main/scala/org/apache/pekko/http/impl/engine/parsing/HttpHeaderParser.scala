@@ -78,6 +78,11 @@ import pekko.http.impl.model.parser.CharacterClasses._
  * The `values` array contains the payload data addressed by trie leaf nodes.
  * Since we address them via the nodes MSB and zero is reserved the trie
  * cannot hold more then 255 items, so this array has a fixed size of 255.
+ *
+ * Since entries are never removed, header values are only admitted to the trie once they have been seen
+ * `headerCacheAdmissionThreshold` times, as estimated by a per-parser [[HttpHeaderParser.FrequencySketch]]
+ * keyed by header name and value. Values that only occur once (e.g. trace IDs) therefore neither use up the
+ * limited per-header value slots nor trigger the copy of a shared trie.
  */
 @InternalApi
 private[engine] final class HttpHeaderParser private (
@@ -102,6 +107,10 @@ private[engine] final class HttpHeaderParser private (
    */
   var resultHeader: HttpHeader = EmptyHeader
 
+  // admission state of this instance, not shared with copies
+  private[this] var frequencySketch: FrequencySketch = _
+  private[parsing] var admitAll = false // used for priming
+
   def isEmpty = nodeCount == 0
 
   /**
@@ -124,7 +133,7 @@ private[engine] final class HttpHeaderParser private (
   def parseHeaderLine(input: ByteString, lineStart: Int = 0)(cursor: Int = lineStart, nodeIx: Int = 0): Int = {
     def startValueBranch(rootValueIx: Int, valueParser: HeaderValueParser) = {
       val (header, endIx) = valueParser(this, input, cursor, onIllegalHeader)
-      if (valueParser.cachingEnabled)
+      if (valueParser.cachingEnabled && admit(input, cursor, endIx, rootValueIx))
         try {
           val valueIx = newValueIndex // compute early in order to trigger OutOfTrieSpaceExceptions before any change
           unshareIfRequired()
@@ -203,7 +212,7 @@ private[engine] final class HttpHeaderParser private (
       nodeIx: Int = branch.branchRootNodeIx): Int = {
     def parseAndInsertHeader() = {
       val (header, endIx) = branch.parser(this, input, valueStart, onIllegalHeader)
-      if (branch.spaceLeft)
+      if (branch.spaceLeft && admit(input, valueStart, endIx, branch.valueIx))
         try {
           insert(input, header)(cursor, endIx, nodeIx, colonIx = 0)
           values(branch.valueIx) = branch.withValueCountIncreased
@@ -232,6 +241,23 @@ private[engine] final class HttpHeaderParser private (
     }
   }
 
+  /**
+   * Records an occurrence of the header value in `input` between `valueStart` and `endIx` for the header whose
+   * value branch is rooted at `headerValueIx` and returns whether the value has been seen often enough to be
+   * added to the cache.
+   */
+  private def admit(input: ByteString, valueStart: Int, endIx: Int, headerValueIx: Int): Boolean =
+    admitAll || headerCacheAdmissionThreshold <= 1 || {
+      if (frequencySketch eq null) frequencySketch = new FrequencySketch(FrequencySketch.DefaultExpectedValues)
+      var hash = headerValueIx
+      var ix = valueStart
+      while (ix < endIx) {
+        hash = 31 * hash + input(ix)
+        ix += 1
+      }
+      frequencySketch.increment(hash) >= headerCacheAdmissionThreshold
+    }
+
   /**
    * Inserts a value into the cache trie.
    * CAUTION: this method must only be called if:
@@ -431,6 +457,9 @@ private[engine] final class HttpHeaderParser private (
   private lazy val charBuffer = CharBuffer.allocate(2)
   private lazy val decoder = UTF8.newDecoder()
 
+  // scans runs of plain ASCII in header values (and request targets) a word at a time
+  private[parsing] val scanner = new ByteStringScanner
+
   // returns the decoded character as a simple 16-bit Char value or a 32-bit surrogate pair
   // or -1 if the byteBuffer bytes are not a complete and legal UTF-8 byte sequence
   private def decodeByteBuffer(): Int = {
@@ -459,6 +488,7 @@ private[http] object HttpHeaderParser {
     def maxHeaderNameLength: Int
     def maxHeaderValueLength: Int
     def headerValueCacheLimit(headerName: String): Int
+    def headerCacheAdmissionThreshold: Int
     def customMediaTypes: MediaTypes.FindCustom
     def illegalHeaderWarnings: Boolean
     def ignoreIllegalHeaderFor: Set[String]
@@ -534,11 +564,14 @@ private[http] object HttpHeaderParser {
         insertInGoodOrder(items)(pivot + 1, endIx)
       }
 
-    insertInGoodOrder(valueParsers.sortBy(_.headerName))()
-    insertInGoodOrder(specializedHeaderValueParsers)()
-    insertInGoodOrder(predefinedHeaders.sorted)()
-    parser.insert(ByteString("\r\n"), EmptyHeader)()
-    parser.insert(ByteString("\n"), EmptyHeader)()
+    parser.admitAll = true
+    try {
+      insertInGoodOrder(valueParsers.sortBy(_.headerName))()
+      insertInGoodOrder(specializedHeaderValueParsers)()
+      insertInGoodOrder(predefinedHeaders.sorted)()
+      parser.insert(ByteString("\r\n"), EmptyHeader)()
+      parser.insert(ByteString("\n"), EmptyHeader)()
+    } finally parser.admitAll = false
 
     parser
   }
@@ -598,7 +631,15 @@ private[http] object HttpHeaderParser {
 
     def appended(c: Char) = (if (sb != null) sb else new JStringBuilder(asciiString(input, start, ix))).append(c)
     def appended2(c: Int) = if ((c >> 16) != 0) appended(c.toChar).append((c >> 16).toChar) else appended(c.toChar)
-    if (ix < limit)
+    // skip over legal 7-Bit ASCII in bulk, only the remaining characters need to be looked at one by one
+    val plainEnd = hhp.scanner.indexOfNonPrintableAscii(input, ix, math.min(limit, input.length))
+    if (plainEnd > ix) {
+      if (sb != null) {
+        var i = ix
+        while (i < plainEnd) { sb.append(input(i).toChar); i += 1 }
+      }
+      scanHeaderValue(hhp, input, start, limit, log, mode)(sb, plainEnd)
+    } else if (ix < limit)
       byteChar(input, ix) match {
         case '\t' => scanHeaderValue(hhp, input, start, limit, log, mode)(appended(' '), ix + 1)
         case '\r' if byteChar(input, ix + 1) == '\n' =>
@@ -667,6 +708,68 @@ private[http] object HttpHeaderParser {
 
   private object OutOfTrieSpaceException extends SingletonException
 
+  /**
+   * A count-min sketch with four rows of 4-bit counters, estimating how often a value with a given hash has been
+   * seen, as used for admission in TinyLFU. Each row is indexed with a differently seeded hash, so that an estimate is
+   * only too high if the value collides with more frequent values in all four rows. All counters are halved after
+   * `10 * expectedValues` increments so that the estimates follow changes in the traffic.
+   *
+   * @param expectedValues the number of distinct values expected within a sample, rounded up to a power of two (at
+   *                       least 16) to get the number of counters per row
+   */
+  private[parsing] final class FrequencySketch(expectedValues: Int) {
+    require(expectedValues > 0, "expectedValues must be > 0")
+
+    private[this] val rowSize = math.max(16, Integer.highestOneBit(expectedValues - 1) << 1)
+    private[this] val mask = rowSize - 1
+    private[this] val table = new Array[Long](4 * rowSize >>> 4)
+    private[this] val sampleSize = 10 * expectedValues
+    private[this] var increments = 0
+
+    /**
+     * Records an occurrence of the value with the given hash and returns the estimated number of occurrences,
+     * which is capped at 15.
+     */
+    def increment(hash: Int): Int = {
+      var estimate = 15
+      var depth = 0
+      while (depth < 4) {
+        val counterIx = depth * rowSize + indexOf(hash, depth)
+        val tableIx = counterIx >>> 4
+        val shift = (counterIx & 15) << 2
+        val count = ((table(tableIx) >>> shift) & 0xFL).toInt
+        if (count < 15) table(tableIx) += 1L << shift
+        if (count + 1 < estimate) estimate = count + 1
+        depth += 1
+      }
+      increments += 1
+      if (increments == sampleSize) reset()
+      estimate
+    }
+
+    private def indexOf(hash: Int, depth: Int): Int = {
+      var h = (hash + FrequencySketch.Seeds(depth)) * 0x9E3779B9
+      h ^= h >>> 16
+      h & mask
+    }
+
+    private def reset(): Unit = {
+      var i = 0
+      while (i < table.length) {
+        table(i) = (table(i) >>> 1) & 0x7777777777777777L
+        i += 1
+      }
+      increments /= 2
+    }
+  }
+
+  private[parsing] object FrequencySketch {
+    private val Seeds = Array(0x97CB3127, 0xB3A1F0D5, 0x4F2E8C1B, 0xE1D6A39F)
+
+    /** Several times the number of values that fit into the trie, so that one-off values rarely collide */
+    val DefaultExpectedValues = 1024
+  }
+
   /**
    * Instances of this class are added as "intermediate" values into the trie at the point where the header name has
    * been parsed (so we know the header type).
@@ -162,13 +162,16 @@ private[http] final class HttpRequestParser(
         val uriStart = cursor
         val uriEndLimit = cursor + maxUriLength
 
-        @tailrec def findUriEnd(ix: Int = cursor): Int =
-          if (ix == input.length) throw NotEnoughDataException
-          else if (CharacterClasses.WSPCRLF(input(ix).toChar)) ix
-          else if (ix < uriEndLimit) findUriEnd(ix + 1)
-          else throw new ParsingException(
+        // candidates are all bytes up to and including SP, of which only SP, HTAB, CR and LF end the URI
+        @tailrec def findUriEnd(ix: Int = cursor): Int = {
+          val candidate = headerParser.scanner.indexOfSpaceOrControl(input, ix, math.min(uriEndLimit + 1, input.length))
+          if (candidate > uriEndLimit) throw new ParsingException(
             UriTooLong,
             s"URI length exceeds the configured limit of $maxUriLength characters$remoteAddressStr")
+          else if (candidate == input.length) throw NotEnoughDataException
+          else if (CharacterClasses.WSPCRLF(input(candidate).toChar)) candidate
+          else findUriEnd(candidate + 1)
+        }
 
         val uriEnd = findUriEnd()
         try {
@@ -151,10 +151,9 @@ private[http] class HttpResponseRendererFactory(
           import ctx.response._
           val noEntity = entity.isKnownEmpty || ctx.requestMethod == HttpMethods.HEAD
 
-          def renderStatusLine(): Unit =
+          def renderResponseStatusLine(): Unit =
             protocol match {
-              case `HTTP/1.1` => if (status eq StatusCodes.OK) r ~~ DefaultStatusLineBytes
-                else r ~~ StatusLineStartBytes ~~ status ~~ CrLf
+              case `HTTP/1.1` => renderStatusLine(r, status)
               case `HTTP/1.0` => r ~~ protocol ~~ ' ' ~~ status ~~ CrLf
               case other      => throw new IllegalStateException(s"Unexpected protocol '$other'")
             }
@@ -202,6 +201,9 @@ private[http] class HttpResponseRendererFactory(
                 case x: Connection =>
                   connHeader = if (connHeader eq null) x else Connection(x.tokens ++ connHeader.tokens)
 
+                case x: PreRenderedHeaders =>
+                  r ~~ x.bytes
+
                 case x: CustomHeader =>
                   if (x.renderInResponses) render(x)
 
@@ -255,7 +257,7 @@ private[http] class HttpResponseRendererFactory(
           }
 
           def renderContentLengthHeader(contentLength: Long) =
-            if (status.allowsEntity) r ~~ ContentLengthBytes ~~ contentLength ~~ CrLf else r
+            if (status.allowsEntity) renderContentLength(r, contentLength) else r
 
           def headersAndEntity(entityBytes: => Source[ByteString, Any]): StrictOrStreamed =
             if (noEntity) {
@@ -311,7 +313,7 @@ private[http] class HttpResponseRendererFactory(
                 }
             }
 
-          renderStatusLine()
+          renderResponseStatusLine()
           completeResponseRendering(entity)
         }
       }
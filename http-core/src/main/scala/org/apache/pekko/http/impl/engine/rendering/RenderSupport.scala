@@ -51,6 +51,17 @@ private[http] object RenderSupport {
   private val TextHtmlContentType = preRenderContentType(`text/html(UTF-8)`)
   private val TextCsvContentType = preRenderContentType(`text/csv(UTF-8)`)
 
+  // Small caches of rendered header lines shared by all renderers. They are read and written without
+  // synchronization, which is safe as entries are immutable holders whose fields are final, so that other threads
+  // always see a fully rendered line, and a lost update only costs a re-rendering.
+  private final class CachedLine[K](val key: K, val bytes: Array[Byte])
+  private final class CachedBytes(val bytes: Array[Byte])
+  // keyed by the exact strings that are rendered, as parameters like multipart boundaries are case-sensitive
+  private final class CachedContentType(val mediaType: String, val charset: HttpCharset, val bytes: Array[Byte])
+  private val statusLineCache = new Array[CachedLine[StatusCode]](500) // indexed by status code - 100
+  private val contentTypeCache = new Array[CachedContentType](64) // indexed by hash code of the media type value
+  private val contentLengthCache = new Array[CachedBytes](1024) // indexed by content length
+
   implicit val trailerRenderer = Renderer.genericSeqRenderer[Renderable, HttpHeader](Rendering.CrLf, Rendering.Empty)
 
   val defaultLastChunkBytes: ByteString = renderChunk(HttpEntity.LastChunk)
@@ -72,10 +83,56 @@ private[http] object RenderSupport {
     else if (ct eq `text/xml(UTF-8)`) r ~~ TextXmlContentType
     else if (ct eq `text/html(UTF-8)`) r ~~ TextHtmlContentType
     else if (ct eq `text/csv(UTF-8)`) r ~~ TextCsvContentType
-    else
-      r ~~ headers.`Content-Type` ~~ ct ~~ CrLf
+    else {
+      val mediaType = ct.mediaType.value
+      // only rendered for content types with an open charset
+      val charset = ct match {
+        case x: ContentType.WithCharset => x.charset
+        case _                          => null
+      }
+      val ix = mediaType.hashCode & (contentTypeCache.length - 1)
+      val cached = contentTypeCache(ix)
+      if ((cached ne null) && cached.mediaType.equals(mediaType) && cached.charset == charset) r ~~ cached.bytes
+      else {
+        val bytes = preRenderContentType(ct)
+        contentTypeCache(ix) = new CachedContentType(mediaType, charset, bytes)
+        r ~~ bytes
+      }
+    }
   }
 
+  /** Renders the HTTP/1.1 status line for the given status. */
+  def renderStatusLine(r: Rendering, status: StatusCode): r.type =
+    if (status eq StatusCodes.OK) r ~~ DefaultStatusLineBytes
+    else {
+      val ix = status.intValue - 100
+      if (ix < 0 || ix >= statusLineCache.length) r ~~ StatusLineStartBytes ~~ status ~~ CrLf
+      else {
+        val cached = statusLineCache(ix)
+        if ((cached ne null) && (cached.key eq status)) r ~~ cached.bytes
+        else {
+          val bytes = (new ByteArrayRendering(64) ~~ StatusLineStartBytes ~~ status ~~ CrLf).get
+          statusLineCache(ix) = new CachedLine(status, bytes)
+          r ~~ bytes
+        }
+      }
+    }
+
+  /** Renders a `Content-Length` header line for the given length. */
+  def renderContentLength(r: Rendering, contentLength: Long): r.type =
+    if (contentLength < 0 || contentLength >= contentLengthCache.length)
+      r ~~ ContentLengthBytes ~~ contentLength ~~ CrLf
+    else {
+      val ix = contentLength.toInt
+      val cached = contentLengthCache(ix)
+      if (cached ne null) r ~~ cached.bytes
+      else {
+        val bytes = (new ByteArrayRendering(24) ~~ ContentLengthBytes ~~ contentLength ~~ CrLf).get
+        contentLengthCache(ix) = new CachedBytes(bytes)
+        r ~~ bytes
+      }
+    }
+
   object ChunkTransformer {
     val flow = Flow.fromGraph(new ChunkTransformer).named("renderChunks")
   }
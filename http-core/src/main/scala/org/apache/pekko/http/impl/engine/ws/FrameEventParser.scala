@@ -13,12 +13,12 @@
 
 package org.apache.pekko.http.impl.engine.ws
 
+import java.nio.ByteBuffer
+
 import org.apache.pekko
 import pekko.annotation.InternalApi
 import pekko.stream.impl.io.ByteStringParser
 import pekko.util.ByteString
-
-import scala.annotation.tailrec
 import pekko.stream.Attributes
 
 /**
@@ -127,42 +127,36 @@ private[http] object FrameEventParser extends ByteStringParser[FrameEvent] {
     }
 
   def mask(bytes: ByteString, mask: Int): (ByteString, Int) = {
-    val m0 = ((mask >> 24) & 0xFF).toByte
-    val m1 = ((mask >> 16) & 0xFF).toByte
-    val m2 = ((mask >> 8) & 0xFF).toByte
-    val m3 = ((mask >> 0) & 0xFF).toByte
-
-    @tailrec def rec(bytes: Array[Byte], offset: Int, last: Int): Unit =
-      if (offset < last) {
-        // process four bytes each turn
-        bytes(offset + 0) = (bytes(offset + 0) ^ m0).toByte
-        bytes(offset + 1) = (bytes(offset + 1) ^ m1).toByte
-        bytes(offset + 2) = (bytes(offset + 2) ^ m2).toByte
-        bytes(offset + 3) = (bytes(offset + 3) ^ m3).toByte
-
-        rec(bytes, offset + 4, last)
-      } else {
-        val len = bytes.length
-
-        if (last < len) {
-          bytes(last) = (bytes(last) ^ m0).toByte
-
-          if (last + 1 < len) {
-            bytes(last + 1) = (bytes(last + 1) ^ m1).toByte
-
-            if (last + 2 < len)
-              bytes(last + 2) = (bytes(last + 2) ^ m2).toByte
-          }
-        }
-      }
-
     val buffer = bytes.toArray[Byte]
-    rec(buffer, 0, (bytes.length / 4) * 4)
+    maskInPlace(buffer, mask)
 
     val newMask = Integer.rotateLeft(mask, (bytes.length % 4) * 8)
     (ByteString.fromArrayUnsafe(buffer), newMask)
   }
 
+  /**
+   * XORs the given array with the (repeated) mask, eight bytes at a time through a big-endian `long` view
+   * of the array which the JIT compiles to plain (unaligned) word loads and stores.
+   */
+  private[ws] def maskInPlace(bytes: Array[Byte], mask: Int): Unit = {
+    val length = bytes.length
+    var offset = 0
+    if (length >= 8) {
+      val longMask = (mask.toLong << 32) | (mask & 0xFFFFFFFFL)
+      val longView = ByteBuffer.wrap(bytes)
+      val lastLong = length & ~7
+      while (offset < lastLong) {
+        longView.putLong(offset, longView.getLong(offset) ^ longMask)
+        offset += 8
+      }
+    }
+    // the remaining up to seven bytes, offset is a multiple of four at this point
+    while (offset < length) {
+      bytes(offset) = (bytes(offset) ^ (mask >> (24 - 8 * (offset & 3)))).toByte
+      offset += 1
+    }
+  }
+
   def parseCloseCode(data: ByteString): Option[(Int, String)] = {
     def invalid(reason: String) = Some((Protocol.CloseCodes.ProtocolError, s"Peer sent illegal close frame ($reason)."))
 
@@ -20,6 +20,7 @@ import pekko.annotation.InternalApi
 
 import scala.collection.immutable
 import scala.collection.immutable.Seq
+import scala.concurrent.Future
 import pekko.event.LoggingAdapter
 import pekko.http.impl.util._
 import pekko.http.impl.engine.server.UpgradeToOtherProtocolResponseHeader
@@ -92,7 +93,7 @@ private[http] object Handshake {
       // - Origin header is optional and, if required, should be validated
       //   on higher levels (routing, application logic)
       //
-      // TODO See #18709 Extension support is optional in WS and currently unsupported.
+      // Of the optional extensions only permessage-deflate is supported, see PerMessageDeflate.
       //
       // these are not needed directly, we verify their presence and correctness only:
       // - Upgrade
@@ -123,6 +124,12 @@ private[http] object Handshake {
             case _                 => Nil
           }
 
+          def requestedExtensions: immutable.Seq[WebSocketExtension] =
+            headers.flatMap {
+              case e: `Sec-WebSocket-Extensions` => e.extensions
+              case _                             => Nil
+            }
+
           val header = new UpgradeToWebSocketLowLevel {
             def requestedProtocols: Seq[String] = clientSupportedSubprotocols
 
@@ -132,7 +139,7 @@ private[http] object Handshake {
               require(
                 subprotocol.forall(chosen => clientSupportedSubprotocols.contains(chosen)),
                 s"Tried to choose invalid subprotocol '$subprotocol' which wasn't offered by the client: [${requestedProtocols.mkString(", ")}]")
-              buildResponse(key.get, handler, subprotocol, settings, log)
+              buildResponse(key.get, handler, subprotocol, settings, log, requestedExtensions)
             }
 
             def handleFrames(
@@ -169,16 +176,27 @@ private[http] object Handshake {
      */
     def buildResponse(key: `Sec-WebSocket-Key`,
         handler: Either[Graph[FlowShape[FrameEvent, FrameEvent], Any], Graph[FlowShape[Message, Message], Any]],
-        subprotocol: Option[String], settings: WebSocketSettings, log: LoggingAdapter): HttpResponse = {
+        subprotocol: Option[String], settings: WebSocketSettings, log: LoggingAdapter,
+        requestedExtensions: => immutable.Seq[WebSocketExtension] = Nil): HttpResponse = {
+      // extensions only apply to the message API, frame handlers see the frames as they are
+      val perMessageDeflate = handler match {
+        case Right(_) => PerMessageDeflate.negotiateServer(requestedExtensions, settings)
+        case Left(_)  => None
+      }
       val frameHandler = handler match {
         case Left(frameHandler) => frameHandler
         case Right(messageHandler) =>
-          WebSocket.stack(serverSide = true, settings, log = log).join(messageHandler)
+          val negotiated = perMessageDeflate match {
+            case Some((parameters, _)) => Future.successful(Some(parameters))
+            case None                  => PerMessageDeflate.NotNegotiated
+          }
+          WebSocket.stack(serverSide = true, settings, log = log, perMessageDeflate = negotiated).join(messageHandler)
       }
 
       HttpResponse(
         StatusCodes.SwitchingProtocols,
         subprotocol.map(p => `Sec-WebSocket-Protocol`(Seq(p))).toList :::
+        perMessageDeflate.map { case (_, extension) => `Sec-WebSocket-Extensions`(extension :: Nil) }.toList :::
         List(
           UpgradeHeader,
           ConnectionUpgradeHeader,
@@ -188,26 +206,29 @@ private[http] object Handshake {
   }
 
   object Client {
-    case class NegotiatedWebSocketSettings(subprotocol: Option[String])
+    case class NegotiatedWebSocketSettings(
+        subprotocol: Option[String],
+        perMessageDeflate: Option[PerMessageDeflate.Parameters] = None)
 
     /**
      * Builds a WebSocket handshake request.
      */
-    def buildRequest(uri: Uri, extraHeaders: immutable.Seq[HttpHeader], subprotocols: Seq[String], random: Random)
-        : (HttpRequest, `Sec-WebSocket-Key`) = {
+    def buildRequest(uri: Uri, extraHeaders: immutable.Seq[HttpHeader], subprotocols: Seq[String], random: Random,
+        extensions: Option[WebSocketExtension] = None): (HttpRequest, `Sec-WebSocket-Key`) = {
       val keyBytes = new Array[Byte](16)
       random.nextBytes(keyBytes)
       val key = `Sec-WebSocket-Key`(keyBytes)
       val protocol =
         if (subprotocols.nonEmpty) `Sec-WebSocket-Protocol`(subprotocols) :: Nil
         else Nil
+      val extension = extensions.map(e => `Sec-WebSocket-Extensions`(e :: Nil)).toList
       // version, protocol, extensions, origin
 
       val headers = Seq(
         UpgradeHeader,
         ConnectionUpgradeHeader,
         key,
-        SecWebSocketVersionHeader) ++ protocol ++ extraHeaders
+        SecWebSocketVersionHeader) ++ protocol ++ extension ++ extraHeaders
 
       (HttpRequest(HttpMethods.GET, uri.toRelative, headers), key)
     }
@@ -216,7 +237,8 @@ private[http] object Handshake {
      * Tries to validate the HTTP response. Returns either Right(settings) or an error message if
      * the response cannot be validated.
      */
-    def validateResponse(response: HttpResponse, subprotocols: Seq[String], key: `Sec-WebSocket-Key`)
+    def validateResponse(response: HttpResponse, subprotocols: Seq[String], key: `Sec-WebSocket-Key`,
+        settings: WebSocketSettings, offeredExtension: Option[WebSocketExtension])
         : Either[String, NegotiatedWebSocketSettings] = {
       /*
        From http://tools.ietf.org/html/rfc6455#section-4.1
@@ -300,12 +322,21 @@ private[http] object Handshake {
         headerExists(ConnectionUpgradeHeader, caseInsensitive = true) &&
         headerExists(`Sec-WebSocket-Accept`.forKey(key), showExactOther = false)
 
+      def negotiateExtensions(subprotocol: Option[String]): Either[String, NegotiatedWebSocketSettings] = {
+        val accepted = response.headers.flatMap {
+          case e: `Sec-WebSocket-Extensions` => e.extensions
+          case _                             => Nil
+        }
+        PerMessageDeflate.negotiateClient(accepted, offeredExtension, settings)
+          .map(NegotiatedWebSocketSettings(subprotocol, _))
+      }
+
       expectations(response) match {
         case None =>
           val subs = response.header[`Sec-WebSocket-Protocol`].flatMap(_.protocols.headOption)
 
-          if (subprotocols.isEmpty && subs.isEmpty) Right(NegotiatedWebSocketSettings(None)) // no specific one selected
-          else if (subs.nonEmpty && subprotocols.contains(subs.get)) Right(NegotiatedWebSocketSettings(Some(subs.get)))
+          if (subprotocols.isEmpty && subs.isEmpty) negotiateExtensions(None) // no specific one selected
+          else if (subs.nonEmpty && subprotocols.contains(subs.get)) negotiateExtensions(Some(subs.get))
           else Left(
             s"response that indicated that the given subprotocol was not supported. (client supported: ${subprotocols.mkString(
                 ", ")}, server supported: $subs)")
@@ -0,0 +1,336 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.engine.ws
+
+import java.util.zip.{ DataFormatException, Deflater, Inflater }
+
+import org.apache.pekko
+import pekko.NotUsed
+import pekko.annotation.InternalApi
+import pekko.dispatch.ExecutionContexts
+import pekko.http.impl.engine.ws.Protocol.Opcode
+import pekko.http.scaladsl.model.headers.WebSocketExtension
+import pekko.http.scaladsl.settings.WebSocketSettings
+import pekko.stream.Attributes
+import pekko.stream.impl.fusing.GraphStages.SimpleLinearGraphStage
+import pekko.stream.scaladsl.{ BidiFlow, Flow }
+import pekko.stream.stage.{ GraphStageLogic, InHandler, OutHandler }
+import pekko.util.{ ByteString, ByteStringBuilder }
+
+import scala.annotation.tailrec
+import scala.collection.immutable
+import scala.concurrent.Future
+import scala.util.{ Failure, Success, Try }
+
+/**
+ * Implements the "permessage-deflate" WebSocket extension as defined in RFC 7692: the negotiation of the extension
+ * during the handshake and the compression layer that (de)compresses the payload of data messages.
+ *
+ * The JDK deflater always uses a window of 2^15 bytes, so offers that would require this side to compress with a
+ * smaller window (`server_max_window_bits` < 15 on the server, `client_max_window_bits` on the client) are declined.
+ * Decompression works for all window sizes.
+ *
+ * INTERNAL API
+ */
+@InternalApi
+private[http] object PerMessageDeflate {
+  final val ExtensionName = "permessage-deflate"
+  final val ServerNoContextTakeover = "server_no_context_takeover"
+  final val ClientNoContextTakeover = "client_no_context_takeover"
+  final val ServerMaxWindowBits = "server_max_window_bits"
+  final val ClientMaxWindowBits = "client_max_window_bits"
+
+  private final val KnownParameters =
+    Set(ServerNoContextTakeover, ClientNoContextTakeover, ServerMaxWindowBits, ClientMaxWindowBits)
+
+  /** Every compressed message ends with these bytes which are removed before sending and appended after receiving */
+  private final val Tail = ByteString(0x00, 0x00, 0xFF, 0xFF)
+
+  private final val BufferSize = 16384
+
+  /** The result of a negotiation that is already known to not have enabled the extension */
+  val NotNegotiated: Future[Option[Parameters]] = Future.successful(None)
+
+  /**
+   * The parameters of a successfully negotiated extension from the perspective of the local side.
+   *
+   * @param compressionLevel the deflate level to compress outgoing messages with
+   * @param noContextTakeover whether the compression context must be reset after each outgoing message
+   */
+  final case class Parameters(compressionLevel: Int, noContextTakeover: Boolean)
+
+  /**
+   * Server side: picks the first acceptable permessage-deflate offer of the client, if the extension is enabled.
+   * Returns the parameters to use together with the extension to announce in the response.
+   */
+  def negotiateServer(offers: immutable.Seq[WebSocketExtension], settings: WebSocketSettings)
+      : Option[(Parameters, WebSocketExtension)] =
+    if (!settings.perMessageDeflateEnabled) None
+    else
+      offers.collectFirst {
+        case offer if offer.name.equalsIgnoreCase(ExtensionName) && isAcceptableOffer(offer.params) =>
+          val noContextTakeover =
+            offer.params.contains(ServerNoContextTakeover) || settings.perMessageDeflateNoContextTakeover
+          val responseParams =
+            (if (noContextTakeover) List(ServerNoContextTakeover -> "") else Nil) :::
+            (if (offer.params.contains(ClientNoContextTakeover)) List(ClientNoContextTakeover -> "") else Nil) :::
+            (if (offer.params.contains(ServerMaxWindowBits)) List(ServerMaxWindowBits -> "15") else Nil)
+
+          (Parameters(settings.perMessageDeflateCompressionLevel, noContextTakeover),
+            WebSocketExtension(ExtensionName, responseParams.toMap))
+      }
+
+  private def isAcceptableOffer(params: Map[String, String]): Boolean =
+    params.forall {
+      case (ServerNoContextTakeover | ClientNoContextTakeover, value) => value.isEmpty
+      // the JDK deflater cannot compress with a smaller window
+      case (ServerMaxWindowBits, value) => value == "15"
+      case (ClientMaxWindowBits, value) => value.isEmpty || isValidWindowBits(value)
+      case _                            => false
+    }
+
+  private def isValidWindowBits(value: String): Boolean =
+    value.length <= 2 && value.forall(Character.isDigit) && value.nonEmpty && {
+      val bits = value.toInt
+      bits >= 8 && bits <= 15
+    }
+
+  /** Client side: the extension to offer in the handshake request, if enabled */
+  def clientOffer(settings: WebSocketSettings): Option[WebSocketExtension] =
+    if (!settings.perMessageDeflateEnabled) None
+    else {
+      val params: Map[String, String] =
+        if (settings.perMessageDeflateNoContextTakeover) Map(ClientNoContextTakeover -> "") else Map.empty
+      Some(WebSocketExtension(ExtensionName, params))
+    }
+
+  /**
+   * Client side: validates the extensions the server accepted against the offer of the client. Returns either the
+   * negotiated parameters (`None` if the server declined the offer) or an error message.
+   */
+  def negotiateClient(accepted: immutable.Seq[WebSocketExtension], offered: Option[WebSocketExtension],
+      settings: WebSocketSettings): Either[String, Option[Parameters]] =
+    accepted.filter(_.name.equalsIgnoreCase(ExtensionName)) match {
+      case Seq() => Right(None)
+      case _ if offered.isEmpty =>
+        Left(s"response that indicated the use of the `$ExtensionName` extension which wasn't offered.")
+      case Seq(extension) =>
+        val invalid = extension.params.collectFirst {
+          // client_max_window_bits is never offered since the JDK deflater cannot honor it
+          case (name, _) if !KnownParameters(name) || name == ClientMaxWindowBits                  => name
+          case (name @ (ServerNoContextTakeover | ClientNoContextTakeover), value) if value.nonEmpty => name
+          case (name @ ServerMaxWindowBits, value) if !isValidWindowBits(value)                      => name
+        }
+        invalid match {
+          case Some(parameter) =>
+            Left(s"response with an invalid or unsupported `$ExtensionName` parameter `$parameter`.")
+          case None =>
+            val noContextTakeover =
+              extension.params.contains(ClientNoContextTakeover) || settings.perMessageDeflateNoContextTakeover
+            Right(Some(Parameters(settings.perMessageDeflateCompressionLevel, noContextTakeover)))
+        }
+      case _ => Left(s"response that indicated the `$ExtensionName` extension more than once.")
+    }
+
+  /**
+   * The layer that decompresses incoming and compresses outgoing data messages. It is transparent if the
+   * negotiation did not enable the extension. On the client the negotiation result is only known after the
+   * handshake, so the layer waits for it before it starts to process frames.
+   */
+  def apply(negotiated: Future[Option[Parameters]])
+      : BidiFlow[FrameEventOrError, FrameEventOrError, FrameStart, FrameEvent, NotUsed] =
+    BidiFlow.fromFlows(inflating(negotiated), deflating(negotiated))
+      .named("ws-permessage-deflate")
+
+  def inflating(negotiated: Future[Option[Parameters]]): Flow[FrameEventOrError, FrameEventOrError, NotUsed] =
+    Flow[FrameEventOrError].via(new Inflating(negotiated))
+
+  def deflating(negotiated: Future[Option[Parameters]]): Flow[FrameStart, FrameEvent, NotUsed] =
+    Flow[FrameStart].via(new Deflating(negotiated))
+
+  /** Defers processing until the result of the negotiation is known */
+  private abstract class NegotiatedStage[T](negotiated: Future[Option[Parameters]])
+      extends SimpleLinearGraphStage[T] {
+    abstract class Logic extends GraphStageLogic(shape) with InHandler with OutHandler {
+      private var ready = false
+
+      /** Called once the negotiation finished */
+      protected def onNegotiated(parameters: Option[Parameters]): Unit
+
+      override def preStart(): Unit = negotiated.value match {
+        case Some(result) => negotiationDone(result)
+        case None =>
+          negotiated.onComplete(getAsyncCallback(negotiationDone).invoke)(ExecutionContexts.parasitic)
+      }
+
+      private def negotiationDone(result: Try[Option[Parameters]]): Unit = result match {
+        case Success(parameters) =>
+          onNegotiated(parameters)
+          ready = true
+          if (isAvailable(out) && !hasBeenPulled(in)) pull(in)
+        case Failure(ex) => failStage(ex)
+      }
+
+      override def onPull(): Unit = if (ready) pull(in)
+
+      setHandlers(in, out, this)
+    }
+  }
+
+  private final class Inflating(negotiated: Future[Option[Parameters]])
+      extends NegotiatedStage[FrameEventOrError](negotiated) {
+    override def createLogic(inheritedAttributes: Attributes): GraphStageLogic = new Logic {
+      private var inflater: Inflater = _
+      private val buffer = new Array[Byte](BufferSize)
+
+      private var inCompressedMessage = false
+      private var messageOpcode: Opcode = _
+      private var firstPiece = false
+      private var inCompressedFrame = false
+      private var frameFin = false
+      // whether the inflater currently holds input of a frame piece
+      private var inflating = false
+      private var pieceEndsMessage = false
+      private var failed = false
+
+      protected def onNegotiated(parameters: Option[Parameters]): Unit =
+        if (parameters.isDefined) inflater = new Inflater(true)
+
+      override def onPush(): Unit = {
+        val event = grab(in)
+        if (inflater eq null) push(out, event)
+        else if (failed) pull(in)
+        else event match {
+          case start @ FrameStart(header, data) if !header.opcode.isControl =>
+            header.opcode match {
+              case Opcode.Text | Opcode.Binary if header.rsv1 && !inCompressedMessage && isPlain(header) =>
+                inCompressedMessage = true
+                messageOpcode = header.opcode
+                firstPiece = true
+                startFrame(header.fin, data, start.lastPart)
+              case Opcode.Continuation if inCompressedMessage && !header.rsv1 && isPlain(header) =>
+                startFrame(header.fin, data, start.lastPart)
+              case _ =>
+                // uncompressed messages and protocol violations are left to the FrameHandler
+                inCompressedFrame = false
+                push(out, event)
+            }
+          case FrameData(data, lastPart) if inCompressedFrame =>
+            startPiece(data, lastPart)
+          case other => push(out, other)
+        }
+      }
+
+      /** Frames the FrameHandler would reject anyway are passed on unchanged */
+      private def isPlain(header: FrameHeader): Boolean = header.mask.isEmpty && !header.rsv2 && !header.rsv3
+
+      override def onPull(): Unit =
+        if (inflating) inflateNext()
+        else super.onPull()
+
+      override def onUpstreamFinish(): Unit = if (!inflating) completeStage()
+
+      private def startFrame(fin: Boolean, data: ByteString, lastPart: Boolean): Unit = {
+        inCompressedFrame = true
+        frameFin = fin
+        startPiece(data, lastPart)
+      }
+
+      private def startPiece(data: ByteString, lastPart: Boolean): Unit = {
+        if (lastPart) inCompressedFrame = false
+        pieceEndsMessage = lastPart && frameFin
+        val input = if (pieceEndsMessage) data ++ Tail else data
+        inflater.setInput(input.toArray)
+        inflating = true
+        inflateNext()
+      }
+
+      /** Emits at most one buffer of decompressed data, so that even highly compressed input is streamed */
+      private def inflateNext(): Unit =
+        try {
+          val read = inflater.inflate(buffer)
+          val pieceDone = read < buffer.length
+          val fin = pieceDone && pieceEndsMessage
+          if (pieceDone) {
+            inflating = false
+            if (fin) {
+              inCompressedMessage = false
+              // a peer that finished its deflate stream starts the next message with a new one
+              if (inflater.finished()) inflater.reset()
+            }
+          }
+
+          if (read == 0 && !fin && !firstPiece) {
+            if (isClosed(in)) completeStage() else pull(in)
+          } else {
+            val opcode = if (firstPiece) messageOpcode else Opcode.Continuation
+            firstPiece = false
+            push(out, FrameEvent.fullFrame(opcode, None, ByteString.fromArray(buffer, 0, read), fin))
+            if (!inflating && isClosed(in)) completeStage()
+          }
+        } catch {
+          case e: DataFormatException =>
+            failed = true
+            inflating = false
+            push(out, FrameError(new ProtocolException(s"Invalid compressed message: ${e.getMessage}")))
+        }
+
+      override def postStop(): Unit = if (inflater ne null) inflater.end()
+    }
+  }
+
+  private final class Deflating(negotiated: Future[Option[Parameters]])
+      extends NegotiatedStage[FrameEvent](negotiated) {
+    override def createLogic(inheritedAttributes: Attributes): GraphStageLogic = new Logic {
+      private var deflater: Deflater = _
+      private var noContextTakeover = false
+      private val buffer = new Array[Byte](BufferSize)
+      private var inMessage = false
+
+      protected def onNegotiated(parameters: Option[Parameters]): Unit = parameters match {
+        case Some(Parameters(level, resetContext)) =>
+          deflater = new Deflater(level, true)
+          noContextTakeover = resetContext
+        case None =>
+      }
+
+      override def onPush(): Unit = grab(in) match {
+        case frame if deflater eq null => push(out, frame)
+        case start @ FrameStart(header, data) if !header.opcode.isControl =>
+          if (!start.lastPart) throw new IllegalStateException("Expected only full frames to compress")
+          val first = !inMessage
+          inMessage = !header.fin
+          push(out, FrameEvent.fullFrame(header.opcode, header.mask, compress(data, header.fin), header.fin,
+            rsv1 = first))
+        case other => push(out, other)
+      }
+
+      private def compress(data: ByteString, endOfMessage: Boolean): ByteString = {
+        val output = new ByteStringBuilder
+        if (data.nonEmpty) deflater.setInput(data.toArray)
+        @tailrec def drain(): Unit = {
+          val written = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH)
+          if (written > 0) output.putBytes(buffer, 0, written)
+          if (written == buffer.length) drain()
+        }
+        drain()
+
+        val compressed = output.result()
+        if (endOfMessage) {
+          if (noContextTakeover) deflater.reset()
+          // a repeated flush without new input doesn't produce any output, not even the tail
+          if (compressed.endsWith(Tail)) compressed.dropRight(Tail.length) else compressed
+        } else compressed
+      }
+
+      override def postStop(): Unit = if (deflater ne null) deflater.end()
+    }
+  }
+}
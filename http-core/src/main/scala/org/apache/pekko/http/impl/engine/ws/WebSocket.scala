@@ -25,6 +25,7 @@ import pekko.http.impl.settings.WebSocketSettingsImpl
 import pekko.http.impl.util.StreamUtils
 import pekko.util.ByteString
 
+import scala.concurrent.Future
 import scala.concurrent.duration._
 import pekko.stream._
 import pekko.stream.scaladsl._
@@ -48,9 +49,12 @@ private[http] object WebSocket {
       serverSide: Boolean,
       websocketSettings: WebSocketSettings,
       closeTimeout: FiniteDuration = 3.seconds, // TODO put close timeout into the settings?
-      log: LoggingAdapter): BidiFlow[FrameEvent, Message, Message, FrameEvent, NotUsed] =
+      log: LoggingAdapter,
+      perMessageDeflate: Future[Option[PerMessageDeflate.Parameters]] = PerMessageDeflate.NotNegotiated)
+      : BidiFlow[FrameEvent, Message, Message, FrameEvent, NotUsed] =
     masking(serverSide, websocketSettings.randomFactory).atop(
       FrameLogger.logFramesIfEnabled(websocketSettings.logFrames)).atop(
+      compression(perMessageDeflate)).atop(
       frameHandling(serverSide, closeTimeout, log)).atop(
       periodicKeepAlive(websocketSettings)).atop(
       messageAPI(serverSide, closeTimeout))
@@ -68,6 +72,13 @@ private[http] object WebSocket {
     Masking(serverSide, maskingRandomFactory)
       .named("ws-masking")
 
+  /** The layer that implements the permessage-deflate extension, if it was (or may still be) negotiated */
+  def compression(perMessageDeflate: Future[Option[PerMessageDeflate.Parameters]])
+      : BidiFlow[FrameEventOrError, FrameEventOrError, FrameStart, FrameEvent, NotUsed] =
+    if (perMessageDeflate eq PerMessageDeflate.NotNegotiated)
+      BidiFlow.fromFlows(Flow[FrameEventOrError], Flow[FrameStart])
+    else PerMessageDeflate(perMessageDeflate)
+
   /** The layer that transparently injects (if enabled) keepAlive Ping or Pong messages when connection is idle */
   def periodicKeepAlive(settings: WebSocketSettings)
       : BidiFlow[FrameHandler.Output, FrameHandler.Output, FrameOutHandler.Input, FrameOutHandler.Input, NotUsed] = {
@@ -50,13 +50,20 @@ private[http] object WebSocketClientBlueprint {
   def apply(
       request: WebSocketRequest,
       settings: ClientConnectionSettings,
-      log: LoggingAdapter): Http.WebSocketClientLayer =
+      log: LoggingAdapter): Http.WebSocketClientLayer = {
+    // only known once the handshake response was validated
+    val perMessageDeflate =
+      if (settings.websocketSettings.perMessageDeflateEnabled) Some(Promise[Option[PerMessageDeflate.Parameters]]())
+      else None
+
     LogByteStringTools.logTLSBidiBySetting("client-plain-text", settings.logUnencryptedNetworkBytes).reversed
       .atop(simpleTls)
-      .atopMat(handshake(request, settings, log))(Keep.right)
+      .atopMat(handshake(request, settings, log, perMessageDeflate))(Keep.right)
       .atop(WebSocket.framing)
-      .atop(WebSocket.stack(serverSide = false, settings.websocketSettings, log = log))
+      .atop(WebSocket.stack(serverSide = false, settings.websocketSettings, log = log,
+        perMessageDeflate = perMessageDeflate.fold(PerMessageDeflate.NotNegotiated)(_.future)))
       .reversed
+  }
 
   /**
    * A bidi flow that injects and inspects the WS handshake and then goes out of the way. This BidiFlow
@@ -65,7 +72,8 @@ private[http] object WebSocketClientBlueprint {
   def handshake(
       request: WebSocketRequest,
       settings: ClientConnectionSettings,
-      log: LoggingAdapter)
+      log: LoggingAdapter,
+      perMessageDeflate: Option[Promise[Option[PerMessageDeflate.Parameters]]] = None)
       : BidiFlow[ByteString, ByteString, ByteString, ByteString, Future[WebSocketUpgradeResponse]] = {
     import request._
     val result = Promise[WebSocketUpgradeResponse]()
@@ -73,8 +81,10 @@ private[http] object WebSocketClientBlueprint {
     val valve = StreamUtils.OneTimeValve()
 
     val subprotocols: immutable.Seq[String] = subprotocol.toList.flatMap(_.split(",")).map(_.trim)
+    val offeredExtension = perMessageDeflate.flatMap(_ => PerMessageDeflate.clientOffer(settings.websocketSettings))
     val (initialRequest, key) =
-      Handshake.Client.buildRequest(uri, extraHeaders, subprotocols, settings.websocketRandomFactory())
+      Handshake.Client.buildRequest(uri, extraHeaders, subprotocols, settings.websocketRandomFactory(),
+        offeredExtension)
     val hostHeader = Host(uri.authority.normalizedFor(uri.scheme))
     val renderedInitialRequest =
       HttpRequestRendererFactory.renderStrict(RequestRenderingContext(initialRequest, hostHeader), settings, log)
@@ -116,8 +126,10 @@ private[http] object WebSocketClientBlueprint {
               case NeedMoreData => pull(in)
               case ResponseStart(status, protocol, attributes, headers, entity, close) =>
                 val response = new HttpResponse(status, headers, attributes, HttpEntity.Empty, protocol)
-                Handshake.Client.validateResponse(response, subprotocols, key) match {
-                  case Right(NegotiatedWebSocketSettings(protocol)) =>
+                Handshake.Client.validateResponse(response, subprotocols, key, settings.websocketSettings,
+                  offeredExtension) match {
+                  case Right(NegotiatedWebSocketSettings(protocol, negotiatedDeflate)) =>
+                    perMessageDeflate.foreach(_.trySuccess(negotiatedDeflate))
                     result.success(ValidUpgrade(response, protocol))
 
                     setHandler(in,
@@ -136,6 +148,7 @@ private[http] object WebSocketClientBlueprint {
                         throw new IllegalStateException(s"unexpected element of type ${other.getClass}")
                     }
                   case Left(problem) =>
+                    perMessageDeflate.foreach(_.trySuccess(None))
                     result.success(InvalidUpgradeResponse(response, s"WebSocket server at $uri returned $problem"))
                     failStage(new IllegalArgumentException(s"WebSocket upgrade did not finish because of '$problem'"))
                 }
@@ -152,6 +165,7 @@ private[http] object WebSocketClientBlueprint {
 
           override def onUpstreamFailure(ex: Throwable): Unit = {
             result.tryFailure(new RuntimeException("Connection failed.", ex))
+            perMessageDeflate.foreach(_.trySuccess(None))
             super.onUpstreamFailure(ex)
           }
         }
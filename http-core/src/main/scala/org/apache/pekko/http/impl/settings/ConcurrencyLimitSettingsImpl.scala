@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.settings
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.http.impl.util._
+import com.typesafe.config.Config
+
+import scala.concurrent.duration.{ Duration, FiniteDuration }
+
+/** INTERNAL API */
+@InternalApi
+private[http] final case class ConcurrencyLimitSettingsImpl(
+    enabled: Boolean,
+    initialLimit: Int,
+    minLimit: Int,
+    maxLimit: Int,
+    latencyThreshold: FiniteDuration,
+    backoffRatio: Double) extends pekko.http.scaladsl.settings.ConcurrencyLimitSettings {
+
+  require(minLimit > 0, "min-limit must be > 0")
+  require(minLimit <= initialLimit, "initial-limit must be >= min-limit")
+  require(initialLimit <= maxLimit, "initial-limit must be <= max-limit")
+  require(latencyThreshold > Duration.Zero, "latency-threshold must be > 0")
+  require(backoffRatio > 0 && backoffRatio < 1, "backoff-ratio must be > 0 and < 1")
+
+  override def productPrefix: String = "ConcurrencyLimitSettings"
+}
+
+/** INTERNAL API */
+@InternalApi
+private[http] object ConcurrencyLimitSettingsImpl
+    extends SettingsCompanionImpl[ConcurrencyLimitSettingsImpl]("pekko.http.host-connection-pool.concurrency-limit") {
+  def fromSubConfig(root: Config, c: Config): ConcurrencyLimitSettingsImpl =
+    ConcurrencyLimitSettingsImpl(
+      c.getBoolean("enabled"),
+      c.getInt("initial-limit"),
+      c.getInt("min-limit"),
+      c.getInt("max-limit"),
+      c.getFiniteDuration("latency-threshold"),
+      c.getDouble("backoff-ratio"))
+}
@@ -32,6 +32,7 @@ private[pekko] final case class ConnectionPoolSettingsImpl(
     maxRetries: Int,
     maxOpenRequests: Int,
     pipeliningLimit: Int,
+    pipeliningLatencyThreshold: FiniteDuration,
     maxConnectionLifetime: Duration,
     baseConnectionBackoff: FiniteDuration,
     maxConnectionBackoff: FiniteDuration,
@@ -39,6 +40,11 @@ private[pekko] final case class ConnectionPoolSettingsImpl(
     keepAliveTimeout: Duration,
     connectionSettings: ClientConnectionSettings,
     responseEntitySubscriptionTimeout: Duration,
+    http2Enabled: Boolean,
+    slotSelection: ConnectionPoolSettings.SlotSelection,
+    concurrencyLimitSettings: ConcurrencyLimitSettings,
+    retryBudgetSettings: RetryBudgetSettings,
+    hedgingSettings: HedgingSettings,
     hostOverrides: immutable.Seq[(Regex, ConnectionPoolSettings)])
     extends ConnectionPoolSettings {
 
@@ -48,6 +54,7 @@ private[pekko] final case class ConnectionPoolSettingsImpl(
   require(maxRetries >= 0, "max-retries must be >= 0")
   require(maxOpenRequests > 0, "max-open-requests must be > 0")
   require(pipeliningLimit > 0, "pipelining-limit must be > 0")
+  require(pipeliningLatencyThreshold > Duration.Zero, "pipelining-latency-threshold must be > 0")
   require(maxConnectionLifetime > Duration.Zero, "max-connection-lifetime must be > 0")
   require(idleTimeout >= Duration.Zero, "idle-timeout must be >= 0")
   require(
@@ -72,19 +79,26 @@ private[pekko] final case class ConnectionPoolSettingsImpl(
       maxRetries: Int = maxRetries,
       maxOpenRequests: Int = maxOpenRequests,
       pipeliningLimit: Int = pipeliningLimit,
+      pipeliningLatencyThreshold: FiniteDuration = pipeliningLatencyThreshold,
       maxConnectionLifetime: Duration = maxConnectionLifetime,
       baseConnectionBackoff: FiniteDuration = baseConnectionBackoff,
       maxConnectionBackoff: FiniteDuration = maxConnectionBackoff,
       idleTimeout: Duration = idleTimeout,
       keepAliveTimeout: Duration = keepAliveTimeout,
       connectionSettings: ClientConnectionSettings = connectionSettings,
-      responseEntitySubscriptionTimeout: Duration = responseEntitySubscriptionTimeout): ConnectionPoolSettings =
+      responseEntitySubscriptionTimeout: Duration = responseEntitySubscriptionTimeout,
+      http2Enabled: Boolean = http2Enabled,
+      slotSelection: ConnectionPoolSettings.SlotSelection = slotSelection,
+      concurrencyLimitSettings: ConcurrencyLimitSettings = concurrencyLimitSettings,
+      retryBudgetSettings: RetryBudgetSettings = retryBudgetSettings,
+      hedgingSettings: HedgingSettings = hedgingSettings): ConnectionPoolSettings =
     copy(
       maxConnections,
       minConnections,
       maxRetries,
       maxOpenRequests,
       pipeliningLimit,
+      pipeliningLatencyThreshold,
       maxConnectionLifetime,
       baseConnectionBackoff,
       maxConnectionBackoff,
@@ -92,6 +106,11 @@ private[pekko] final case class ConnectionPoolSettingsImpl(
       keepAliveTimeout,
       connectionSettings,
       responseEntitySubscriptionTimeout,
+      http2Enabled,
+      slotSelection,
+      concurrencyLimitSettings,
+      retryBudgetSettings,
+      hedgingSettings,
       hostOverrides = hostOverrides.map { case (k, v) => k -> mapHostOverrides(v) })
 
 }
@@ -108,6 +127,7 @@ private[pekko] object ConnectionPoolSettingsImpl
       c.getInt("max-retries"),
       c.getInt("max-open-requests"),
       c.getInt("pipelining-limit"),
+      c.getFiniteDuration("pipelining-latency-threshold"),
       c.getPotentiallyInfiniteDuration("max-connection-lifetime"),
       c.getFiniteDuration("base-connection-backoff"),
       c.getFiniteDuration("max-connection-backoff"),
@@ -115,6 +135,11 @@ private[pekko] object ConnectionPoolSettingsImpl
       c.getPotentiallyInfiniteDuration("keep-alive-timeout"),
       ClientConnectionSettingsImpl.fromSubConfig(root, c.getConfig("client")),
       c.getPotentiallyInfiniteDuration("response-entity-subscription-timeout"),
+      c.getBoolean("http2"),
+      ConnectionPoolSettings.SlotSelection(c.getString("slot-selection")),
+      ConcurrencyLimitSettingsImpl.fromSubConfig(root, c.getConfig("concurrency-limit")),
+      RetryBudgetSettingsImpl.fromSubConfig(root, c.getConfig("retry-budget")),
+      HedgingSettingsImpl.fromSubConfig(root, c.getConfig("hedging")),
       List.empty)
   }
 
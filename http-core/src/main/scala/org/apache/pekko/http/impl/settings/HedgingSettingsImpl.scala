@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.settings
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.http.impl.util._
+import com.typesafe.config.Config
+
+import scala.concurrent.duration.{ Duration, FiniteDuration }
+
+/** INTERNAL API */
+@InternalApi
+private[http] final case class HedgingSettingsImpl(
+    enabled: Boolean,
+    percentile: Double,
+    minDelay: FiniteDuration) extends pekko.http.scaladsl.settings.HedgingSettings {
+
+  require(percentile > 0 && percentile < 100, "percentile must be > 0 and < 100")
+  require(minDelay >= Duration.Zero, "min-delay must be >= 0")
+
+  override def productPrefix: String = "HedgingSettings"
+}
+
+/** INTERNAL API */
+@InternalApi
+private[http] object HedgingSettingsImpl
+    extends SettingsCompanionImpl[HedgingSettingsImpl]("pekko.http.host-connection-pool.hedging") {
+  def fromSubConfig(root: Config, c: Config): HedgingSettingsImpl =
+    HedgingSettingsImpl(
+      c.getBoolean("enabled"),
+      c.getDouble("percentile"),
+      c.getFiniteDuration("min-delay"))
+}
@@ -53,6 +53,7 @@ private[pekko] final case class ParserSettingsImpl(
     illegalResponseHeaderValueProcessingMode: IllegalResponseHeaderValueProcessingMode,
     conflictingContentTypeHeaderProcessingMode: ConflictingContentTypeHeaderProcessingMode,
     headerValueCacheLimits: Map[String, Int],
+    headerCacheAdmissionThreshold: Int,
     includeTlsSessionInfoHeader: Boolean,
     includeSslSessionAttribute: Boolean,
     modeledHeaderParsing: Boolean,
@@ -71,6 +72,7 @@ private[pekko] final case class ParserSettingsImpl(
   require(maxChunkExtLength > 0, "max-chunk-ext-length must be > 0")
   require(maxChunkSize > 0, "max-chunk-size must be > 0")
   require(maxCommentParsingDepth > 0, "max-comment-parsing-depth must be > 0")
+  require(headerCacheAdmissionThreshold > 0, "header-cache-admission-threshold must be > 0")
 
   override val defaultHeaderValueCacheLimit: Int = headerValueCacheLimits("default")
 
@@ -121,6 +123,7 @@ object ParserSettingsImpl extends SettingsCompanionImpl[ParserSettingsImpl]("pek
       IllegalResponseHeaderValueProcessingMode(c.getString("illegal-response-header-value-processing-mode")),
       ConflictingContentTypeHeaderProcessingMode(c.getString("conflicting-content-type-header-processing-mode")),
       cacheConfig.entrySet.asScala.iterator.map(kvp => kvp.getKey -> cacheConfig.getInt(kvp.getKey)).toMap,
+      c.getInt("header-cache-admission-threshold"),
       c.getBoolean("tls-session-info-header"),
       c.getBoolean("ssl-session-attribute"),
       c.getBoolean("modeled-header-parsing"),
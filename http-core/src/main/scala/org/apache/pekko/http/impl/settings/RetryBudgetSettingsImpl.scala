@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.settings
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.http.impl.util._
+import com.typesafe.config.Config
+
+/** INTERNAL API */
+@InternalApi
+private[http] final case class RetryBudgetSettingsImpl(
+    enabled: Boolean,
+    ratio: Double,
+    minRetriesPerSecond: Int) extends pekko.http.scaladsl.settings.RetryBudgetSettings {
+
+  require(ratio >= 0, "ratio must be >= 0")
+  require(minRetriesPerSecond >= 0, "min-retries-per-second must be >= 0")
+
+  override def productPrefix: String = "RetryBudgetSettings"
+}
+
+/** INTERNAL API */
+@InternalApi
+private[http] object RetryBudgetSettingsImpl
+    extends SettingsCompanionImpl[RetryBudgetSettingsImpl]("pekko.http.host-connection-pool.retry-budget") {
+  def fromSubConfig(root: Config, c: Config): RetryBudgetSettingsImpl =
+    RetryBudgetSettingsImpl(
+      c.getBoolean("enabled"),
+      c.getDouble("ratio"),
+      c.getInt("min-retries-per-second"))
+}
@@ -31,12 +31,18 @@ private[pekko] final case class WebSocketSettingsImpl(
     periodicKeepAliveMode: String,
     periodicKeepAliveMaxIdle: Duration,
     periodicKeepAliveData: () => ByteString,
-    logFrames: Boolean)
+    logFrames: Boolean,
+    perMessageDeflateEnabled: Boolean,
+    perMessageDeflateCompressionLevel: Int,
+    perMessageDeflateNoContextTakeover: Boolean)
     extends pekko.http.scaladsl.settings.WebSocketSettings {
 
   require(
     WebSocketSettingsImpl.KeepAliveModes contains periodicKeepAliveMode,
     s"Unsupported keep-alive mode detected! Was [$periodicKeepAliveMode], yet only: ${WebSocketSettingsImpl.KeepAliveModes} are supported.")
+  require(
+    perMessageDeflateCompressionLevel >= 0 && perMessageDeflateCompressionLevel <= 9,
+    "permessage-deflate.compression-level must be between 0 and 9")
 
   override def productPrefix = "WebSocketSettings"
 
@@ -70,7 +76,10 @@ private[pekko] object WebSocketSettingsImpl { // on purpose not extending Settin
       c.getString("periodic-keep-alive-mode"), // mode could be extended to be a factory of pings, if we'd need control over the data field
       c.getPotentiallyInfiniteDuration("periodic-keep-alive-max-idle"),
       NoPeriodicKeepAliveData,
-      c.getBoolean("log-frames"))
+      c.getBoolean("log-frames"),
+      c.getBoolean("permessage-deflate.enabled"),
+      c.getInt("permessage-deflate.compression-level"),
+      c.getBoolean("permessage-deflate.no-context-takeover"))
   }
 
 }
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.util
+
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.{ Path, StandardOpenOption }
+
+import org.apache.pekko
+import pekko.NotUsed
+import pekko.annotation.InternalApi
+import pekko.stream.{ ActorAttributes, Attributes, Outlet, SourceShape }
+import pekko.stream.scaladsl.Source
+import pekko.stream.stage.{ GraphStage, GraphStageLogic, OutHandler }
+import pekko.util.ByteString
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[http] object FileRegionSource {
+
+  /** The chunk size for file entities if none is given, the same as the one of `FileIO` */
+  val DefaultChunkSize: Int = 8192
+
+  /** Marks a source created by `apply`, so that parts of it can be read directly from the file */
+  final case class Region(path: Path, position: Long, length: Long, chunkSize: Int) extends Attributes.Attribute
+
+  /**
+   * Reads `length` bytes of the given file starting at `position`, or fewer if the file ends before. Unlike
+   * `FileIO.fromPath` every chunk is read directly into the array that backs the emitted ByteString, instead of being
+   * copied out of a reused buffer, and only the given region of the file is read.
+   */
+  def apply(path: Path, position: Long, length: Long, chunkSize: Int = DefaultChunkSize): Source[ByteString, NotUsed] =
+    Source.fromGraph(new FileRegionSource(path, position, length, chunkSize))
+      .addAttributes(Attributes(Region(path, position, length, chunkSize)))
+
+  /** Returns whether `source` was created by `apply`, so that `slice` can read parts of it directly from the file */
+  def isFileRegion(source: Source[ByteString, Any]): Boolean = source.getAttributes.get[Region].isDefined
+
+  /**
+   * If `source` was created by `apply`, returns a source of `length` bytes of its data starting at `offset`, which only
+   * reads that part of the file.
+   */
+  def slice(source: Source[ByteString, Any], offset: Long, length: Long): Option[Source[ByteString, NotUsed]] =
+    source.getAttributes.get[Region].map { region =>
+      apply(region.path, region.position + offset, math.max(0L, math.min(length, region.length - offset)),
+        region.chunkSize)
+    }
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[http] final class FileRegionSource(path: Path, position: Long, length: Long, chunkSize: Int)
+    extends GraphStage[SourceShape[ByteString]] {
+  require(position >= 0, "position must be >= 0")
+  require(length >= 0, "length must be >= 0")
+  require(chunkSize > 0, "chunkSize must be > 0")
+
+  val out = Outlet[ByteString]("FileRegionSource.out")
+  override val shape: SourceShape[ByteString] = SourceShape(out)
+
+  override protected def initialAttributes: Attributes =
+    Attributes.name("fileRegionSource").and(ActorAttributes.IODispatcher)
+
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+    new GraphStageLogic(shape) with OutHandler {
+      private[this] val end = position + length
+      private[this] var offset = position
+      private[this] var channel: FileChannel = _
+
+      setHandler(out, this)
+
+      override def preStart(): Unit =
+        if (length == 0) completeStage()
+        else channel = FileChannel.open(path, StandardOpenOption.READ)
+
+      override def onPull(): Unit = {
+        val bytes = new Array[Byte](math.min(chunkSize.toLong, end - offset).toInt)
+        val buffer = ByteBuffer.wrap(bytes)
+        var eof = false
+        while (buffer.hasRemaining && !eof)
+          eof = channel.read(buffer, offset + buffer.position()) < 0
+        offset += buffer.position()
+
+        if (buffer.position() > 0)
+          push(out, ByteString.fromArrayUnsafe(bytes, 0, buffer.position()))
+        // a file that is shorter than expected is reported by the content length check of the entity
+        if (eof || offset == end) completeStage()
+      }
+
+      override def postStop(): Unit =
+        if (channel ne null) channel.close()
+    }
+
+  override def toString: String = s"FileRegionSource($path, $position, $length)"
+}
@@ -225,6 +225,15 @@ private[http] object JavaMapping {
       extends Inherited[js.ClientConnectionSettings, pekko.http.scaladsl.settings.ClientConnectionSettings]
   implicit object ConnectionPoolSettings
       extends Inherited[js.ConnectionPoolSettings, pekko.http.scaladsl.settings.ConnectionPoolSettings]
+  implicit object SlotSelection
+      extends Inherited[js.ConnectionPoolSettings.SlotSelection,
+        pekko.http.scaladsl.settings.ConnectionPoolSettings.SlotSelection]
+  implicit object ConcurrencyLimitSettings
+      extends Inherited[js.ConcurrencyLimitSettings, pekko.http.scaladsl.settings.ConcurrencyLimitSettings]
+  implicit object RetryBudgetSettings
+      extends Inherited[js.RetryBudgetSettings, pekko.http.scaladsl.settings.RetryBudgetSettings]
+  implicit object HedgingSettings
+      extends Inherited[js.HedgingSettings, pekko.http.scaladsl.settings.HedgingSettings]
   implicit object ParserSettings extends Inherited[js.ParserSettings, pekko.http.scaladsl.settings.ParserSettings]
   implicit object CookieParsingMode
       extends Inherited[js.ParserSettings.CookieParsingMode,
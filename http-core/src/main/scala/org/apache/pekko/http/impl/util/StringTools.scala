@@ -29,6 +29,10 @@ private[http] object StringTools {
     // into a String without extra copying.
     new String(bytes, 0)
 
+  @nowarn("msg=deprecated")
+  def asciiStringFromBytes(bytes: Array[Byte], offset: Int, length: Int): String =
+    new String(bytes, 0, offset, length)
+
   def asciiStringBytes(string: String): Array[Byte] = {
     val bytes = new Array[Byte](string.length)
     Unsafe.copyUSAsciiStrToBytes(string, bytes)
@@ -101,6 +101,20 @@ object ClientTransport {
     scaladsl.ClientTransport.withCustomResolver((host, port) => lookup.apply(host, port).toScala).asJava
   }
 
+  /**
+   * Returns a [[ClientTransport]] that resolves host names through a DNS cache shared by all connections of
+   * the actor system.
+   *
+   * Answers are cached according to their TTL. New connections to a host are spread over all of its addresses and
+   * addresses that connection attempts failed to are skipped for a while. When used for host connection pools, the
+   * answers for their hosts are refreshed in the background before they expire, and connections to addresses that have
+   * disappeared from the DNS answer are not used for further requests and are closed once idle.
+   *
+   * Configured in `pekko.http.client.caching-resolver`.
+   */
+  def withCachingResolver(): ClientTransport =
+    scaladsl.ClientTransport.withCachingResolver().asJava
+
   def fromScala(scalaTransport: scaladsl.ClientTransport): ClientTransport =
     scalaTransport match {
       case j: JavaWrapper => j.delegate
@@ -25,6 +25,7 @@ import com.typesafe.sslconfig.pekko.PekkoSSLConfig
 import org.apache.pekko
 import pekko.{ stream, NotUsed }
 import pekko.actor.{ ActorSystem, ClassicActorSystemProvider, ExtendedActorSystem, ExtensionId, ExtensionIdProvider }
+import pekko.annotation.ApiMayChange
 import pekko.event.LoggingAdapter
 import pekko.http._
 import pekko.http.impl.util.JavaMapping
@@ -671,6 +672,32 @@ class Http(system: ExtendedActorSystem) extends pekko.actor.Extension {
       log: LoggingAdapter): CompletionStage[HttpResponse] =
     delegate.singleRequest(request.asScala, connectionContext.asScala, settings.asScala, log).toJava
 
+  /**
+   * Starts the (cached) host connection pool for the given absolute URI without sending a request through it.
+   * The pool eagerly opens `min-connections` connections, so that the first requests don't have to wait for new
+   * connections.
+   *
+   * The [[defaultClientHttpsContext]] is used to configure TLS for the connections.
+   */
+  @ApiMayChange
+  def warmUpPool(uri: String): Unit =
+    delegate.warmUpPool(sm.Uri(uri))
+
+  /**
+   * Starts the (cached) host connection pool for the given absolute URI without sending a request through it.
+   * The pool eagerly opens `min-connections` connections, so that the first requests don't have to wait for new
+   * connections.
+   *
+   * The given [[HttpsConnectionContext]] will be used for encryption if the URI is an https endpoint.
+   */
+  @ApiMayChange
+  def warmUpPool(
+      uri: String,
+      connectionContext: HttpsConnectionContext,
+      settings: ConnectionPoolSettings,
+      log: LoggingAdapter): Unit =
+    delegate.warmUpPool(sm.Uri(uri), connectionContext.asScala, settings.asScala, log)
+
   /**
    * Constructs a WebSocket [[pekko.stream.javadsl.BidiFlow]].
    *
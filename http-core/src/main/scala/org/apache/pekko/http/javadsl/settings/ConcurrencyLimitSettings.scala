@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.javadsl.settings
+
+import java.time.{ Duration => JDuration }
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.annotation.{ ApiMayChange, DoNotInherit }
+import pekko.http.impl.settings.ConcurrencyLimitSettingsImpl
+import pekko.util.JavaDurationConverters._
+import com.typesafe.config.Config
+
+/**
+ * Public API but not intended for subclassing
+ *
+ * Settings of the adaptive limit for the number of requests a host connection pool handles concurrently.
+ * See the `pekko.http.host-connection-pool.concurrency-limit` section of `reference.conf` for details.
+ */
+@ApiMayChange @DoNotInherit
+abstract class ConcurrencyLimitSettings private[pekko] () { self: ConcurrencyLimitSettingsImpl =>
+  def getEnabled: Boolean = enabled
+  def getInitialLimit: Int = initialLimit
+  def getMinLimit: Int = minLimit
+  def getMaxLimit: Int = maxLimit
+  def getLatencyThreshold: JDuration = latencyThreshold.asJava
+  def getBackoffRatio: Double = backoffRatio
+
+  // ---
+
+  def withEnabled(newValue: Boolean): ConcurrencyLimitSettings = self.copy(enabled = newValue)
+  def withInitialLimit(newValue: Int): ConcurrencyLimitSettings = self.copy(initialLimit = newValue)
+  def withMinLimit(newValue: Int): ConcurrencyLimitSettings = self.copy(minLimit = newValue)
+  def withMaxLimit(newValue: Int): ConcurrencyLimitSettings = self.copy(maxLimit = newValue)
+  def withLatencyThreshold(newValue: JDuration): ConcurrencyLimitSettings =
+    self.copy(latencyThreshold = newValue.asScala)
+  def withBackoffRatio(newValue: Double): ConcurrencyLimitSettings = self.copy(backoffRatio = newValue)
+}
+
+object ConcurrencyLimitSettings extends SettingsCompanion[ConcurrencyLimitSettings] {
+  override def create(config: Config): ConcurrencyLimitSettings = ConcurrencyLimitSettingsImpl(config)
+  override def create(configOverrides: String): ConcurrencyLimitSettings = ConcurrencyLimitSettingsImpl(configOverrides)
+  override def create(system: ActorSystem): ConcurrencyLimitSettings = create(system.settings.config)
+}
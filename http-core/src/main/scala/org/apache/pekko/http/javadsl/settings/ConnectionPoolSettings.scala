@@ -47,6 +47,24 @@ abstract class ConnectionPoolSettings private[pekko] () { self: ConnectionPoolSe
   @ApiMayChange
   def getResponseEntitySubscriptionTimeout: Duration = responseEntitySubscriptionTimeout
 
+  @ApiMayChange
+  def getHttp2Enabled: Boolean = http2Enabled
+
+  @ApiMayChange
+  def getSlotSelection: ConnectionPoolSettings.SlotSelection = slotSelection
+
+  @ApiMayChange
+  def getConcurrencyLimitSettings: ConcurrencyLimitSettings = concurrencyLimitSettings
+
+  @ApiMayChange
+  def getRetryBudgetSettings: RetryBudgetSettings = retryBudgetSettings
+
+  @ApiMayChange
+  def getHedgingSettings: HedgingSettings = hedgingSettings
+
+  @ApiMayChange
+  def getPipeliningLatencyThreshold: JDuration = pipeliningLatencyThreshold.asJava
+
   // ---
 
   @ApiMayChange
@@ -65,8 +83,6 @@ abstract class ConnectionPoolSettings private[pekko] () { self: ConnectionPoolSe
   def withMinConnections(n: Int): ConnectionPoolSettings
   def withMaxRetries(n: Int): ConnectionPoolSettings
   def withMaxOpenRequests(newValue: Int): ConnectionPoolSettings
-
-  /** Client-side pipelining is not currently supported, see https://github.com/apache/incubator-pekko-http/issues/32 */
   def withPipeliningLimit(newValue: Int): ConnectionPoolSettings
   def withBaseConnectionBackoff(newValue: FiniteDuration): ConnectionPoolSettings
   def withMaxConnectionBackoff(newValue: FiniteDuration): ConnectionPoolSettings
@@ -79,11 +95,37 @@ abstract class ConnectionPoolSettings private[pekko] () { self: ConnectionPoolSe
   @ApiMayChange
   def withResponseEntitySubscriptionTimeout(newValue: Duration): ConnectionPoolSettings
 
+  @ApiMayChange
+  def withHttp2Enabled(newValue: Boolean): ConnectionPoolSettings
+
+  @ApiMayChange
+  def withSlotSelection(newValue: ConnectionPoolSettings.SlotSelection): ConnectionPoolSettings =
+    self.copyDeep(_.withSlotSelection(newValue.asScala), slotSelection = newValue.asScala)
+
+  @ApiMayChange
+  def withConcurrencyLimitSettings(newValue: ConcurrencyLimitSettings): ConnectionPoolSettings =
+    self.copyDeep(_.withConcurrencyLimitSettings(newValue.asScala), concurrencyLimitSettings = newValue.asScala)
+
+  @ApiMayChange
+  def withRetryBudgetSettings(newValue: RetryBudgetSettings): ConnectionPoolSettings =
+    self.copyDeep(_.withRetryBudgetSettings(newValue.asScala), retryBudgetSettings = newValue.asScala)
+
+  @ApiMayChange
+  def withHedgingSettings(newValue: HedgingSettings): ConnectionPoolSettings =
+    self.copyDeep(_.withHedgingSettings(newValue.asScala), hedgingSettings = newValue.asScala)
+
+  @ApiMayChange
+  def withPipeliningLatencyThreshold(newValue: JDuration): ConnectionPoolSettings =
+    self.copyDeep(_.withPipeliningLatencyThreshold(newValue.asScala), pipeliningLatencyThreshold = newValue.asScala)
+
   def withTransport(newValue: ClientTransport): ConnectionPoolSettings =
     withUpdatedConnectionSettings(_.withTransport(newValue.asScala))
 }
 
 object ConnectionPoolSettings extends SettingsCompanion[ConnectionPoolSettings] {
+  @ApiMayChange
+  trait SlotSelection
+
   override def create(config: Config): ConnectionPoolSettings = ConnectionPoolSettingsImpl(config)
   override def create(configOverrides: String): ConnectionPoolSettings = ConnectionPoolSettingsImpl(configOverrides)
   override def create(system: ActorSystem): ConnectionPoolSettings = create(system.settings.config)
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.javadsl.settings
+
+import java.time.{ Duration => JDuration }
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.annotation.{ ApiMayChange, DoNotInherit }
+import pekko.http.impl.settings.HedgingSettingsImpl
+import pekko.util.JavaDurationConverters._
+import com.typesafe.config.Config
+
+/**
+ * Public API but not intended for subclassing
+ *
+ * Settings for hedging requests of a host connection pool.
+ * See the `pekko.http.host-connection-pool.hedging` section of `reference.conf` for details.
+ */
+@ApiMayChange @DoNotInherit
+abstract class HedgingSettings private[pekko] () { self: HedgingSettingsImpl =>
+  def getEnabled: Boolean = enabled
+  def getPercentile: Double = percentile
+  def getMinDelay: JDuration = minDelay.asJava
+
+  // ---
+
+  def withEnabled(newValue: Boolean): HedgingSettings = self.copy(enabled = newValue)
+  def withPercentile(newValue: Double): HedgingSettings = self.copy(percentile = newValue)
+  def withMinDelay(newValue: JDuration): HedgingSettings = self.copy(minDelay = newValue.asScala)
+}
+
+object HedgingSettings extends SettingsCompanion[HedgingSettings] {
+  override def create(config: Config): HedgingSettings = HedgingSettingsImpl(config)
+  override def create(configOverrides: String): HedgingSettings = HedgingSettingsImpl(configOverrides)
+  override def create(system: ActorSystem): HedgingSettings = create(system.settings.config)
+}
@@ -30,6 +30,9 @@ trait Http2ClientSettings { self: scaladsl.settings.Http2ClientSettings.Http2Cli
   def withIncomingStreamLevelBufferSize(newValue: Int): Http2ClientSettings =
     copy(incomingStreamLevelBufferSize = newValue)
 
+  def incomingWindowAutoTuning: Boolean
+  def withIncomingWindowAutoTuning(newValue: Boolean): Http2ClientSettings = copy(incomingWindowAutoTuning = newValue)
+
   def maxConcurrentStreams: Int
   def withMaxConcurrentStreams(newValue: Int): Http2ClientSettings = copy(maxConcurrentStreams = newValue)
 
@@ -37,6 +40,9 @@ trait Http2ClientSettings { self: scaladsl.settings.Http2ClientSettings.Http2Cli
   def withOutgoingControlFrameBufferSize(newValue: Int): Http2ClientSettings =
     copy(outgoingControlFrameBufferSize = newValue)
 
+  def outgoingFrameBatchSize: Int
+  def withOutgoingFrameBatchSize(newValue: Int): Http2ClientSettings = copy(outgoingFrameBatchSize = newValue)
+
   def logFrames: Boolean
   def withLogFrames(shouldLog: Boolean): Http2ClientSettings = copy(logFrames = shouldLog)
 
@@ -32,6 +32,9 @@ trait Http2ServerSettings { self: scaladsl.settings.Http2ServerSettings =>
   def getIncomingStreamLevelBufferSize: Int = incomingStreamLevelBufferSize
   def withIncomingStreamLevelBufferSize(newIncomingStreamLevelBufferSize: Int): Http2ServerSettings
 
+  def getIncomingWindowAutoTuning: Boolean = incomingWindowAutoTuning
+  def withIncomingWindowAutoTuning(newValue: Boolean): Http2ServerSettings
+
   def minCollectStrictEntitySize: Int
   def withMinCollectStrictEntitySize(newValue: Int): Http2ServerSettings
 
@@ -41,6 +44,9 @@ trait Http2ServerSettings { self: scaladsl.settings.Http2ServerSettings =>
   def getOutgoingControlFrameBufferSize: Int = outgoingControlFrameBufferSize
   def withOutgoingControlFrameBufferSize(newValue: Int): Http2ServerSettings
 
+  def getOutgoingFrameBatchSize: Int = outgoingFrameBatchSize
+  def withOutgoingFrameBatchSize(newValue: Int): Http2ServerSettings
+
   def logFrames: Boolean
   def withLogFrames(shouldLog: Boolean): Http2ServerSettings
 
@@ -55,6 +55,7 @@ abstract class ParserSettings private[pekko] () extends BodyPartParser.Settings
   def getIllegalResponseHeaderValueProcessingMode: ParserSettings.IllegalResponseHeaderValueProcessingMode
   def getConflictingContentTypeHeaderProcessingMode: ParserSettings.ConflictingContentTypeHeaderProcessingMode
   def getHeaderValueCacheLimits: ju.Map[String, Int]
+  def getHeaderCacheAdmissionThreshold: Int
   def getIncludeTlsSessionInfoHeader: Boolean
   def getIncludeSslSessionAttribute: Boolean
   def headerValueCacheLimits: Map[String, Int]
@@ -89,6 +90,8 @@ abstract class ParserSettings private[pekko] () extends BodyPartParser.Settings
   def withIncludeSslSessionAttribute(newValue: Boolean): ParserSettings =
     self.copy(includeSslSessionAttribute = newValue)
   def withModeledHeaderParsing(newValue: Boolean): ParserSettings = self.copy(modeledHeaderParsing = newValue)
+  def withHeaderCacheAdmissionThreshold(newValue: Int): ParserSettings =
+    self.copy(headerCacheAdmissionThreshold = newValue)
   def withIgnoreIllegalHeaderFor(newValue: List[String]): ParserSettings =
     self.copy(ignoreIllegalHeaderFor = newValue.map(_.toLowerCase).toSet)
 
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.javadsl.settings
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.annotation.{ ApiMayChange, DoNotInherit }
+import pekko.http.impl.settings.RetryBudgetSettingsImpl
+import com.typesafe.config.Config
+
+/**
+ * Public API but not intended for subclassing
+ *
+ * Settings of the budget that limits the retries of a host connection pool.
+ * See the `pekko.http.host-connection-pool.retry-budget` section of `reference.conf` for details.
+ */
+@ApiMayChange @DoNotInherit
+abstract class RetryBudgetSettings private[pekko] () { self: RetryBudgetSettingsImpl =>
+  def getEnabled: Boolean = enabled
+  def getRatio: Double = ratio
+  def getMinRetriesPerSecond: Int = minRetriesPerSecond
+
+  // ---
+
+  def withEnabled(newValue: Boolean): RetryBudgetSettings = self.copy(enabled = newValue)
+  def withRatio(newValue: Double): RetryBudgetSettings = self.copy(ratio = newValue)
+  def withMinRetriesPerSecond(newValue: Int): RetryBudgetSettings = self.copy(minRetriesPerSecond = newValue)
+}
+
+object RetryBudgetSettings extends SettingsCompanion[RetryBudgetSettings] {
+  override def create(config: Config): RetryBudgetSettings = RetryBudgetSettingsImpl(config)
+  override def create(configOverrides: String): RetryBudgetSettings = RetryBudgetSettingsImpl(configOverrides)
+  override def create(system: ActorSystem): RetryBudgetSettings = create(system.settings.config)
+}
@@ -52,6 +52,25 @@ trait WebSocketSettings { self: WebSocketSettingsImpl =>
 
   def logFrames: Boolean
   def withLogFrames(shouldLog: Boolean): WebSocketSettings
+
+  /**
+   * Whether the permessage-deflate extension (RFC 7692) is accepted (server) or offered (client)
+   * during the handshake, to compress the payload of data messages.
+   */
+  def perMessageDeflateEnabled: Boolean
+
+  /** The deflate compression level (0-9) for outgoing messages, when permessage-deflate was negotiated */
+  def perMessageDeflateCompressionLevel: Int
+
+  /** Whether the compression context is reset after each outgoing message, when permessage-deflate was negotiated */
+  def perMessageDeflateNoContextTakeover: Boolean
+
+  def withPerMessageDeflateEnabled(newValue: Boolean): WebSocketSettings =
+    copy(perMessageDeflateEnabled = newValue)
+  def withPerMessageDeflateCompressionLevel(newValue: Int): WebSocketSettings =
+    copy(perMessageDeflateCompressionLevel = newValue)
+  def withPerMessageDeflateNoContextTakeover(newValue: Boolean): WebSocketSettings =
+    copy(perMessageDeflateNoContextTakeover = newValue)
 }
 
 object WebSocketSettings {
@@ -18,7 +18,8 @@ import java.net.InetSocketAddress
 import org.apache.pekko
 import pekko.actor.ActorSystem
 import pekko.annotation.ApiMayChange
-import pekko.http.impl.engine.client.HttpsProxyGraphStage
+import pekko.dispatch.ExecutionContexts
+import pekko.http.impl.engine.client.{ CachingResolver, HttpsProxyGraphStage }
 import pekko.http.scaladsl.Http.OutgoingConnection
 import pekko.http.scaladsl.model.headers.HttpCredentials
 import pekko.http.scaladsl.settings.{ ClientConnectionSettings, HttpsProxySettings }
@@ -120,6 +121,48 @@ object ClientTransport {
   def withCustomResolver(lookup: (String, Int) => Future[InetSocketAddress]): ClientTransport =
     ClientTransportWithCustomResolver(lookup)
 
+  /**
+   * Returns a [[ClientTransport]] that resolves host names through a DNS cache shared by all connections of
+   * the actor system.
+   *
+   * Answers are cached according to their TTL. New connections to a host are spread over all of its addresses and
+   * addresses that connection attempts failed to are skipped for a while. When used for host connection pools, the
+   * answers for their hosts are refreshed in the background before they expire, and connections to addresses that have
+   * disappeared from the DNS answer are not used for further requests and are closed once idle.
+   *
+   * Configured in `pekko.http.client.caching-resolver`.
+   */
+  def withCachingResolver(): ClientTransport = CachingResolverTransport.Default
+
+  /**
+   * INTERNAL API
+   *
+   * @param resolverFor Returns the resolver to use for connections of the given actor system
+   */
+  private[http] final class CachingResolverTransport(val resolverFor: ActorSystem => CachingResolver)
+      extends ClientTransport {
+    def connectTo(host: String, port: Int, settings: ClientConnectionSettings)(
+        implicit system: ActorSystem): Flow[ByteString, ByteString, Future[OutgoingConnection]] = {
+      implicit val ec: ExecutionContext = system.dispatcher
+      val resolver = resolverFor(system)
+
+      initFutureFlow { () =>
+        resolver.resolve(host, port).map { address =>
+          connectToAddress(address, settings).mapMaterializedValue { connection =>
+            connection.failed.foreach(_ => resolver.eject(address.getAddress))(
+              ExecutionContexts.sameThreadExecutionContext)
+            connection
+          }
+        }
+      }.mapMaterializedValue(_.flatten)
+    }
+  }
+
+  /** INTERNAL API */
+  private[http] object CachingResolverTransport {
+    val Default = new CachingResolverTransport(CachingResolver(_))
+  }
+
   private case class HttpsProxyTransport(proxyAddress: InetSocketAddress, underlyingTransport: ClientTransport = TCP,
       proxyCredentials: Option[HttpCredentials] = None) extends ClientTransport {
     def this(proxyAddress: InetSocketAddress, underlyingTransport: ClientTransport) =
@@ -146,16 +189,16 @@ object ClientTransport {
         }
       }.mapMaterializedValue(_.flatten)
     }
+  }
 
-    // TODO: replace with lazyFutureFlow when support for Akka 2.5.x is dropped
-    private def initFutureFlow[M](flowFactory: () => Future[Flow[ByteString, ByteString, M]])(
-        implicit ec: ExecutionContext): Flow[ByteString, ByteString, Future[M]] = {
-      Flow[ByteString].prepend(Source.single(ByteString()))
-        .viaMat(
-          Flow.lazyInitAsync(flowFactory)
-            .mapMaterializedValue(_.map(_.get))
-            // buffer needed because HTTP client expects demand before it does request (which is reasonable for buffered TCP connections)
-            .buffer(1, OverflowStrategy.backpressure))(Keep.right)
-    }
+  // TODO: replace with lazyFutureFlow when support for Akka 2.5.x is dropped
+  private def initFutureFlow[M](flowFactory: () => Future[Flow[ByteString, ByteString, M]])(
+      implicit ec: ExecutionContext): Flow[ByteString, ByteString, Future[M]] = {
+    Flow[ByteString].prepend(Source.single(ByteString()))
+      .viaMat(
+        Flow.lazyInitAsync(flowFactory)
+          .mapMaterializedValue(_.map(_.get))
+          // buffer needed because HTTP client expects demand before it does request (which is reasonable for buffered TCP connections)
+          .buffer(1, OverflowStrategy.backpressure))(Keep.right)
   }
 }
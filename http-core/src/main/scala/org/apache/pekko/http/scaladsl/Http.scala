@@ -18,7 +18,7 @@ import java.util.concurrent.CompletionStage
 import javax.net.ssl._
 import org.apache.pekko
 import pekko.actor._
-import pekko.annotation.{ DoNotInherit, InternalApi, InternalStableApi }
+import pekko.annotation.{ ApiMayChange, DoNotInherit, InternalApi, InternalStableApi }
 import pekko.dispatch.ExecutionContexts
 import pekko.event.{ Logging, LoggingAdapter }
 import pekko.http.impl.engine.HttpConnectionIdleTimeoutBidi
@@ -688,6 +688,28 @@ class HttpExt @InternalStableApi /* constructor signature is hardcoded in Teleme
       case e: IllegalUriException => FastFuture.failed(e)
     }
 
+  /**
+   * Starts the (cached) host connection pool for the given absolute URI without sending a request through it.
+   * This is the pool that [[singleRequest]] and [[superPool]] use for requests to that URI when passed the same
+   * `connectionContext`, `settings` and `log`.
+   *
+   * The pool eagerly opens `min-connections` connections (including their TLS handshakes), so that the first
+   * requests after startup don't have to wait for new connections. Since TLS sessions are cached per target host and
+   * port by the `SSLContext` of the connection context, later connections to the same endpoint can resume these
+   * sessions with an abbreviated handshake.
+   *
+   * With `min-connections = 0`, the pool is started but only opens connections on demand and shuts down again after
+   * its `idle-timeout`.
+   */
+  @ApiMayChange
+  def warmUpPool(
+      uri: Uri,
+      connectionContext: HttpsConnectionContext = defaultClientHttpsContext,
+      settings: ConnectionPoolSettings = defaultConnectionPoolSettings,
+      log: LoggingAdapter = system.log): Unit =
+    poolMaster.startPool(sharedPoolIdFor(HttpRequest(uri = uri), settings.forHost(uri.authority.host.toString),
+      connectionContext, log))
+
   /**
    * Constructs a [[pekko.http.scaladsl.Http.WebSocketClientLayer]] stage using the configured default [[pekko.http.scaladsl.settings.ClientConnectionSettings]],
    * configured using the `pekko.http.client` config section.
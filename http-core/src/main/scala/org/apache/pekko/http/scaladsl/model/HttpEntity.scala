@@ -32,7 +32,7 @@ import pekko.stream._
 import pekko.{ stream, Done, NotUsed }
 import pekko.http.scaladsl.util.FastFuture
 import pekko.http.javadsl.{ model => jm }
-import pekko.http.impl.util.{ JavaMapping, StreamUtils }
+import pekko.http.impl.util.{ FileRegionSource, JavaMapping, StreamUtils }
 import pekko.http.impl.util.JavaMapping.Implicits._
 
 import scala.compat.java8.OptionConverters._
@@ -344,7 +344,7 @@ object HttpEntity {
     val fileLength = Files.size(file)
     if (fileLength > 0)
       HttpEntity.Default(contentType, fileLength,
-        if (chunkSize > 0) FileIO.fromPath(file, chunkSize) else FileIO.fromPath(file))
+        FileRegionSource(file, 0, fileLength, if (chunkSize > 0) chunkSize else FileRegionSource.DefaultChunkSize))
     else empty(contentType)
   }
 
@@ -62,6 +62,7 @@ object HttpEncoding {
 // see http://www.iana.org/assignments/http-parameters/http-parameters.xml
 object HttpEncodings extends ObjectRegistry[String, HttpEncoding] {
   // format: OFF
+  val br               = register("br")
   val compress         = register("compress")
   val chunked          = register("chunked")
   val deflate          = register("deflate")
@@ -69,6 +70,7 @@ object HttpEncodings extends ObjectRegistry[String, HttpEncoding] {
   val identity         = register("identity")
   val `x-compress`     = register("x-compress")
   val `x-zip`          = register("x-zip")
+  val zstd             = register("zstd")
   // format: ON
 
   private def register(encoding: HttpEncoding): HttpEncoding = register(encoding.value.toRootLowerCase, encoding)
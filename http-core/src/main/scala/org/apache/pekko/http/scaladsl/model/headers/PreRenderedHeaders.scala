@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.scaladsl.model.headers
+
+import scala.collection.immutable
+
+import org.apache.pekko
+import pekko.annotation.ApiMayChange
+import pekko.http.impl.util._
+import pekko.http.javadsl.{ model => jm }
+import pekko.http.scaladsl.model.HttpHeader
+
+/**
+ * A fixed block of response headers that is rendered into its HTTP/1 wire format once, when it is created.
+ *
+ * Use it for headers that are added to many responses unchanged, e.g. the headers of a static endpoint:
+ *
+ * {{{
+ * val staticHeaders = PreRenderedHeaders(`Cache-Control`(CacheDirectives.`max-age`(3600)), RawHeader("X-Frame-Options", "DENY"))
+ *
+ * respondWithHeaders(staticHeaders) { ... }
+ * }}}
+ *
+ * The HTTP/1 server copies the pre-rendered bytes into the response with a single copy instead of rendering
+ * every header on every response. The HTTP/2 server renders the contained headers as usual.
+ *
+ * The block is a single header of the response, so the contained headers are not found by header lookups like
+ * `HttpResponse.header[T]` and are not considered by directives like `respondWithDefaultHeaders`. Headers that are
+ * managed by the server (`Connection`, `Content-Length`, `Content-Type`, `Date`, `Server` and `Transfer-Encoding`)
+ * must not be part of a block.
+ */
+@ApiMayChange
+final class PreRenderedHeaders private (val headers: immutable.Seq[HttpHeader]) extends HttpHeader {
+  import PreRenderedHeaders._
+
+  headers.foreach { h =>
+    require(h.renderInResponses, s"Header '${h.name}' is not rendered in responses")
+    require(!ManagedHeaderNames(h.lowercaseName), s"Header '${h.name}' is managed by the server")
+  }
+
+  /** INTERNAL API */
+  private[http] val bytes: Array[Byte] = {
+    val r = new ByteArrayRendering(256, msg => throw new IllegalArgumentException(msg))
+    headers.foreach(h => r ~~ h)
+    r.get
+  }
+
+  def name: String = "Pre-Rendered-Headers"
+  def lowercaseName: String = "pre-rendered-headers"
+  def value: String = headers.mkString(", ")
+  def renderInRequests: Boolean = false
+  def renderInResponses: Boolean = true
+
+  def render[R <: Rendering](r: R): r.type = r ~~ name ~~ ':' ~~ ' ' ~~ value
+
+  override def equals(other: Any): Boolean = other match {
+    case that: PreRenderedHeaders => headers == that.headers
+    case _                        => false
+  }
+  override def hashCode: Int = headers.hashCode
+}
+
+@ApiMayChange
+object PreRenderedHeaders {
+  private val ManagedHeaderNames =
+    Set("connection", "content-length", "content-type", "date", "server", "transfer-encoding")
+
+  def apply(first: HttpHeader, more: HttpHeader*): PreRenderedHeaders = apply(first +: more.toList)
+
+  def apply(headers: immutable.Seq[HttpHeader]): PreRenderedHeaders =
+    new PreRenderedHeaders(headers.flatMap {
+      case block: PreRenderedHeaders => block.headers
+      case h                         => h :: Nil
+    })
+
+  /** Java API */
+  def create(headers: java.lang.Iterable[jm.HttpHeader]): PreRenderedHeaders = {
+    import scala.collection.JavaConverters._
+    import JavaMapping.Implicits._
+    apply(headers.asScala.toVector.map(_.asScala))
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.scaladsl.settings
+
+import org.apache.pekko
+import pekko.annotation.{ ApiMayChange, DoNotInherit }
+import pekko.http.impl.settings.ConcurrencyLimitSettingsImpl
+import com.typesafe.config.Config
+
+import scala.concurrent.duration.FiniteDuration
+
+/**
+ * Public API but not intended for subclassing
+ *
+ * Settings of the adaptive limit for the number of requests a host connection pool handles concurrently.
+ * See the `pekko.http.host-connection-pool.concurrency-limit` section of `reference.conf` for details.
+ */
+@ApiMayChange @DoNotInherit
+abstract class ConcurrencyLimitSettings private[pekko] ()
+    extends pekko.http.javadsl.settings.ConcurrencyLimitSettings {
+  self: ConcurrencyLimitSettingsImpl =>
+
+  def enabled: Boolean
+  def initialLimit: Int
+  def minLimit: Int
+  def maxLimit: Int
+  def latencyThreshold: FiniteDuration
+  def backoffRatio: Double
+
+  // ---
+
+  // overrides for more specific return type
+  override def withEnabled(newValue: Boolean): ConcurrencyLimitSettings = self.copy(enabled = newValue)
+  override def withInitialLimit(newValue: Int): ConcurrencyLimitSettings = self.copy(initialLimit = newValue)
+  override def withMinLimit(newValue: Int): ConcurrencyLimitSettings = self.copy(minLimit = newValue)
+  override def withMaxLimit(newValue: Int): ConcurrencyLimitSettings = self.copy(maxLimit = newValue)
+  override def withBackoffRatio(newValue: Double): ConcurrencyLimitSettings = self.copy(backoffRatio = newValue)
+  def withLatencyThreshold(newValue: FiniteDuration): ConcurrencyLimitSettings =
+    self.copy(latencyThreshold = newValue)
+}
+
+object ConcurrencyLimitSettings extends SettingsCompanion[ConcurrencyLimitSettings] {
+  override def apply(config: Config): ConcurrencyLimitSettings = ConcurrencyLimitSettingsImpl(config)
+  override def apply(configOverrides: String): ConcurrencyLimitSettings = ConcurrencyLimitSettingsImpl(configOverrides)
+}
@@ -16,6 +16,7 @@ package org.apache.pekko.http.scaladsl.settings
 import org.apache.pekko
 import pekko.annotation.{ ApiMayChange, DoNotInherit }
 import pekko.http.impl.settings.ConnectionPoolSettingsImpl
+import pekko.http.impl.util._
 import pekko.http.javadsl.{ settings => js }
 import pekko.http.scaladsl.ClientTransport
 import com.typesafe.config.Config
@@ -62,6 +63,36 @@ abstract class ConnectionPoolSettings extends js.ConnectionPoolSettings { self:
   @ApiMayChange
   def responseEntitySubscriptionTimeout: Duration
 
+  /**
+   * If enabled, the pool multiplexes requests over HTTP/2 connections instead of using one HTTP/1.1 connection
+   * per request. HTTP/2 is negotiated with ALPN on TLS connections and used with prior knowledge on plaintext ones.
+   */
+  @ApiMayChange
+  def http2Enabled: Boolean
+
+  /** The strategy used to choose an idle connection slot for a request */
+  @ApiMayChange
+  def slotSelection: ConnectionPoolSettings.SlotSelection
+
+  /** The settings of the adaptive limit for the number of requests the pool handles concurrently */
+  @ApiMayChange
+  def concurrencyLimitSettings: ConcurrencyLimitSettings
+
+  /** The settings of the budget that limits the retries of failed requests */
+  @ApiMayChange
+  def retryBudgetSettings: RetryBudgetSettings
+
+  /** The settings for hedging slow requests */
+  @ApiMayChange
+  def hedgingSettings: HedgingSettings
+
+  /**
+   * The time after which no further requests are pipelined onto a connection that is still waiting for its oldest
+   * outstanding response. Only used if the `pipeliningLimit` is greater than one.
+   */
+  @ApiMayChange
+  def pipeliningLatencyThreshold: FiniteDuration
+
   // ---
 
   @ApiMayChange
@@ -98,6 +129,30 @@ abstract class ConnectionPoolSettings extends js.ConnectionPoolSettings { self:
   override def withResponseEntitySubscriptionTimeout(newValue: Duration): ConnectionPoolSettings =
     self.copyDeep(_.withResponseEntitySubscriptionTimeout(newValue), responseEntitySubscriptionTimeout = newValue)
 
+  @ApiMayChange
+  override def withHttp2Enabled(newValue: Boolean): ConnectionPoolSettings =
+    self.copyDeep(_.withHttp2Enabled(newValue), http2Enabled = newValue)
+
+  @ApiMayChange
+  def withSlotSelection(newValue: ConnectionPoolSettings.SlotSelection): ConnectionPoolSettings =
+    self.copyDeep(_.withSlotSelection(newValue), slotSelection = newValue)
+
+  @ApiMayChange
+  def withConcurrencyLimitSettings(newValue: ConcurrencyLimitSettings): ConnectionPoolSettings =
+    self.copyDeep(_.withConcurrencyLimitSettings(newValue), concurrencyLimitSettings = newValue)
+
+  @ApiMayChange
+  def withRetryBudgetSettings(newValue: RetryBudgetSettings): ConnectionPoolSettings =
+    self.copyDeep(_.withRetryBudgetSettings(newValue), retryBudgetSettings = newValue)
+
+  @ApiMayChange
+  def withHedgingSettings(newValue: HedgingSettings): ConnectionPoolSettings =
+    self.copyDeep(_.withHedgingSettings(newValue), hedgingSettings = newValue)
+
+  @ApiMayChange
+  def withPipeliningLatencyThreshold(newValue: FiniteDuration): ConnectionPoolSettings =
+    self.copyDeep(_.withPipeliningLatencyThreshold(newValue), pipeliningLatencyThreshold = newValue)
+
   /**
    * Since 10.1.0, the transport is configured in [[ClientConnectionSettings]]. This method is a shortcut for
    * `withUpdatedConnectionSettings(_.withTransport(newTransport))`.
@@ -123,4 +178,35 @@ object ConnectionPoolSettings extends SettingsCompanion[ConnectionPoolSettings]
   }
 
   override def apply(configOverrides: String): ConnectionPoolSettingsImpl = ConnectionPoolSettingsImpl(configOverrides)
+
+  @ApiMayChange
+  sealed trait SlotSelection extends js.ConnectionPoolSettings.SlotSelection
+  @ApiMayChange
+  object SlotSelection {
+
+    /**
+     * Always chooses the idle slot with the lowest id. Requests are concentrated on as few connections as possible,
+     * so that unused connections can idle out when the load decreases.
+     */
+    case object LowestId extends SlotSelection
+
+    /**
+     * Chooses the idle slots in turn, so that requests are spread evenly over all connections of the pool.
+     */
+    case object RoundRobin extends SlotSelection
+
+    /**
+     * Chooses the idle slot whose connection had the lowest recent response times, measured as a peak-sensitive
+     * exponentially weighted moving average.
+     */
+    case object PeakEwma extends SlotSelection
+
+    def apply(string: String): SlotSelection =
+      string.toRootLowerCase match {
+        case "lowest-id"   => LowestId
+        case "round-robin" => RoundRobin
+        case "peak-ewma"   => PeakEwma
+        case x             => throw new IllegalArgumentException(s"[$x] is not a legal `slot-selection` setting")
+      }
+  }
 }
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.scaladsl.settings
+
+import org.apache.pekko
+import pekko.annotation.{ ApiMayChange, DoNotInherit }
+import pekko.http.impl.settings.HedgingSettingsImpl
+import com.typesafe.config.Config
+
+import scala.concurrent.duration.FiniteDuration
+
+/**
+ * Public API but not intended for subclassing
+ *
+ * Settings for hedging requests of a host connection pool.
+ * See the `pekko.http.host-connection-pool.hedging` section of `reference.conf` for details.
+ */
+@ApiMayChange @DoNotInherit
+abstract class HedgingSettings private[pekko] () extends pekko.http.javadsl.settings.HedgingSettings {
+  self: HedgingSettingsImpl =>
+
+  def enabled: Boolean
+  def percentile: Double
+  def minDelay: FiniteDuration
+
+  // ---
+
+  // overrides for more specific return type
+  override def withEnabled(newValue: Boolean): HedgingSettings = self.copy(enabled = newValue)
+  override def withPercentile(newValue: Double): HedgingSettings = self.copy(percentile = newValue)
+  def withMinDelay(newValue: FiniteDuration): HedgingSettings = self.copy(minDelay = newValue)
+}
+
+object HedgingSettings extends SettingsCompanion[HedgingSettings] {
+  override def apply(config: Config): HedgingSettings = HedgingSettingsImpl(config)
+  override def apply(configOverrides: String): HedgingSettings = HedgingSettingsImpl(configOverrides)
+}
@@ -35,12 +35,14 @@ private[http] trait Http2CommonSettings {
   def requestEntityChunkSize: Int
   def incomingConnectionLevelBufferSize: Int
   def incomingStreamLevelBufferSize: Int
+  def incomingWindowAutoTuning: Boolean
 
   def minCollectStrictEntitySize: Int
 
   def logFrames: Boolean
   def maxConcurrentStreams: Int
   def outgoingControlFrameBufferSize: Int
+  def outgoingFrameBatchSize: Int
 
   def pingInterval: FiniteDuration
   def pingTimeout: FiniteDuration
@@ -83,6 +85,10 @@ trait Http2ServerSettings extends javadsl.settings.Http2ServerSettings with Http
   def withIncomingStreamLevelBufferSize(newValue: Int): Http2ServerSettings =
     copy(incomingStreamLevelBufferSize = newValue)
 
+  def incomingWindowAutoTuning: Boolean
+  override def withIncomingWindowAutoTuning(newValue: Boolean): Http2ServerSettings =
+    copy(incomingWindowAutoTuning = newValue)
+
   def minCollectStrictEntitySize: Int
   def withMinCollectStrictEntitySize(newValue: Int): Http2ServerSettings = copy(minCollectStrictEntitySize = newValue)
 
@@ -93,6 +99,10 @@ trait Http2ServerSettings extends javadsl.settings.Http2ServerSettings with Http
   override def withOutgoingControlFrameBufferSize(newValue: Int): Http2ServerSettings =
     copy(outgoingControlFrameBufferSize = newValue)
 
+  def outgoingFrameBatchSize: Int
+  override def withOutgoingFrameBatchSize(newValue: Int): Http2ServerSettings =
+    copy(outgoingFrameBatchSize = newValue)
+
   def logFrames: Boolean
   override def withLogFrames(shouldLog: Boolean): Http2ServerSettings = copy(logFrames = shouldLog)
 
@@ -119,8 +129,10 @@ object Http2ServerSettings extends SettingsCompanion[Http2ServerSettings] {
       requestEntityChunkSize: Int,
       incomingConnectionLevelBufferSize: Int,
       incomingStreamLevelBufferSize: Int,
+      incomingWindowAutoTuning: Boolean,
       minCollectStrictEntitySize: Int,
       outgoingControlFrameBufferSize: Int,
+      outgoingFrameBatchSize: Int,
       logFrames: Boolean,
       pingInterval: FiniteDuration,
       pingTimeout: FiniteDuration,
@@ -136,6 +148,7 @@ object Http2ServerSettings extends SettingsCompanion[Http2ServerSettings] {
     require(minCollectStrictEntitySize <= (incomingConnectionLevelBufferSize / maxConcurrentStreams),
       "min-collect-strict-entity-size <= incoming-connection-level-buffer-size / max-concurrent-streams")
     require(outgoingControlFrameBufferSize > 0, "outgoing-control-frame-buffer-size must be > 0")
+    require(outgoingFrameBatchSize >= 0, "outgoing-frame-batch-size must be >= 0")
     Http2CommonSettings.validate(this)
   }
 
@@ -146,8 +159,10 @@ object Http2ServerSettings extends SettingsCompanion[Http2ServerSettings] {
       requestEntityChunkSize = c.getIntBytes("request-entity-chunk-size"),
       incomingConnectionLevelBufferSize = c.getIntBytes("incoming-connection-level-buffer-size"),
       incomingStreamLevelBufferSize = c.getIntBytes("incoming-stream-level-buffer-size"),
+      incomingWindowAutoTuning = c.getBoolean("incoming-window-auto-tuning"),
       minCollectStrictEntitySize = c.getIntBytes("min-collect-strict-entity-size"),
       outgoingControlFrameBufferSize = c.getIntBytes("outgoing-control-frame-buffer-size"),
+      outgoingFrameBatchSize = c.getIntBytes("outgoing-frame-batch-size"),
       logFrames = c.getBoolean("log-frames"),
       pingInterval = c.getFiniteDuration("ping-interval"),
       pingTimeout = c.getFiniteDuration("ping-timeout"),
@@ -178,6 +193,10 @@ trait Http2ClientSettings extends javadsl.settings.Http2ClientSettings with Http
   override def withIncomingStreamLevelBufferSize(newValue: Int): Http2ClientSettings =
     copy(incomingStreamLevelBufferSize = newValue)
 
+  def incomingWindowAutoTuning: Boolean
+  override def withIncomingWindowAutoTuning(newValue: Boolean): Http2ClientSettings =
+    copy(incomingWindowAutoTuning = newValue)
+
   def minCollectStrictEntitySize: Int = 0 // not yet supported on client side
 
   def maxConcurrentStreams: Int
@@ -187,6 +206,10 @@ trait Http2ClientSettings extends javadsl.settings.Http2ClientSettings with Http
   override def withOutgoingControlFrameBufferSize(newValue: Int): Http2ClientSettings =
     copy(outgoingControlFrameBufferSize = newValue)
 
+  def outgoingFrameBatchSize: Int
+  override def withOutgoingFrameBatchSize(newValue: Int): Http2ClientSettings =
+    copy(outgoingFrameBatchSize = newValue)
+
   def logFrames: Boolean
   override def withLogFrames(shouldLog: Boolean): Http2ClientSettings = copy(logFrames = shouldLog)
 
@@ -225,7 +248,9 @@ object Http2ClientSettings extends SettingsCompanion[Http2ClientSettings] {
       requestEntityChunkSize: Int,
       incomingConnectionLevelBufferSize: Int,
       incomingStreamLevelBufferSize: Int,
+      incomingWindowAutoTuning: Boolean,
       outgoingControlFrameBufferSize: Int,
+      outgoingFrameBatchSize: Int,
       logFrames: Boolean,
       pingInterval: FiniteDuration,
       pingTimeout: FiniteDuration,
@@ -240,6 +265,7 @@ object Http2ClientSettings extends SettingsCompanion[Http2ClientSettings] {
     require(incomingConnectionLevelBufferSize > 0, "incoming-connection-level-buffer-size must be > 0")
     require(incomingStreamLevelBufferSize > 0, "incoming-stream-level-buffer-size must be > 0")
     require(outgoingControlFrameBufferSize > 0, "outgoing-control-frame-buffer-size must be > 0")
+    require(outgoingFrameBatchSize >= 0, "outgoing-frame-batch-size must be >= 0")
     require(maxPersistentAttempts >= 0, "max-persistent-attempts must be >= 0")
     require(completionTimeout > Duration.Zero, "completion-timeout must be > 0")
     require(baseConnectionBackoff <= maxConnectionBackoff, "base-connection-backoff must be <= max-connection-backoff")
@@ -253,7 +279,9 @@ object Http2ClientSettings extends SettingsCompanion[Http2ClientSettings] {
       requestEntityChunkSize = c.getIntBytes("request-entity-chunk-size"),
       incomingConnectionLevelBufferSize = c.getIntBytes("incoming-connection-level-buffer-size"),
       incomingStreamLevelBufferSize = c.getIntBytes("incoming-stream-level-buffer-size"),
+      incomingWindowAutoTuning = c.getBoolean("incoming-window-auto-tuning"),
       outgoingControlFrameBufferSize = c.getIntBytes("outgoing-control-frame-buffer-size"),
+      outgoingFrameBatchSize = c.getIntBytes("outgoing-frame-batch-size"),
       logFrames = c.getBoolean("log-frames"),
       pingInterval = c.getFiniteDuration("ping-interval"),
       pingTimeout = c.getFiniteDuration("ping-timeout"),
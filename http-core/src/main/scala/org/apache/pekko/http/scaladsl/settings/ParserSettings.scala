@@ -56,6 +56,7 @@ abstract class ParserSettings private[pekko] () extends pekko.http.javadsl.setti
   def illegalResponseHeaderValueProcessingMode: ParserSettings.IllegalResponseHeaderValueProcessingMode
   def conflictingContentTypeHeaderProcessingMode: ParserSettings.ConflictingContentTypeHeaderProcessingMode
   def headerValueCacheLimits: Map[String, Int]
+  def headerCacheAdmissionThreshold: Int
   def includeTlsSessionInfoHeader: Boolean
   def includeSslSessionAttribute: Boolean
   def customMethods: String => Option[HttpMethod]
@@ -66,6 +67,7 @@ abstract class ParserSettings private[pekko] () extends pekko.http.javadsl.setti
   /* Java APIs */
   override def getCookieParsingMode: js.ParserSettings.CookieParsingMode = cookieParsingMode
   override def getHeaderValueCacheLimits: util.Map[String, Int] = headerValueCacheLimits.asJava
+  override def getHeaderCacheAdmissionThreshold: Int = headerCacheAdmissionThreshold
   override def getMaxChunkExtLength = maxChunkExtLength
   override def getUriParsingMode: pekko.http.javadsl.model.Uri.ParsingMode = uriParsingMode
   override def getMaxHeaderCount = maxHeaderCount
@@ -122,6 +124,8 @@ abstract class ParserSettings private[pekko] () extends pekko.http.javadsl.setti
   override def withIncludeSslSessionAttribute(newValue: Boolean): ParserSettings =
     self.copy(includeSslSessionAttribute = newValue)
   override def withModeledHeaderParsing(newValue: Boolean): ParserSettings = self.copy(modeledHeaderParsing = newValue)
+  override def withHeaderCacheAdmissionThreshold(newValue: Int): ParserSettings =
+    self.copy(headerCacheAdmissionThreshold = newValue)
   override def withIgnoreIllegalHeaderFor(newValue: List[String]): ParserSettings =
     self.copy(ignoreIllegalHeaderFor = newValue.map(_.toLowerCase).toSet)
 
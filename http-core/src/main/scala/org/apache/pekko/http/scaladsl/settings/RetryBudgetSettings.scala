@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.scaladsl.settings
+
+import org.apache.pekko
+import pekko.annotation.{ ApiMayChange, DoNotInherit }
+import pekko.http.impl.settings.RetryBudgetSettingsImpl
+import com.typesafe.config.Config
+
+/**
+ * Public API but not intended for subclassing
+ *
+ * Settings of the budget that limits the retries of a host connection pool.
+ * See the `pekko.http.host-connection-pool.retry-budget` section of `reference.conf` for details.
+ */
+@ApiMayChange @DoNotInherit
+abstract class RetryBudgetSettings private[pekko] () extends pekko.http.javadsl.settings.RetryBudgetSettings {
+  self: RetryBudgetSettingsImpl =>
+
+  def enabled: Boolean
+  def ratio: Double
+  def minRetriesPerSecond: Int
+
+  // ---
+
+  // overrides for more specific return type
+  override def withEnabled(newValue: Boolean): RetryBudgetSettings = self.copy(enabled = newValue)
+  override def withRatio(newValue: Double): RetryBudgetSettings = self.copy(ratio = newValue)
+  override def withMinRetriesPerSecond(newValue: Int): RetryBudgetSettings =
+    self.copy(minRetriesPerSecond = newValue)
+}
+
+object RetryBudgetSettings extends SettingsCompanion[RetryBudgetSettings] {
+  override def apply(config: Config): RetryBudgetSettings = RetryBudgetSettingsImpl(config)
+  override def apply(configOverrides: String): RetryBudgetSettings = RetryBudgetSettingsImpl(configOverrides)
+}
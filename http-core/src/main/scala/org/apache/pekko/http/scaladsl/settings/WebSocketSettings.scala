@@ -52,4 +52,14 @@ abstract class WebSocketSettings extends pekko.http.javadsl.settings.WebSocketSe
 
   def logFrames: Boolean
   override def withLogFrames(shouldLog: Boolean): WebSocketSettings = copy(logFrames = shouldLog)
+
+  def perMessageDeflateEnabled: Boolean
+  def perMessageDeflateCompressionLevel: Int
+  def perMessageDeflateNoContextTakeover: Boolean
+  override def withPerMessageDeflateEnabled(newValue: Boolean): WebSocketSettings =
+    copy(perMessageDeflateEnabled = newValue)
+  override def withPerMessageDeflateCompressionLevel(newValue: Int): WebSocketSettings =
+    copy(perMessageDeflateCompressionLevel = newValue)
+  override def withPerMessageDeflateNoContextTakeover(newValue: Boolean): WebSocketSettings =
+    copy(perMessageDeflateNoContextTakeover = newValue)
 }
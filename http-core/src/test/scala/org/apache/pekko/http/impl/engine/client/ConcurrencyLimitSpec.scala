@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.engine.client
+
+import org.apache.pekko
+import pekko.http.scaladsl.settings.ConcurrencyLimitSettings
+import pekko.testkit.PekkoSpec
+
+import scala.concurrent.duration._
+
+class ConcurrencyLimitSpec extends PekkoSpec {
+  val settings =
+    ConcurrencyLimitSettings(system)
+      .withEnabled(true)
+      .withInitialLimit(10)
+      .withMinLimit(2)
+      .withMaxLimit(12)
+      .withLatencyThreshold(100.millis)
+      .withBackoffRatio(0.5)
+
+  val fast = 10.millis.toNanos
+  val slow = 200.millis.toNanos
+
+  /** Takes samples of requests that were dispatched one after the other */
+  class Sampler(limit: ConcurrencyLimit) {
+    private var now = 0L
+    def sample(latencyNanos: Long, failed: Boolean = false, inflight: Int = 10): Unit = {
+      limit.onSample(now, now + latencyNanos, failed, inflight)
+      now += latencyNanos + 1
+    }
+  }
+
+  "The ConcurrencyLimit" should {
+    "start with the initial limit" in {
+      new ConcurrencyLimit(settings).limit shouldEqual 10
+    }
+    "grow by one per round of successful requests while the limit is in use" in {
+      val limit = new ConcurrencyLimit(settings)
+      val sampler = new Sampler(limit)
+      (1 to 10).foreach(_ => sampler.sample(fast))
+      limit.limit shouldEqual 11
+    }
+    "not grow while less than half of the limit is in use" in {
+      val limit = new ConcurrencyLimit(settings)
+      val sampler = new Sampler(limit)
+      (1 to 100).foreach(_ => sampler.sample(fast, inflight = 4))
+      limit.limit shouldEqual 10
+    }
+    "not grow beyond the max limit" in {
+      val limit = new ConcurrencyLimit(settings)
+      val sampler = new Sampler(limit)
+      (1 to 1000).foreach(_ => sampler.sample(fast, inflight = 12))
+      limit.limit shouldEqual 12
+    }
+    "back off after a failed request" in {
+      val limit = new ConcurrencyLimit(settings)
+      new Sampler(limit).sample(fast, failed = true)
+      limit.limit shouldEqual 5
+    }
+    "back off after a request that exceeded the latency threshold" in {
+      val limit = new ConcurrencyLimit(settings)
+      new Sampler(limit).sample(slow)
+      limit.limit shouldEqual 5
+    }
+    "not back off below the min limit" in {
+      val limit = new ConcurrencyLimit(settings)
+      val sampler = new Sampler(limit)
+      (1 to 10).foreach(_ => sampler.sample(slow, failed = true))
+      limit.limit shouldEqual 2
+    }
+    "back off only once for requests that were in flight at the same time" in {
+      val limit = new ConcurrencyLimit(settings)
+      (1 to 10).foreach(i => limit.onSample(0L, slow + i, failed = true, inflight = 10))
+      limit.limit shouldEqual 5
+
+      // a request dispatched after the back off may trigger the next one
+      limit.onSample(slow + 20, slow + 30, failed = true, inflight = 5)
+      limit.limit shouldEqual 2
+    }
+  }
+}
@@ -24,6 +24,7 @@ import pekko.event.Logging
 import pekko.http.impl.engine.client.PoolMasterActor.{ PoolInterfaceRunning, PoolInterfaceStatus, PoolStatus }
 import pekko.http.impl.engine.server.ServerTerminator
 import pekko.http.impl.engine.ws.ByteStringSinkProbe
+import pekko.http.impl.settings.{ ConnectionPoolSetup, HostConnectionPoolSetup }
 import pekko.http.impl.util._
 import pekko.http.scaladsl.Http.{
   HostConnectionPool,
@@ -35,7 +36,14 @@ import pekko.http.scaladsl.Http.{
 import pekko.http.scaladsl.model.HttpEntity.{ Chunk, ChunkStreamPart, Chunked, LastChunk }
 import pekko.http.scaladsl.model.{ HttpEntity, _ }
 import pekko.http.scaladsl.model.headers._
-import pekko.http.scaladsl.settings.{ ClientConnectionSettings, ConnectionPoolSettings, ServerSettings }
+import pekko.http.scaladsl.settings.{
+  ClientConnectionSettings,
+  ConcurrencyLimitSettings,
+  ConnectionPoolSettings,
+  HedgingSettings,
+  RetryBudgetSettings,
+  ServerSettings
+}
 import pekko.http.scaladsl.{ ClientTransport, ConnectionContext, Http }
 import pekko.stream.Attributes
 import pekko.stream.{ OverflowStrategy, QueueOfferResult }
@@ -203,6 +211,67 @@ class NewConnectionPoolSpec extends PekkoSpecWithMaterializer("""
       connNr(response2) shouldEqual 1
     }
 
+    "use all idle connections in turn with round-robin slot selection" in new TestSetup {
+      val (requestIn, responseOut, responseOutSub, _) =
+        cachedHostConnectionPool[Int](slotSelection = ConnectionPoolSettings.SlotSelection.RoundRobin)
+
+      requestIn.sendNext(HttpRequest(uri = "/a") -> 42)
+      responseOutSub.request(1)
+      acceptIncomingConnection()
+      val (Success(response1), 42) = responseOut.expectNext()
+      connNr(response1) shouldEqual 1
+
+      // see above, give the pool time to see that the first slot is idle again
+      Thread.sleep(100)
+
+      requestIn.sendNext(HttpRequest(uri = "/b") -> 43)
+      responseOutSub.request(1)
+      acceptIncomingConnection()
+      val (Success(response2), 43) = responseOut.expectNext()
+      connNr(response2) shouldEqual 2
+
+      Thread.sleep(100)
+
+      requestIn.sendNext(HttpRequest(uri = "/c") -> 44)
+      responseOutSub.request(1)
+      val (Success(response3), 44) = responseOut.expectNext()
+      connNr(response3) shouldEqual 1
+    }
+
+    "avoid slow connections and not open new ones while a connection is idle with peak-ewma slot selection" in new TestSetup(
+      autoAccept = true) {
+      override def asyncTestServerHandler(connNr: Int): HttpRequest => Future[HttpResponse] = {
+        val handler = testServerHandler(connNr)
+        req =>
+          // the first connection is slow
+          if (connNr == 1) pekko.pattern.after(300.millis, system.scheduler)(Future.successful(handler(req)))(
+            system.dispatcher)
+          else Future.successful(handler(req))
+      }
+
+      val (requestIn, responseOut, responseOutSub, _) = cachedHostConnectionPool[Int](
+        maxConnections = 4, slotSelection = ConnectionPoolSettings.SlotSelection.PeakEwma)
+
+      // two concurrent requests open two connections
+      requestIn.sendNext(HttpRequest(uri = "/a") -> 1)
+      requestIn.sendNext(HttpRequest(uri = "/b") -> 2)
+      responseOutSub.request(2)
+      responseOut.expectNext(3.seconds.dilated)
+      responseOut.expectNext(3.seconds.dilated)
+      incomingConnectionCounter.get shouldEqual 2
+
+      (3 to 6).foreach { i =>
+        // see above, give the pool time to see that the slots are idle again
+        Thread.sleep(100)
+
+        requestIn.sendNext(HttpRequest(uri = "/c") -> i)
+        responseOutSub.request(1)
+        val (Success(response), `i`) = responseOut.expectNext()
+        connNr(response) shouldEqual 2
+      }
+      incomingConnectionCounter.get shouldEqual 2
+    }
+
     "be able to handle 500 requests against the test server" in new TestSetup {
       val settings = ConnectionPoolSettings(system).withMaxConnections(4).withPipeliningLimit(2)
       val poolFlow = Http().cachedHostConnectionPool[Int](serverHostName, serverPort, settings = settings)
@@ -343,6 +412,162 @@ class NewConnectionPoolSpec extends PekkoSpecWithMaterializer("""
       remainingResponsesToKill.get() shouldEqual 0
     }
 
+    "not retry failed requests beyond the retry budget" in new TestSetup(autoAccept = true) {
+      val (requestIn, responseOut, responseOutSub, _) = cachedHostConnectionPool[Int](
+        maxRetries = 4,
+        retryBudgetSettings = RetryBudgetSettings(system).withEnabled(true).withRatio(0).withMinRetriesPerSecond(0))
+
+      requestIn.sendNext(HttpRequest(uri = "/crash") -> 42)
+      responseOutSub.request(1)
+
+      // must be lazy to prevent initialization problem because `mapServerSideOutboundRawBytes` might be called before the value is initialized
+      lazy val remainingResponsesToKill = new AtomicInteger(2)
+      override def mapServerSideOutboundRawBytes(bytes: ByteString): ByteString =
+        if (bytes.utf8String.contains("/crash") && remainingResponsesToKill.decrementAndGet() >= 0)
+          sys.error("CRASH BOOM BANG")
+        else bytes
+
+      // the budget holds a single token without any refills, so the request is only retried once
+      responseOut.expectNext()._1.isFailure shouldBe true
+    }
+
+    "hedge slow requests over another connection" in new TestSetup(autoAccept = true) {
+      lazy val slowRequests = new AtomicInteger
+      lazy val heldResponse = Promise[HttpResponse]()
+      override def asyncTestServerHandler(connNr: Int): HttpRequest => Future[HttpResponse] = {
+        val handler = testServerHandler(connNr)
+        req =>
+          // the first attempt of the slow request is never answered
+          if (req.uri.path.toString == "/slow" && slowRequests.incrementAndGet() == 1) Promise[HttpResponse]().future
+          else if (req.uri.path.toString == "/held") heldResponse.future
+          else Future.successful(handler(req))
+      }
+
+      val (requestIn, responseOut, responseOutSub, _) = cachedHostConnectionPool[Int](
+        hedgingSettings = HedgingSettings(system).withEnabled(true).withPercentile(50).withMinDelay(100.millis))
+
+      // enough requests to measure the response times
+      (1 to 32).foreach { i =>
+        requestIn.sendNext(HttpRequest(uri = "/fast") -> i)
+        responseOutSub.request(1)
+        responseOut.expectNext()
+      }
+
+      requestIn.sendNext(HttpRequest(uri = "/slow") -> 42)
+      responseOutSub.request(1)
+      val response = responseOut.expectNext(3.seconds.dilated)._1.get
+      connNr(response) shouldEqual 2
+      slowRequests.get shouldEqual 2
+
+      // the unanswered copy was aborted, so both connections of the pool are available again
+      requestIn.sendNext(HttpRequest(uri = "/held") -> 43)
+      requestIn.sendNext(HttpRequest(uri = "/fast") -> 44)
+      responseOutSub.request(2)
+      responseOut.expectNext(3.seconds.dilated)._2 shouldEqual 44
+      heldResponse.success(HttpResponse())
+      responseOut.expectNext(3.seconds.dilated)._2 shouldEqual 43
+    }
+
+    "not abort the unused copy of a hedged request if other requests are pipelined behind it" in new TestSetup(
+      serverSettings = ServerSettings(system).withPipeliningLimit(2), autoAccept = true) {
+      lazy val slowRequests = new AtomicInteger
+      override def asyncTestServerHandler(connNr: Int): HttpRequest => Future[HttpResponse] = {
+        val handler = testServerHandler(connNr)
+        req =>
+          // the first attempt of the slow request is answered before the hedged copy
+          if (req.uri.path.toString == "/slow") {
+            val delay = if (slowRequests.incrementAndGet() == 1) 400.millis else 1.second
+            pekko.pattern.after(delay, system.scheduler)(Future.successful(handler(req)))(system.dispatcher)
+          } else Future.successful(handler(req))
+      }
+
+      val (requestIn, responseOut, responseOutSub, _) = cachedHostConnectionPool[Int](
+        pipeliningLimit = 2, pipeliningLatencyThreshold = 3.seconds,
+        hedgingSettings = HedgingSettings(system).withEnabled(true).withPercentile(50).withMinDelay(100.millis))
+
+      // enough requests to measure the response times
+      (1 to 32).foreach { i =>
+        requestIn.sendNext(HttpRequest(uri = "/fast") -> i)
+        responseOutSub.request(1)
+        responseOut.expectNext()
+      }
+
+      requestIn.sendNext(HttpRequest(uri = "/slow") -> 42)
+      responseOutSub.request(2)
+      awaitCond(slowRequests.get == 2)
+
+      // no connection is idle, so the request is pipelined behind the hedged copy that was sent more recently
+      requestIn.sendNext(HttpRequest(uri = "/fast") -> 43)
+
+      val (Success(slowResponse), 42) = responseOut.expectNext(3.seconds.dilated)
+      connNr(slowResponse) shouldEqual 1
+
+      // the connection of the unused copy is kept, so the pipelined request is answered over it
+      val (Success(pipelinedResponse), 43) = responseOut.expectNext(3.seconds.dilated)
+      connNr(pipelinedResponse) shouldEqual 2
+      incomingConnectionCounter.get shouldEqual 2
+    }
+
+    "pipeline requests onto a busy connection if no connection is idle" in new TestSetup(
+      serverSettings = ServerSettings(system).withPipeliningLimit(2), autoAccept = true) {
+      lazy val firstResponse = Promise[HttpResponse]()
+      override def asyncTestServerHandler(connNr: Int): HttpRequest => Future[HttpResponse] = {
+        val handler = testServerHandler(connNr)
+        req =>
+          // the first response is only sent once the second request has arrived over the same connection
+          if (req.uri.path.toString == "/first") firstResponse.future
+          else {
+            firstResponse.success(HttpResponse(headers = ConnNrHeader(connNr) :: Nil))
+            Future.successful(handler(req))
+          }
+      }
+
+      val (requestIn, responseOut, responseOutSub, _) =
+        cachedHostConnectionPool[Int](maxConnections = 1, pipeliningLimit = 2, pipeliningLatencyThreshold = 3.seconds)
+
+      requestIn.sendNext(HttpRequest(uri = "/first") -> 1)
+      requestIn.sendNext(HttpRequest(uri = "/second") -> 2)
+      responseOutSub.request(2)
+
+      val responses = Seq(responseOut.expectNext(), responseOut.expectNext())
+      responses.map(_._2) shouldEqual Seq(1, 2)
+      responses.map(r => connNr(r._1.get)) shouldEqual Seq(1, 1)
+    }
+
+    "not pipeline requests onto a connection whose oldest response is overdue" in new TestSetup(
+      serverSettings = ServerSettings(system).withPipeliningLimit(2), autoAccept = true) {
+      lazy val slowResponse = Promise[HttpResponse]()
+      lazy val requestsSeen = new AtomicInteger
+      override def asyncTestServerHandler(connNr: Int): HttpRequest => Future[HttpResponse] = {
+        val handler = testServerHandler(connNr)
+        req =>
+          requestsSeen.incrementAndGet()
+          if (req.uri.path.toString == "/slow") slowResponse.future
+          else Future.successful(handler(req))
+      }
+
+      val (requestIn, responseOut, responseOutSub, _) =
+        cachedHostConnectionPool[Int](maxConnections = 1, pipeliningLimit = 2, pipeliningLatencyThreshold = 100.millis)
+
+      requestIn.sendNext(HttpRequest(uri = "/slow") -> 1)
+      responseOutSub.request(2)
+      awaitCond(requestsSeen.get == 1)
+      Thread.sleep(300)
+
+      // the slow response has been waited for longer than the threshold, so the request waits for the connection
+      requestIn.sendNext(HttpRequest(uri = "/fast") -> 2)
+      condHolds(500.millis) { () =>
+        requestsSeen.get shouldEqual 1
+      }
+
+      slowResponse.success(HttpResponse(headers = ConnNrHeader(1) :: Nil))
+      responseOut.expectNext()._2 shouldEqual 1
+      val (fastResult, fastId) = responseOut.expectNext()
+      fastId shouldEqual 2
+      connNr(fastResult.get) shouldEqual 1
+      requestsSeen.get shouldEqual 2
+    }
+
     "automatically shutdown after configured timeout periods" in new TestSetup() {
       val (_, _, _, hcp) = cachedHostConnectionPool[Int](idleTimeout = 1.second)
       val gateway = hcp.poolId
@@ -418,6 +643,35 @@ class NewConnectionPoolSpec extends PekkoSpecWithMaterializer("""
       }
     }
 
+    "dispatch requests to running pools without going through the pool master actor" in {
+      val masterProbe = TestProbe()
+      val runningPools = new java.util.concurrent.ConcurrentHashMap[PoolId, PoolInterface]
+      val master = new PoolMaster(masterProbe.ref, runningPools)
+      def newPoolId() =
+        new PoolId(
+          HostConnectionPoolSetup("example.com", 80, ConnectionPoolSetup(ConnectionPoolSettings(system), log = system.log)),
+          PoolId.SharedPool)
+
+      val dispatched = new AtomicInteger
+      runningPools.put(newPoolId(),
+        new PoolInterface {
+          def request(request: HttpRequest, responsePromise: Promise[HttpResponse]): Unit = {
+            dispatched.incrementAndGet()
+            responsePromise.success(HttpResponse())
+          }
+          def shutdown()(implicit ec: ExecutionContext): Future[PoolInterface.ShutdownReason] = whenShutdown
+          def whenShutdown: Future[PoolInterface.ShutdownReason] = Promise[PoolInterface.ShutdownReason]().future
+        })
+
+      Await.result(master.dispatchRequest(newPoolId(), HttpRequest()), 1.second.dilated) shouldEqual HttpResponse()
+      dispatched.get shouldEqual 1
+      masterProbe.expectNoMessage(100.millis)
+
+      runningPools.clear()
+      master.dispatchRequest(newPoolId(), HttpRequest())
+      masterProbe.expectMsgType[PoolMasterActor.SendRequest]
+    }
+
     "never close hot connections when minConnections key is given and >0 (minConnections = 1)" in new TestSetup() {
       val close: HttpHeader = Connection("close")
 
@@ -470,6 +724,27 @@ class NewConnectionPoolSpec extends PekkoSpecWithMaterializer("""
       awaitCond({ Await.result(gateway.poolStatus(), 1500.millis.dilated).isEmpty }, 2000.millis.dilated)
     }
 
+    "not dispatch more requests than the concurrency limit allows" in new TestSetup() {
+      val settings =
+        ConnectionPoolSettings(system)
+          .withMaxConnections(2)
+          .withConcurrencyLimitSettings(
+            ConcurrencyLimitSettings(system).withEnabled(true).withInitialLimit(1).withMinLimit(1).withMaxLimit(1))
+
+      val responses = (1 to 2).map { i =>
+        Http().singleRequest(HttpRequest(uri = s"http://$serverHostName:$serverPort/limited/$i"), settings = settings)
+      }
+      acceptIncomingConnection()
+      incomingConnectionsSub.request(1)
+      incomingConnections.expectNoMessage(100.millis)
+
+      responses.foreach { response =>
+        val r = response.awaitResult(3.seconds)
+        connNr(r) shouldEqual 1
+        r.discardEntityBytes()
+      }
+    }
+
     "use the configured ClientTransport" in new ClientTransportTestSetup {
       def issueRequest(request: HttpRequest, settings: ConnectionPoolSettings): Future[HttpResponse] =
         Source.single(request.withUri(request.uri.toRelative))
@@ -536,6 +811,24 @@ class NewConnectionPoolSpec extends PekkoSpecWithMaterializer("""
       Await.result(bytes, 3.seconds) should be(ByteString("lala"))
     }
 
+    "open min-connections eagerly when the pool is warmed up" in new TestSetup() {
+      val settings = ConnectionPoolSettings(system).withMinConnections(2).withMaxConnections(2)
+      Http().warmUpPool(s"http://$serverHostName:$serverPort", settings = settings)
+
+      // both connections are opened without any request being sent
+      acceptIncomingConnection()
+      acceptIncomingConnection()
+
+      val response =
+        Http().singleRequest(HttpRequest(uri = s"http://$serverHostName:$serverPort/warm"), settings = settings)
+          .awaitResult(3.seconds)
+      response.status shouldBe StatusCodes.OK
+      response.discardEntityBytes()
+
+      incomingConnectionsSub.request(1)
+      incomingConnections.expectNoMessage(100.millis)
+    }
+
     /*
      * Currently failing the 'outgoing request' part of the connection may also fail the 'incoming reply' part of the connection.
      * In the future we may want to disconnect those and allow the server we connect to to choose how to handle the failure
@@ -726,7 +1019,8 @@ class NewConnectionPoolSpec extends PekkoSpecWithMaterializer("""
     }
 
     private def handleConnection(c: Http.IncomingConnection) =
-      c.handleWithAsyncHandler(asyncTestServerHandler(incomingConnectionCounter.incrementAndGet()))
+      c.handleWithAsyncHandler(asyncTestServerHandler(incomingConnectionCounter.incrementAndGet()),
+        serverSettings.pipeliningLimit)
 
     def cachedHostConnectionPool[T](
         maxConnections: Int = 2,
@@ -734,17 +1028,25 @@ class NewConnectionPoolSpec extends PekkoSpecWithMaterializer("""
         maxRetries: Int = 2,
         maxOpenRequests: Int = 8,
         pipeliningLimit: Int = 1,
+        pipeliningLatencyThreshold: FiniteDuration = 100.millis,
         idleTimeout: FiniteDuration = 5.seconds,
         maxConnectionLifetime: Duration = Duration.Inf,
-        ccSettings: ClientConnectionSettings = ClientConnectionSettings(system)) = {
+        ccSettings: ClientConnectionSettings = ClientConnectionSettings(system),
+        slotSelection: ConnectionPoolSettings.SlotSelection = ConnectionPoolSettings.SlotSelection.LowestId,
+        retryBudgetSettings: RetryBudgetSettings = RetryBudgetSettings(system),
+        hedgingSettings: HedgingSettings = HedgingSettings(system)) = {
 
       val settings =
         ConnectionPoolSettings(system)
+          .withSlotSelection(slotSelection)
+          .withRetryBudgetSettings(retryBudgetSettings)
+          .withHedgingSettings(hedgingSettings)
           .withMaxConnections(maxConnections)
           .withMinConnections(minConnections)
           .withMaxRetries(maxRetries)
           .withMaxOpenRequests(maxOpenRequests)
           .withPipeliningLimit(pipeliningLimit)
+          .withPipeliningLatencyThreshold(pipeliningLatencyThreshold)
           .withIdleTimeout(idleTimeout.dilated)
           .withMaxConnectionLifetime(maxConnectionLifetime)
           .withConnectionSettings(ccSettings)
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.engine.client
+
+import org.apache.pekko
+import pekko.actor.{ ActorRef, ActorSystem }
+import pekko.http.impl.engine.client.PoolMetrics.SlotStatus
+import pekko.http.impl.util.PekkoSpecWithMaterializer
+import pekko.http.scaladsl.Http
+import pekko.http.scaladsl.model.{ HttpRequest, HttpResponse, StatusCodes }
+import pekko.testkit._
+
+import scala.concurrent.Await
+import scala.concurrent.duration._
+
+object TestPoolMetricsSpi {
+  @volatile var probe: ActorRef = ActorRef.noSender
+
+  final case class PoolStarted(pool: PoolMetrics.PoolInfo)
+  final case class SlotStatusChanged(from: SlotStatus, to: SlotStatus)
+  final case class ConnectionAttempt(succeeded: Boolean)
+  case object RequestDispatched
+  case object ResponseReceived
+  case object PoolStopped
+}
+class TestPoolMetricsSpi(system: ActorSystem) extends PoolMetricsSpi {
+  import TestPoolMetricsSpi._
+
+  override def poolStarted(pool: PoolMetrics.PoolInfo): PoolMetrics = {
+    probe ! PoolStarted(pool)
+    new PoolMetrics {
+      override def onSlotStatusChanged(from: SlotStatus, to: SlotStatus): Unit = probe ! SlotStatusChanged(from, to)
+      override def onRequestDispatched(timeInQueueNanos: Long): Unit = probe ! RequestDispatched
+      override def onConnectionAttempt(connectTimeNanos: Long, succeeded: Boolean): Unit =
+        probe ! ConnectionAttempt(succeeded)
+      override def onResponseReceived(timeToFirstByteNanos: Long): Unit = probe ! ResponseReceived
+      override def onPoolStopped(): Unit = probe ! PoolStopped
+    }
+  }
+}
+
+class PoolMetricsSpiSpec extends PekkoSpecWithMaterializer(
+      """
+     pekko.http.host-connection-pool-metrics-class = "org.apache.pekko.http.impl.engine.client.TestPoolMetricsSpi"
+  """) {
+  import TestPoolMetricsSpi._
+
+  "The pool metrics SPI" should {
+    "report the events of a pool" in {
+      val probe = TestProbe()
+      TestPoolMetricsSpi.probe = probe.ref
+
+      val binding = Await.result(Http().newServerAt("127.0.0.1", 0).bindSync(_ => HttpResponse()), 3.seconds.dilated)
+      val port = binding.localAddress.getPort
+
+      val response =
+        Await.result(Http().singleRequest(HttpRequest(uri = s"http://127.0.0.1:$port/")), 3.seconds.dilated)
+      response.status shouldBe StatusCodes.OK
+      response.discardEntityBytes()
+
+      val pool = probe.expectMsgType[PoolStarted].pool
+      pool.host shouldBe "127.0.0.1"
+      pool.port shouldBe port
+      pool.secure shouldBe false
+
+      probe.expectMsg(RequestDispatched)
+      probe.expectMsg(SlotStatusChanged(SlotStatus.Unconnected, SlotStatus.Connecting))
+      probe.fishForSpecificMessage() { case ConnectionAttempt(succeeded) => succeeded shouldBe true }
+      probe.fishForSpecificMessage() { case ResponseReceived => }
+      probe.fishForSpecificMessage() { case SlotStatusChanged(SlotStatus.Busy, SlotStatus.Idle) => }
+
+      Await.result(Http().shutdownAllConnectionPools(), 3.seconds.dilated)
+      probe.fishForSpecificMessage() { case PoolStopped => }
+
+      Await.ready(binding.unbind(), 1.second.dilated)
+    }
+  }
+}
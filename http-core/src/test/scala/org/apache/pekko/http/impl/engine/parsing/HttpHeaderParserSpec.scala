@@ -195,6 +195,16 @@ abstract class HttpHeaderParserSpec(mode: String, newLine: String) extends Pekko
       RawHeader("4-UTF8-Bytes", "Surrogate pairs: \uD801\uDC1B\uD801\uDC04\uD801\uDC1B!")
     }
 
+    "parse header values with special chars at any position within compact and fragmented input" in new TestSetup() {
+      for (offset <- 0 to 17) {
+        val value = "a" * offset + "€\tb" + "c" * offset
+        val bytes = ByteString(s"Fancy: $value${newLine} folded${newLine}x")
+        val expected = RawHeader("Fancy", "a" * offset + "€ b" + "c" * offset + " folded")
+        parseLineFromBytes(bytes)._2 shouldEqual expected
+        parseLineFromBytes(bytes.take(offset + 9) ++ bytes.drop(offset + 9))._2 shouldEqual expected
+      }
+    }
+
     "parse multiple header lines subsequently with UTF-8 characters one after another without crashing" in new TestSetup {
       parseLine(s"""Content-Disposition: form-data; name="test"; filename="λ"${newLine}x""")
       // The failing parsing line is one that must share a prefix with the utf-8 line up to the non-ascii char. The next character
@@ -298,6 +308,35 @@ abstract class HttpHeaderParserSpec(mode: String, newLine: String) extends Pekko
       } shouldEqual 12 // configured default per-header cache limit
     }
 
+    "only cache header values once they have been seen often enough" in new TestSetup(
+      parserSettings = createParserSettings(system, headerCacheAdmissionThreshold = 2)) {
+      val line = s"Fancy: foo${newLine}x"
+      val (_, first) = parseLine(line)
+      val (_, second) = parseLine(line)
+      val (_, third) = parseLine(line)
+      (first eq second) shouldBe false
+      (second should be).theSameInstanceAs(third)
+    }
+
+    "not let one-off header values use up the header-specific cache capacity" in new TestSetup(
+      parserSettings = createParserSettings(system, headerCacheAdmissionThreshold = 2)) {
+      // fixed values keep the test deterministic, hash collisions in the sketch may still admit a few of them
+      val traceIds = (1 to 100).map(i => RawHeader("Trace-Id", f"4bf92f3577b34da6a3ce929d0e0e$i%04x"))
+      traceIds.foreach(header => parseLine(header.toString + s"${newLine}x"))
+
+      // values seen repeatedly can still be cached
+      val repeated = (1 to 12).map(i => RawHeader("Trace-Id", s"repeated-$i"))
+      repeated.foreach(header => parseLine(header.toString + s"${newLine}x"))
+      repeated.map(header => parseAndCache(header.toString + s"${newLine}x", header)).sum shouldEqual 12
+    }
+
+    "estimate the frequency of distinct values independently in the frequency sketch" in {
+      val sketch = new HttpHeaderParser.FrequencySketch(HttpHeaderParser.FrequencySketch.DefaultExpectedValues)
+      val hashes = (1 to 500).map(_ * 0x01000193)
+      hashes.map(sketch.increment).count(_ > 1) shouldEqual 0
+      sketch.increment(hashes.head) shouldEqual 2
+    }
+
     "ignore headers whose value cannot be parsed" in new TestSetup(testSetupMode = TestSetupMode.Default) {
       noException should be thrownBy parseLine(s"Server: something; something${newLine}x")
       parseAndCache(s"Server: something; something${newLine}x")() shouldEqual RawHeader("server",
@@ -378,10 +417,13 @@ abstract class HttpHeaderParserSpec(mode: String, newLine: String) extends Pekko
       illegalResponseHeaderNameProcessingMode: IllegalResponseHeaderNameProcessingMode =
         IllegalResponseHeaderNameProcessingMode.Error,
       illegalResponseHeaderValueProcessingMode: IllegalResponseHeaderValueProcessingMode =
-        IllegalResponseHeaderValueProcessingMode.Error): ParserSettings =
+        IllegalResponseHeaderValueProcessingMode.Error,
+      // most tests check the trie itself, so values are cached the first time they are seen
+      headerCacheAdmissionThreshold: Int = 1): ParserSettings =
     ParserSettings(actorSystem)
       .withIllegalResponseHeaderValueProcessingMode(illegalResponseHeaderValueProcessingMode)
       .withIllegalResponseHeaderNameProcessingMode(illegalResponseHeaderNameProcessingMode)
+      .withHeaderCacheAdmissionThreshold(headerCacheAdmissionThreshold)
 
   abstract class TestSetup(testSetupMode: TestSetupMode = TestSetupMode.Primed,
       parserSettings: ParserSettings = createParserSettings(system)) {
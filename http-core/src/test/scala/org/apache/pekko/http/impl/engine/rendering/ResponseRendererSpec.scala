@@ -481,6 +481,58 @@ class ResponseRendererSpec extends AnyFreeSpec with Matchers with BeforeAndAfter
         }
       }
     }
+    "render a PreRenderedHeaders block" - {
+      "in place of the block" in new TestSetup(None) {
+        val block = PreRenderedHeaders(RawHeader("X-Fancy", "of course"), Age(0))
+        HttpResponse(200, List(RawHeader("X-Before", "1"), block, RawHeader("X-After", "2"))) should renderTo {
+          """HTTP/1.1 200 OK
+            |X-Before: 1
+            |X-Fancy: of course
+            |Age: 0
+            |X-After: 2
+            |Date: Thu, 25 Aug 2011 09:10:29 GMT
+            |Content-Length: 0
+            |
+            |"""
+        }
+      }
+      "flattening nested blocks" in {
+        val block = PreRenderedHeaders(PreRenderedHeaders(Age(0)), RawHeader("X-Fancy", "of course"))
+        block.headers shouldEqual List(Age(0), RawHeader("X-Fancy", "of course"))
+      }
+      "not if it contains headers that are managed by the server or contain CRLF" in {
+        an[IllegalArgumentException] should be thrownBy PreRenderedHeaders(Server("server/1.0"))
+        an[IllegalArgumentException] should be thrownBy PreRenderedHeaders(RawHeader("Content-Length", "5"))
+        an[IllegalArgumentException] should be thrownBy PreRenderedHeaders(RawHeader("Test", "abc\ndef"))
+      }
+    }
+    "render status lines and content types repeatedly" in new TestSetup(None) {
+      for (_ <- 1 to 2) {
+        // a new but equal content type for every response, as built by application code
+        val contentType = ContentType(MediaTypes.`application/xml`, HttpCharsets.`UTF-8`)
+        HttpResponse(StatusCodes.NotFound, entity = HttpEntity(contentType, "<a/>")) should renderTo {
+          """HTTP/1.1 404 Not Found
+            |Date: Thu, 25 Aug 2011 09:10:29 GMT
+            |Content-Type: application/xml; charset=UTF-8
+            |Content-Length: 4
+            |
+            |<a/>"""
+        }
+      }
+    }
+    "render content types that differ only in case as given" in new TestSetup(None) {
+      for (boundary <- List("ABC", "abc", "ABC")) {
+        val contentType = ContentType(MediaTypes.`multipart/form-data`.withBoundary(boundary))
+        HttpResponse(entity = HttpEntity(contentType, ByteString("--"))) should renderTo {
+          s"""HTTP/1.1 200 OK
+            |Date: Thu, 25 Aug 2011 09:10:29 GMT
+            |Content-Type: multipart/form-data; boundary=$boundary
+            |Content-Length: 2
+            |
+            |--"""
+        }
+      }
+    }
     "render headers safely" - {
       val defaultResponse =
         """HTTP/1.1 200 OK
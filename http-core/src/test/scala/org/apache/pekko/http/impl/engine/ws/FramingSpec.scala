@@ -301,6 +301,28 @@ class FramingSpec extends PekkoSpecWithMaterializer {
     }
   }
 
+  "Masking payload data" should {
+    "produce the same result as masking byte by byte for all lengths" in {
+      val mask = 0xFEDCBA09
+      val maskBytes = Array[Byte](0xFE.toByte, 0xDC.toByte, 0xBA.toByte, 0x09.toByte)
+      (0 to 37).foreach { length =>
+        val data = ByteString(Array.tabulate[Byte](length)(_.toByte))
+        val expected = ByteString(data.zipWithIndex.map { case (b, i) => (b ^ maskBytes(i % 4)).toByte }.toArray)
+
+        val (masked, newMask) = FrameEventParser.mask(data, mask)
+        masked shouldEqual expected
+        newMask shouldEqual Integer.rotateLeft(mask, (length % 4) * 8)
+        FrameEventParser.mask(masked, mask)._1 shouldEqual data
+      }
+    }
+    "continue with the rotated mask across chunks" in {
+      val data = ByteString(Array.tabulate[Byte](100)(i => (i * 7).toByte))
+      val (first, second) = data.splitAt(13)
+      val (maskedFirst, nextMask) = FrameEventParser.mask(first, 0x12345678)
+      maskedFirst ++ FrameEventParser.mask(second, nextMask)._1 shouldEqual FrameEventParser.mask(data, 0x12345678)._1
+    }
+  }
+
   private def parseTo(events: FrameEvent*): Matcher[ByteString] =
     parseMultipleTo(events: _*).compose(Seq(_))
 
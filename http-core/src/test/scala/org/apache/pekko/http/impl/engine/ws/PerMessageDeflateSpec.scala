@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.engine.ws
+
+import scala.collection.immutable
+import scala.concurrent.Future
+import scala.concurrent.duration._
+import org.apache.pekko
+import pekko.http.impl.engine.ws.PerMessageDeflate._
+import pekko.http.impl.settings.WebSocketSettingsImpl
+import pekko.http.impl.util._
+import pekko.http.scaladsl.model.headers.WebSocketExtension
+import pekko.stream.scaladsl.{ Sink, Source }
+import pekko.util.ByteString
+import Protocol.Opcode
+
+class PerMessageDeflateSpec extends PekkoSpecWithMaterializer {
+  val settings = WebSocketSettingsImpl.serverFromRoot(system.settings.config).withPerMessageDeflateEnabled(true)
+  val negotiated = Future.successful(Some(Parameters(compressionLevel = 6, noContextTakeover = false)))
+
+  // the example from https://tools.ietf.org/html/rfc7692#section-7.2.3.1
+  val compressedHello = ByteString(0xF2, 0x48, 0xCD, 0xC9, 0xC9, 0x07, 0x00)
+
+  "The permessage-deflate negotiation" should {
+    "accept a plain offer on the server" in {
+      val Some((parameters, response)) = negotiateServer(WebSocketExtension(ExtensionName) :: Nil, settings)
+      parameters shouldEqual Parameters(6, noContextTakeover = false)
+      response shouldEqual WebSocketExtension(ExtensionName)
+    }
+    "decline offers when the extension is disabled" in {
+      val disabled = settings.withPerMessageDeflateEnabled(false)
+      negotiateServer(WebSocketExtension(ExtensionName) :: Nil, disabled) shouldEqual None
+    }
+    "honor server_no_context_takeover and confirm server_max_window_bits=15" in {
+      val offer = WebSocketExtension(ExtensionName, Map(ServerNoContextTakeover -> "", ServerMaxWindowBits -> "15"))
+      val Some((parameters, response)) = negotiateServer(offer :: Nil, settings)
+      parameters.noContextTakeover shouldBe true
+      response.params shouldEqual Map(ServerNoContextTakeover -> "", ServerMaxWindowBits -> "15")
+    }
+    "skip offers requiring a smaller server window and pick the fallback offer" in {
+      val offers =
+        WebSocketExtension(ExtensionName, Map(ServerMaxWindowBits -> "10")) ::
+        WebSocketExtension(ExtensionName, Map(ClientMaxWindowBits -> "")) :: Nil
+      val Some((_, response)) = negotiateServer(offers, settings)
+      response shouldEqual WebSocketExtension(ExtensionName)
+    }
+    "decline offers with unknown parameters" in {
+      negotiateServer(WebSocketExtension(ExtensionName, Map("foo" -> "bar")) :: Nil, settings) shouldEqual None
+    }
+    "validate the server response on the client" in {
+      val offer = clientOffer(settings)
+      offer shouldEqual Some(WebSocketExtension(ExtensionName))
+
+      negotiateClient(Nil, offer, settings) shouldEqual Right(None)
+      val accepted = WebSocketExtension(ExtensionName, Map(ClientNoContextTakeover -> ""))
+      negotiateClient(accepted :: Nil, offer, settings) shouldEqual Right(Some(Parameters(6, noContextTakeover = true)))
+      negotiateClient(WebSocketExtension(ExtensionName) :: Nil, None, settings).isLeft shouldBe true
+      negotiateClient(WebSocketExtension(ExtensionName, Map(ClientMaxWindowBits -> "10")) :: Nil, offer, settings)
+        .isLeft shouldBe true
+    }
+  }
+
+  "The permessage-deflate layer" should {
+    "decompress a compressed message" in {
+      inflate(FrameEvent.fullFrame(Opcode.Text, None, compressedHello, fin = true, rsv1 = true)) shouldEqual
+      Seq(FrameEvent.fullFrame(Opcode.Text, None, ByteString("Hello"), fin = true))
+    }
+    "decompress a compressed message split into fragments and frame parts" in {
+      val (first, second) = compressedHello.splitAt(3)
+      inflate(
+        FrameStart(FrameHeader(Opcode.Text, None, first.length, fin = false, rsv1 = true), first.take(1)),
+        FrameData(first.drop(1), lastPart = true),
+        FrameEvent.fullFrame(Opcode.Ping, None, ByteString.empty, fin = true),
+        FrameEvent.fullFrame(Opcode.Continuation, None, second, fin = true)).collect {
+        case FrameStart(header, data) if !header.opcode.isControl => data
+      }.reduce(_ ++ _) shouldEqual ByteString("Hello")
+    }
+    "pass on uncompressed messages and control frames unchanged" in {
+      val frames = Seq(
+        FrameEvent.fullFrame(Opcode.Binary, None, ByteString("abc"), fin = true),
+        FrameEvent.fullFrame(Opcode.Ping, None, ByteString("ping"), fin = true))
+      inflate(frames: _*) shouldEqual frames
+    }
+    "leave a compressed continuation frame to the frame handler" in {
+      val frame = FrameEvent.fullFrame(Opcode.Continuation, None, compressedHello, fin = true, rsv1 = true)
+      inflate(frame) shouldEqual Seq(frame)
+    }
+    "report invalid compressed data as a protocol error" in {
+      val Seq(FrameError(ex)) =
+        inflate(FrameEvent.fullFrame(Opcode.Binary, None, ByteString(0xFF, 0xFF, 0xFF), fin = true, rsv1 = true))
+      ex shouldBe a[ProtocolException]
+    }
+    "compress messages as specified" in {
+      deflate(FrameEvent.fullFrame(Opcode.Text, None, ByteString("Hello"), fin = true)) shouldEqual
+      Seq(FrameEvent.fullFrame(Opcode.Text, None, compressedHello, fin = true, rsv1 = true))
+    }
+    "compress an empty message to a single byte" in {
+      deflate(FrameEvent.fullFrame(Opcode.Binary, None, ByteString.empty, fin = true)) shouldEqual
+      Seq(FrameEvent.fullFrame(Opcode.Binary, None, ByteString(0x00), fin = true, rsv1 = true))
+    }
+    "round-trip fragmented messages across context takeover" in {
+      val data = ByteString("abcdefghij" * 100)
+      val frames = Seq(
+        FrameEvent.fullFrame(Opcode.Binary, None, data, fin = false),
+        FrameEvent.fullFrame(Opcode.Ping, None, ByteString.empty, fin = true),
+        FrameEvent.fullFrame(Opcode.Continuation, None, data, fin = false),
+        FrameEvent.emptyLastContinuationFrame,
+        FrameEvent.fullFrame(Opcode.Text, None, data, fin = true))
+
+      val compressed = deflate(frames: _*)
+      compressed.map(_.asInstanceOf[FrameStart].header.rsv1) shouldEqual Seq(true, false, false, false, true)
+      compressed.map(_.data.length).sum should be < data.length
+
+      val messages = inflate(compressed: _*).collect { case FrameStart(header, payload) => (header.opcode, payload) }
+      messages.filter(_._1 == Opcode.Text).map(_._2) shouldEqual Seq(data)
+      messages.filterNot(m => m._1 == Opcode.Text || m._1 == Opcode.Ping).map(_._2).reduce(_ ++ _) shouldEqual
+      data ++ data
+    }
+  }
+
+  def inflate(events: FrameEventOrError*): immutable.Seq[FrameEventOrError] =
+    Source(events.toList).via(inflating(negotiated)).runWith(Sink.seq).awaitResult(3.seconds)
+
+  def deflate(frames: FrameStart*): immutable.Seq[FrameEvent] =
+    Source(frames.toList).via(deflating(negotiated)).runWith(Sink.seq).awaitResult(3.seconds)
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.util
+
+import java.nio.file.{ Files, Path }
+
+import org.apache.pekko
+import pekko.stream.scaladsl.{ Sink, Source }
+import pekko.util.ByteString
+import pekko.testkit._
+
+import scala.concurrent.Await
+import scala.concurrent.duration._
+
+class FileRegionSourceSpec extends PekkoSpecWithMaterializer {
+  val content = ByteString(Array.tabulate[Byte](1000)(_.toByte))
+
+  def withFile(body: Path => Unit): Unit = {
+    val file = Files.createTempFile("pekko-http-file-region", ".bin")
+    try {
+      Files.write(file, content.toArray)
+      body(file)
+    } finally Files.delete(file)
+  }
+
+  def read(file: Path, position: Long, length: Long, chunkSize: Int): Seq[ByteString] =
+    Await.result(FileRegionSource(file, position, length, chunkSize).runWith(Sink.seq), 3.seconds.dilated)
+
+  "FileRegionSource" should {
+    "read a complete file in chunks" in withFile { file =>
+      val chunks = read(file, 0, content.length, 300)
+      chunks.map(_.length) shouldEqual Seq(300, 300, 300, 100)
+      chunks.reduce(_ ++ _) shouldEqual content
+    }
+
+    "read only the given region of a file" in withFile { file =>
+      read(file, 100, 250, 100).reduce(_ ++ _) shouldEqual content.slice(100, 350)
+    }
+
+    "stop at the end of a file that is shorter than the region" in withFile { file =>
+      read(file, 900, 500, 64).reduce(_ ++ _) shouldEqual content.drop(900)
+    }
+
+    "complete immediately for an empty region" in withFile { file =>
+      read(file, 0, 0, 64) shouldBe empty
+    }
+
+    "read a part of a region directly from the file" in withFile { file =>
+      val sliced = FileRegionSource.slice(FileRegionSource(file, 100, 500, 64), 50, 200)
+      sliced should not be empty
+      Await.result(sliced.get.runWith(Sink.seq), 3.seconds.dilated).reduce(_ ++ _) shouldEqual content.slice(150, 350)
+    }
+
+    "not slice other sources or transformed file regions" in withFile { file =>
+      val source = Source.single(content)
+      FileRegionSource.isFileRegion(source) shouldBe false
+      FileRegionSource.slice(source, 0, 10) shouldBe empty
+      FileRegionSource.slice(FileRegionSource(file, 0, 100).map(identity), 0, 10) shouldBe empty
+    }
+  }
+}
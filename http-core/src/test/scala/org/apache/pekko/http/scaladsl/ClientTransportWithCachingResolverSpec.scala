@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.scaladsl
+
+import java.net.InetAddress
+
+import org.apache.pekko
+import pekko.Done
+import pekko.actor.ExtendedActorSystem
+import pekko.http.impl.engine.client.CachingResolver
+import pekko.http.impl.util.PekkoSpecWithMaterializer
+import pekko.http.scaladsl.model._
+import pekko.http.scaladsl.settings.{ ClientConnectionSettings, ConnectionPoolSettings }
+import pekko.stream.scaladsl.{ Flow, Sink }
+import pekko.testkit._
+
+import scala.concurrent.{ Await, Future, Promise }
+import scala.concurrent.duration._
+
+class ClientTransportWithCachingResolverSpec
+    extends PekkoSpecWithMaterializer("pekko.http.client.caching-resolver.min-ttl = 100 ms") {
+  val TestHost = "caching-resolver.test"
+  val address1 = InetAddress.getByName("127.0.0.1")
+  val address2 = InetAddress.getByName("127.0.0.2")
+  val address3 = InetAddress.getByName("127.0.0.3")
+
+  def resolverFor(answer: => List[InetAddress], ttl: FiniteDuration = 1.minute): CachingResolver =
+    new CachingResolver(system.asInstanceOf[ExtendedActorSystem], _ => Future.successful(answer.map(_ -> ttl)))
+
+  def resolveAddress(resolver: CachingResolver): InetAddress =
+    Await.result(resolver.resolve(TestHost, 80), 3.seconds.dilated).getAddress
+
+  def poolSettings(transport: ClientTransport): ConnectionPoolSettings =
+    ConnectionPoolSettings(system)
+      .withConnectionSettings(ClientConnectionSettings(system).withTransport(transport))
+
+  "The caching resolver" should {
+
+    "connect to the resolved address and remember the answer" in {
+      val binding = Await.result(Http().newServerAt("127.0.0.1", 0).bindSync(_ => HttpResponse()), 3.seconds.dilated)
+      val port = binding.localAddress.getPort
+
+      val cachingResolverPool = poolSettings(ClientTransport.withCachingResolver())
+
+      (1 to 3).foreach { _ =>
+        val resp =
+          Await.result(Http().singleRequest(HttpRequest(uri = s"http://127.0.0.1:$port/"), settings = cachingResolverPool),
+            3.seconds.dilated)
+        resp.status shouldBe StatusCodes.OK
+        resp.discardEntityBytes()
+      }
+
+      val resolver = CachingResolver(system)
+      resolver.isCurrent("127.0.0.1", InetAddress.getByName("127.0.0.1")) shouldBe true
+      resolver.isCurrent("127.0.0.1", InetAddress.getByName("127.0.0.2")) shouldBe false
+
+      Await.ready(binding.unbind(), 1.second.dilated)
+    }
+
+    "rotate over all addresses of a host" in {
+      val resolver = resolverFor(List(address1, address2, address3))
+
+      List.fill(4)(resolveAddress(resolver)) shouldBe List(address1, address2, address3, address1)
+    }
+
+    "skip addresses that connection attempts failed to" in {
+      val resolver = resolverFor(List(address1, address2))
+      resolver.eject(address1)
+
+      List.fill(3)(resolveAddress(resolver)) shouldBe List(address2, address2, address2)
+    }
+
+    "refresh watched hosts in the background and stop using addresses that have disappeared" in {
+      @volatile var answer = List(address1, address2)
+      val resolver = resolverFor(answer, ttl = 200.millis)
+      val changed = Promise[Done]()
+      val watch = resolver.watch(TestHost, () => changed.trySuccess(Done))
+      resolveAddress(resolver) shouldBe address1
+
+      answer = List(address2)
+      Await.result(changed.future, 3.seconds.dilated)
+
+      resolver.isCurrent(TestHost, address1) shouldBe false
+      resolver.isCurrent(TestHost, address2) shouldBe true
+      List.fill(2)(resolveAddress(resolver)) shouldBe List(address2, address2)
+      watch.cancel()
+    }
+
+    "close idle pool connections to addresses that have disappeared from the answer" in {
+      val connectionClosed = Promise[Done]()
+      val binding = Await.result(
+        Http().newServerAt("127.0.0.1", 0).connectionSource().to(Sink.foreach { connection =>
+          connection.handleWith(Flow[HttpRequest].map(_ => HttpResponse()).watchTermination() { (_, done) =>
+            connectionClosed.completeWith(done)
+          })
+        }).run(), 3.seconds.dilated)
+      val port = binding.localAddress.getPort
+
+      @volatile var answer = List(address1)
+      val resolver = resolverFor(answer, ttl = 200.millis)
+      val pool = poolSettings(new ClientTransport.CachingResolverTransport(_ => resolver))
+
+      val resp =
+        Await.result(Http().singleRequest(HttpRequest(uri = s"http://$TestHost:$port/"), settings = pool),
+          3.seconds.dilated)
+      resp.status shouldBe StatusCodes.OK
+      resp.discardEntityBytes()
+      connectionClosed.isCompleted shouldBe false
+
+      // the idle connection is closed once the pool learns about the new answer
+      answer = List(address2)
+      Await.result(connectionClosed.future, 3.seconds.dilated) shouldBe Done
+
+      Await.ready(binding.unbind(), 1.second.dilated)
+    }
+
+    "be a single transport instance so that pools are shared" in {
+      ClientTransport.withCachingResolver() shouldBe theSameInstanceAs(ClientTransport.withCachingResolver())
+    }
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.scaladsl.coding
+
+import java.io.{ InputStream, OutputStream }
+import java.util.zip.ZipException
+
+import com.aayushatharva.brotli4j.Brotli4jLoader
+import com.aayushatharva.brotli4j.decoder.BrotliInputStream
+import com.aayushatharva.brotli4j.encoder.BrotliOutputStream
+import org.apache.pekko
+import pekko.http.impl.util._
+import pekko.util.ByteString
+import scala.annotation.nowarn
+
+@nowarn("msg=deprecated .* is internal API")
+class BrotliSpec extends CoderSpec {
+  Brotli4jLoader.ensureAvailability()
+
+  protected def Coder: Coder = Coders.Brotli
+
+  protected def newDecodedInputStream(underlying: InputStream): InputStream =
+    new BrotliInputStream(underlying)
+
+  protected def newEncodedOutputStream(underlying: OutputStream): OutputStream =
+    new BrotliOutputStream(underlying)
+
+  // the brotli format has no checksum, so a corrupted byte isn't guaranteed to be detected
+  override protected def corruptInputCheck: Boolean = false
+
+  override def extraTests(): Unit = {
+    "be part of the default coders" in {
+      Coders.DefaultCoders should contain(Coders.Brotli)
+    }
+    "throw an error on truncated input" in {
+      val ex = the[RuntimeException] thrownBy ourDecode(streamEncode(largeTextBytes).dropRight(5))
+      ex.ultimateCause should ((be(a[ZipException]) and have).message("Truncated Brotli stream"))
+    }
+    "throw an error if compressed data is just missing the end of the stream" in {
+      def brokenCompress(payload: String) = Coders.Brotli.newCompressor.compressAndFlush(ByteString(payload, "UTF-8"))
+      val ex = the[RuntimeException] thrownBy ourDecode(brokenCompress("abcdefghijkl"))
+      ex.ultimateCause.getMessage should equal("Truncated Brotli stream")
+    }
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.scaladsl.coding
+
+import java.io.{ InputStream, OutputStream }
+import java.util.zip.{ DataFormatException, ZipException }
+
+import com.github.luben.zstd.{ ZstdInputStream, ZstdOutputStream }
+import org.apache.pekko
+import pekko.http.impl.util._
+import pekko.util.ByteString
+
+class ZstdSpec extends CoderSpec {
+  protected def Coder: Coder = Coders.Zstd
+
+  protected def newDecodedInputStream(underlying: InputStream): InputStream =
+    new ZstdInputStream(underlying)
+
+  protected def newEncodedOutputStream(underlying: OutputStream): OutputStream =
+    new ZstdOutputStream(underlying)
+
+  // corrupting a single byte of a frame without checksum isn't guaranteed to be detected
+  override protected def corruptInputCheck: Boolean = false
+
+  override def extraTests(): Unit = {
+    "be part of the default coders" in {
+      Coders.DefaultCoders should contain(Coders.Zstd)
+    }
+    "decode concatenated frames" in {
+      ourDecode(Seq(encode("Hello, "), encode("dear "), encode("User!")).join) should readAs("Hello, dear User!")
+    }
+    "throw an error on truncated input" in {
+      val ex = the[RuntimeException] thrownBy ourDecode(streamEncode(largeTextBytes).dropRight(5))
+      ex.ultimateCause should ((be(a[ZipException]) and have).message("Truncated zstd stream"))
+    }
+    "throw early if the frame header is corrupt" in {
+      val cause = (the[RuntimeException] thrownBy ourDecode(ByteString(0, 1, 2, 3, 4))).ultimateCause
+      cause should be(a[DataFormatException])
+    }
+  }
+}
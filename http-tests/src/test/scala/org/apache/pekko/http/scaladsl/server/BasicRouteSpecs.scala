@@ -19,6 +19,8 @@ import model.HttpMethods._
 import model.StatusCodes
 import pekko.testkit.EventFilter
 
+import scala.concurrent.Future
+
 object BasicRouteSpecs {
   private[http] def defaultExnHandler500Error(message: String) = {
     ExceptionHandler.ErrorMessageTemplate
@@ -87,6 +89,33 @@ class BasicRouteSpecs extends RoutingSpec {
           get { completeOk })
       } ~> check { rejection shouldEqual MissingQueryParamRejection("yeah") }
     }
+    "collect rejections of all sub routes in order, skipping empty ones" in {
+      Delete() ~> {
+        concat(
+          get { completeOk },
+          reject,
+          put { completeOk },
+          post { completeOk })
+      } ~> check { rejections shouldEqual Seq(MethodRejection(GET), MethodRejection(PUT), MethodRejection(POST)) }
+    }
+    "continue with the next sub route after an asynchronous rejection" in {
+      Get() ~> {
+        concat(
+          onSuccess(Future { Thread.sleep(10) }) { reject(ValidationRejection("async")) },
+          post { completeOk },
+          get { complete("third") })
+      } ~> check { responseAs[String] shouldEqual "third" }
+    }
+    "turn an exception thrown by a sub route into a failed result" in EventFilter[MyException.type](
+      occurrences = 1,
+      message = BasicRouteSpecs.defaultExnHandler500Error("Boom")).intercept {
+      Get() ~> Route.seal {
+        concat(
+          post { completeOk },
+          _ => throw MyException,
+          get { completeOk })
+      } ~> check { status shouldEqual StatusCodes.InternalServerError }
+    }
   }
 
   "Route conjunction" should {
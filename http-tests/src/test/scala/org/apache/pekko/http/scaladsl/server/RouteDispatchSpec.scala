@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.scaladsl.server
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.apache.pekko
+import pekko.http.scaladsl.model.HttpMethods._
+
+class RouteDispatchSpec extends RoutingSpec {
+
+  val completeWithUnmatchedPath = extractUnmatchedPath { p => complete(p.toString) }
+
+  "a RouteDispatch route" should {
+    "dispatch on a static path prefix and consume it" in {
+      val route = RouteDispatch(
+        RouteDispatch.pathPrefix("users")(complete("users")),
+        RouteDispatch.pathPrefix("orders/open")(completeWithUnmatchedPath))
+
+      Get("/users") ~> route ~> check { responseAs[String] shouldEqual "users" }
+      Get("/orders/open/42") ~> route ~> check { responseAs[String] shouldEqual "/42" }
+      Get("/orders/closed") ~> route ~> check { handled shouldEqual false }
+    }
+    "match prefixes within a segment like `pathPrefix`" in {
+      val route = RouteDispatch(RouteDispatch.pathPrefix("foo")(completeWithUnmatchedPath))
+
+      Get("/foobar/baz") ~> route ~> check { responseAs[String] shouldEqual "bar/baz" }
+      Get("/fo") ~> route ~> check { handled shouldEqual false }
+    }
+    "not treat an encoded slash as a path separator" in {
+      val route = RouteDispatch(RouteDispatch.pathPrefix("a/b")(complete("ok")))
+
+      Get("/a/b") ~> route ~> check { responseAs[String] shouldEqual "ok" }
+      Get("/a%2Fb") ~> route ~> check { handled shouldEqual false }
+    }
+    "try candidates in declaration order, including dynamic branches" in {
+      val route = RouteDispatch(
+        RouteDispatch.pathPrefix("users/admin")(reject),
+        RouteDispatch.dynamic(path("users" / IntNumber) { id => complete(s"user $id") }),
+        RouteDispatch.pathPrefix("users")(complete("users")))
+
+      Get("/users/admin") ~> route ~> check { responseAs[String] shouldEqual "users" }
+      Get("/users/42") ~> route ~> check { responseAs[String] shouldEqual "user 42" }
+    }
+    "only evaluate branches that can match" in {
+      val evaluated = new AtomicInteger
+      val counting: Route = ctx => { evaluated.incrementAndGet(); reject(ctx) }
+      val route = RouteDispatch(
+        (1 to 100).map(i => RouteDispatch.pathPrefix(s"endpoint$i/")(counting)) :+
+        RouteDispatch.pathPrefix("endpoint7/")(complete("seven")): _*)
+
+      Get("/endpoint7/x") ~> route ~> check { responseAs[String] shouldEqual "seven" }
+      evaluated.get shouldEqual 1
+    }
+    "reject with a MethodRejection for a matching path with a different method" in {
+      val route = RouteDispatch(
+        RouteDispatch.pathPrefix("users", GET)(complete("get")),
+        RouteDispatch.pathPrefix("users", PUT)(complete("put")),
+        RouteDispatch.pathPrefix("orders", POST)(complete("post")))
+
+      Put("/users") ~> route ~> check { responseAs[String] shouldEqual "put" }
+      Delete("/users") ~> route ~> check { rejections shouldEqual List(MethodRejection(GET), MethodRejection(PUT)) }
+    }
+    "cancel MethodRejections of skipped branches once the method matches" in {
+      val route = RouteDispatch(
+        RouteDispatch.pathPrefix("users", GET)(reject),
+        RouteDispatch.method(POST)(reject(ValidationRejection("invalid"))))
+
+      Post("/users") ~> route ~> check {
+        RejectionHandler.applyTransformations(rejections) shouldEqual List(ValidationRejection("invalid"))
+      }
+    }
+    "reject without rejections if no branch matches" in {
+      val route = RouteDispatch(RouteDispatch.pathPrefix("users")(complete("users")))
+
+      Get("/orders") ~> route ~> check { rejections shouldEqual Nil }
+    }
+  }
+}
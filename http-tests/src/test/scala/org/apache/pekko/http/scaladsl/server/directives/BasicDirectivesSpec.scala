@@ -21,6 +21,7 @@ import pekko.http.scaladsl.model._
 import pekko.stream.scaladsl.Source
 import pekko.util.ByteString
 
+import scala.concurrent.Future
 import scala.concurrent.duration._
 
 class BasicDirectivesSpec extends RoutingSpec {
@@ -161,6 +162,28 @@ class BasicDirectivesSpec extends RoutingSpec {
     }
   }
 
+  "The mapRouteResultPF directive" should {
+    val rejectedToNotFound = mapRouteResultPF {
+      case RouteResult.Rejected(_) => RouteResult.Complete(HttpResponse(StatusCodes.NotFound))
+    }
+    val asyncReject: Route = ctx => Future(RouteResult.Rejected(Nil))(ctx.executionContext)
+
+    "transform synchronously available results" in {
+      Get() ~> rejectedToNotFound { reject } ~> check { status shouldEqual StatusCodes.NotFound }
+    }
+    "transform asynchronously available results" in {
+      Get() ~> rejectedToNotFound { asyncReject } ~> check { status shouldEqual StatusCodes.NotFound }
+    }
+    "leave results it is not defined for untouched" in {
+      Get() ~> rejectedToNotFound { complete("Hello World") } ~> check { responseAs[String] shouldEqual "Hello World" }
+    }
+    "turn exceptions thrown while transforming a synchronously available result into failures" in {
+      Get() ~> mapRouteResultPF { case _ => throw new IllegalStateException("errrorr") } {
+        complete("Hello World")
+      } ~> check { status shouldEqual StatusCodes.InternalServerError }
+    }
+  }
+
   "The `extractStrictEntity` directive" should {
     "change request to contain strict entity for inner routes" in {
       val chunks = () => List("Akka", "HTTP").map(HttpEntity.Chunk(_)).iterator
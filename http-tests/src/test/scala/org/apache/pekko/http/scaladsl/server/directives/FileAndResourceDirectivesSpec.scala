@@ -142,6 +142,59 @@ class FileAndResourceDirectivesSpec extends RoutingSpec with Inspectors with Ins
         }
       } finally file.delete
     }
+
+    val precompressed = withSettings(RoutingSettings.default.withFileGetPrecompressed(true))
+    def withPrecompressedVariants(test: File => Unit): Unit = {
+      val file = File.createTempFile("pekkoHttpTest", ".js")
+      val br = new File(file.getPath + ".br")
+      val gz = new File(file.getPath + ".gz")
+      try {
+        writeAllText("original", file)
+        writeAllText("brotli", br)
+        writeAllText("gzipped", gz)
+        test(file)
+      } finally {
+        file.delete
+        br.delete
+        gz.delete
+      }
+    }
+
+    "serve the pre-compressed variant preferred by the client if enabled" in withPrecompressedVariants { file =>
+      Get() ~> `Accept-Encoding`(HttpEncodings.gzip, HttpEncodings.br.withQValue(0.5f)) ~>
+      precompressed(getFromFile(file)) ~> check {
+        mediaType shouldEqual `application/javascript`
+        header[`Content-Encoding`] shouldEqual Some(`Content-Encoding`(HttpEncodings.gzip))
+        header("Vary").map(_.value) shouldEqual Some("Accept-Encoding")
+        responseAs[String] shouldEqual "gzipped"
+      }
+    }
+    "prefer the brotli variant if the client accepts several encodings equally" in withPrecompressedVariants { file =>
+      Get() ~> `Accept-Encoding`(HttpEncodings.gzip, HttpEncodings.deflate, HttpEncodings.br) ~>
+      precompressed(getFromFile(file)) ~> check {
+        header[`Content-Encoding`] shouldEqual Some(`Content-Encoding`(HttpEncodings.br))
+        responseAs[String] shouldEqual "brotli"
+      }
+    }
+    "serve the original file if no pre-compressed variant is accepted" in withPrecompressedVariants { file =>
+      Get() ~> `Accept-Encoding`(HttpEncodings.deflate, HttpEncodings.identity) ~>
+      precompressed(getFromFile(file)) ~> check {
+        header[`Content-Encoding`] shouldEqual None
+        header("Vary").map(_.value) shouldEqual Some("Accept-Encoding")
+        responseAs[String] shouldEqual "original"
+      }
+      Get() ~> precompressed(getFromFile(file)) ~> check {
+        header[`Content-Encoding`] shouldEqual None
+        responseAs[String] shouldEqual "original"
+      }
+    }
+    "not serve pre-compressed variants if disabled" in withPrecompressedVariants { file =>
+      Get() ~> `Accept-Encoding`(HttpEncodings.gzip) ~> getFromFile(file) ~> check {
+        header[`Content-Encoding`] shouldEqual None
+        header("Vary") shouldEqual None
+        responseAs[String] shouldEqual "original"
+      }
+    }
   }
 
   "getFromDirectory" should {
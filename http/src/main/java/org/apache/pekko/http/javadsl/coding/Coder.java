@@ -17,6 +17,7 @@ import java.util.concurrent.CompletionStage;
 
 import org.apache.pekko.http.javadsl.model.HttpRequest;
 import org.apache.pekko.http.javadsl.model.HttpResponse;
+import org.apache.pekko.http.scaladsl.coding.Coders;
 import org.apache.pekko.http.scaladsl.coding.Deflate$;
 import org.apache.pekko.http.scaladsl.coding.Gzip$;
 import org.apache.pekko.http.scaladsl.coding.NoCoding$;
@@ -32,7 +33,11 @@ public enum Coder {
     DeflateLevel1(Deflate$.MODULE$.withLevel(1)),
     DeflateLevel9(Deflate$.MODULE$.withLevel(9)),
     GzipLevel1(Gzip$.MODULE$.withLevel(1)),
-    GzipLevel9(Gzip$.MODULE$.withLevel(9));
+    GzipLevel9(Gzip$.MODULE$.withLevel(9)),
+    /** Needs the optional {@code com.aayushatharva.brotli4j:brotli4j} library and its native library on the classpath */
+    Brotli(Coders.Brotli()),
+    /** Needs the optional {@code com.github.luben:zstd-jni} library on the classpath */
+    Zstd(Coders.Zstd());
 
     private org.apache.pekko.http.scaladsl.coding.Coder underlying;
 
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.scaladsl.coding
+
+import java.io.OutputStream
+import java.util.zip.{ DataFormatException, ZipException }
+
+import com.aayushatharva.brotli4j.Brotli4jLoader
+import com.aayushatharva.brotli4j.decoder.DecoderJNI
+import com.aayushatharva.brotli4j.encoder.{ BrotliOutputStream, Encoder => BrotliEncoder }
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.http.scaladsl.model._
+import pekko.http.scaladsl.model.headers.HttpEncodings
+import pekko.util.{ ByteString, ByteStringBuilder }
+
+import scala.annotation.tailrec
+import scala.util.control.NonFatal
+
+/**
+ * Internal API
+ *
+ * An encoder and decoder for the HTTP 'br' encoding (RFC 7932), backed by the optional `brotli4j` library
+ * which needs to be added to the classpath (together with the native library artifact for the platform).
+ */
+@InternalApi
+private[http] class Brotli(quality: Int, val messageFilter: HttpMessage => Boolean) extends Coder
+    with StreamDecoder {
+  val encoding = HttpEncodings.br
+  def newCompressor = {
+    Brotli.ensureAvailability()
+    new BrotliCompressor(quality)
+  }
+  def newDecompressorStage(maxBytesPerChunk: Int) = {
+    Brotli.ensureAvailability()
+    () => new BrotliDecompressor(maxBytesPerChunk)
+  }
+}
+
+/** Internal API */
+@InternalApi
+private[http] object Brotli {
+  // higher levels are meant for offline compression of static resources
+  val DefaultQuality = 4
+
+  private[this] lazy val available: Boolean =
+    try {
+      Brotli4jLoader.ensureAvailability()
+      true
+    } catch {
+      case _: LinkageError => false
+      case NonFatal(_)     => false
+    }
+
+  /** Whether brotli4j and its native library could be loaded */
+  def isAvailable: Boolean = available
+
+  def ensureAvailability(): Unit =
+    if (!isAvailable)
+      throw new UnsupportedOperationException(
+        "The 'br' content coding needs `com.aayushatharva.brotli4j:brotli4j` and its native library on the classpath")
+}
+
+/** Internal API */
+@InternalApi
+private[coding] class BrotliCompressor(quality: Int) extends OutputStreamCompressor {
+  require(quality >= 0 && quality <= 11, "Brotli quality needs to be between 0 and 11")
+
+  protected def newCompressingStream(underlying: OutputStream): OutputStream =
+    new BrotliOutputStream(underlying, new BrotliEncoder.Parameters().setQuality(quality))
+}
+
+/** Internal API */
+@InternalApi
+private[coding] class BrotliDecompressor(maxBytesPerChunk: Int = Decoder.MaxBytesPerChunkDefault)
+    extends PushDecompressorStage(maxBytesPerChunk) {
+  import DecoderJNI.Status
+
+  protected def newDecompression(): Decompression = new Decompression {
+    private[this] val decoder = new DecoderJNI.Wrapper(BrotliDecompressor.InputBufferSize)
+    private[this] var seenInput = false
+
+    def decompress(input: ByteString): ByteString = {
+      val output = new ByteStringBuilder
+      @tailrec def feed(remaining: ByteString): Unit =
+        if (remaining.nonEmpty) {
+          decoder.getStatus match {
+            case Status.NEEDS_MORE_INPUT =>
+              val buffer = decoder.getInputBuffer
+              buffer.clear()
+              val (now, later) = remaining.splitAt(buffer.remaining)
+              now.copyToBuffer(buffer)
+              decoder.push(now.size)
+              drain(output)
+              feed(later)
+            case Status.DONE => throw new DataFormatException("Unexpected data after end of Brotli stream")
+            case status      => throw new DataFormatException(s"Corrupt Brotli stream (decoder status $status)")
+          }
+        }
+
+      if (input.nonEmpty) seenInput = true
+      feed(input)
+      output.result()
+    }
+
+    @tailrec private def drain(output: ByteStringBuilder): Unit =
+      decoder.getStatus match {
+        case Status.OK =>
+          decoder.push(0)
+          drain(output)
+        case Status.NEEDS_MORE_OUTPUT =>
+          output ++= ByteString.fromByteBuffer(decoder.pull())
+          drain(output)
+        case Status.NEEDS_MORE_INPUT | Status.DONE =>
+          if (decoder.hasOutput) {
+            output ++= ByteString.fromByteBuffer(decoder.pull())
+            drain(output)
+          }
+        case _ =>
+          throw new DataFormatException("Corrupt Brotli stream")
+      }
+
+    def isFinished: Boolean = !seenInput || decoder.getStatus == Status.DONE
+
+    def close(): Unit = decoder.destroy()
+  }
+
+  protected def truncated(): Throwable = new ZipException("Truncated Brotli stream")
+}
+
+/** Internal API */
+@InternalApi
+private[coding] object BrotliDecompressor {
+  val InputBufferSize = 16384
+}
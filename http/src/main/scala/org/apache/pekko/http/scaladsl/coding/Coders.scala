@@ -33,7 +33,47 @@ object Coders {
       compressionLevel: Int = DeflateCompressor.DefaultCompressionLevel): Coder =
     new Deflate(compressionLevel, messageFilter)
 
+  /**
+   * A coder for the 'br' (Brotli) content coding.
+   *
+   * Needs the optional `com.aayushatharva.brotli4j:brotli4j` dependency together with the brotli4j native library
+   * artifact for the platform on the classpath. Using it without them fails with an `UnsupportedOperationException`.
+   */
+  def Brotli: Coder = DefaultBrotli
+  def Brotli(
+      messageFilter: HttpMessage => Boolean = Encoder.DefaultFilter,
+      quality: Int = pekko.http.scaladsl.coding.Brotli.DefaultQuality): Coder =
+    new Brotli(quality, messageFilter)
+
+  /**
+   * A coder for the 'zstd' (Zstandard) content coding.
+   *
+   * Needs the optional `com.github.luben:zstd-jni` dependency on the classpath. Using it without it fails with an
+   * `UnsupportedOperationException`.
+   */
+  def Zstd: Coder = DefaultZstd
+  def Zstd(
+      messageFilter: HttpMessage => Boolean = Encoder.DefaultFilter,
+      compressionLevel: Int = pekko.http.scaladsl.coding.Zstd.DefaultCompressionLevel): Coder =
+    new Zstd(compressionLevel, messageFilter)
+
   def NoCoding: Coder = pekko.http.scaladsl.coding.NoCoding
 
-  val DefaultCoders: immutable.Seq[Coder] = immutable.Seq(Gzip, Deflate, NoCoding)
+  private lazy val DefaultBrotli: Coder =
+    new Brotli(pekko.http.scaladsl.coding.Brotli.DefaultQuality, Encoder.DefaultFilter)
+  private lazy val DefaultZstd: Coder =
+    new Zstd(pekko.http.scaladsl.coding.Zstd.DefaultCompressionLevel, Encoder.DefaultFilter)
+
+  /**
+   * The `zstd` and `br` coders whose optional libraries are available on the classpath,
+   * in order of preference.
+   */
+  private[http] lazy val AvailableNativeCoders: immutable.Seq[Coder] =
+    (if (pekko.http.scaladsl.coding.Zstd.isAvailable) immutable.Seq(Zstd) else Nil) ++
+    (if (pekko.http.scaladsl.coding.Brotli.isAvailable) immutable.Seq(Brotli) else Nil)
+
+  /**
+   * `Gzip`, `Deflate` and `NoCoding`, plus `Zstd` and `Brotli` if their optional libraries are on the classpath.
+   */
+  val DefaultCoders: immutable.Seq[Coder] = immutable.Seq(Gzip, Deflate, NoCoding) ++ AvailableNativeCoders
 }
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.scaladsl.coding
+
+import java.io.OutputStream
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.stream.Attributes
+import pekko.stream.impl.fusing.GraphStages.SimpleLinearGraphStage
+import pekko.stream.stage.{ GraphStageLogic, InHandler, OutHandler }
+import pekko.util.{ ByteString, ByteStringBuilder }
+
+import scala.util.control.NonFatal
+
+/**
+ * Internal API
+ *
+ * A compressor that drives a compressing `OutputStream` (as provided by the optional native codec libraries)
+ * and collects whatever it writes into a `ByteString`.
+ */
+@InternalApi
+private[coding] abstract class OutputStreamCompressor extends Compressor {
+  private[this] val output = new ByteStringBuilder
+  private[this] lazy val stream = newCompressingStream(output.asOutputStream)
+
+  protected def newCompressingStream(underlying: OutputStream): OutputStream
+
+  override final def compress(input: ByteString): ByteString = {
+    write(input)
+    drain()
+  }
+  override final def flush(): ByteString = {
+    stream.flush()
+    drain()
+  }
+  override final def finish(): ByteString = {
+    stream.close()
+    drain()
+  }
+  override final def compressAndFlush(input: ByteString): ByteString = {
+    write(input)
+    flush()
+  }
+  override final def compressAndFinish(input: ByteString): ByteString = {
+    write(input)
+    finish()
+  }
+
+  private def write(input: ByteString): Unit =
+    if (input.nonEmpty) stream.write(input.toArray)
+
+  private def drain(): ByteString = {
+    val result = output.result()
+    output.clear()
+    result
+  }
+}
+
+/**
+ * Internal API
+ *
+ * Stage that feeds incoming data into a (usually native) push-based decompressor and emits the
+ * decompressed output in chunks of at most `maxBytesPerChunk` bytes.
+ */
+@InternalApi
+private[coding] abstract class PushDecompressorStage(maxBytesPerChunk: Int)
+    extends SimpleLinearGraphStage[ByteString] {
+  require(maxBytesPerChunk > 0, "maxBytesPerChunk must be > 0")
+
+  /** Per-materialization decompression state */
+  protected trait Decompression {
+
+    /** Consumes all of the given input and returns all output that could be produced from it */
+    def decompress(input: ByteString): ByteString
+
+    /** Whether the input seen so far ends on a boundary of the compressed format */
+    def isFinished: Boolean
+
+    /** Releases any (native) resources, called exactly once when the stage stops */
+    def close(): Unit
+  }
+
+  protected def newDecompression(): Decompression
+
+  /** The error to fail the stream with if upstream completes in the middle of compressed data */
+  protected def truncated(): Throwable
+
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+      private[this] val decompression = newDecompression()
+
+      override def onPush(): Unit = {
+        val data = decompression.decompress(grab(in))
+        if (data.isEmpty) pull(in)
+        else if (data.size <= maxBytesPerChunk) push(out, data)
+        else emitMultiple(out, data.grouped(maxBytesPerChunk))
+      }
+
+      override def onPull(): Unit = pull(in)
+
+      override def onUpstreamFinish(): Unit =
+        if (decompression.isFinished) complete(out)
+        else failStage(truncated())
+
+      override def postStop(): Unit =
+        try decompression.close()
+        catch { case NonFatal(_) => } // nothing left to do about it
+
+      setHandlers(in, out, this)
+    }
+}
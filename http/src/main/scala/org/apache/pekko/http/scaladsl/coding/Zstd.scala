@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.scaladsl.coding
+
+import java.io.OutputStream
+import java.nio.ByteBuffer
+import java.util.zip.{ DataFormatException, ZipException }
+
+import com.github.luben.zstd.{ ZstdDecompressCtx, ZstdException, ZstdOutputStream }
+import com.github.luben.zstd.util.Native
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.http.scaladsl.model._
+import pekko.http.scaladsl.model.headers.HttpEncodings
+import pekko.util.{ ByteString, ByteStringBuilder }
+
+import scala.annotation.tailrec
+import scala.util.control.NonFatal
+
+/**
+ * Internal API
+ *
+ * An encoder and decoder for the HTTP 'zstd' encoding (RFC 8878), backed by the optional `zstd-jni` library
+ * which needs to be added to the classpath.
+ */
+@InternalApi
+private[http] class Zstd(compressionLevel: Int, val messageFilter: HttpMessage => Boolean) extends Coder
+    with StreamDecoder {
+  val encoding = HttpEncodings.zstd
+  def newCompressor = {
+    Zstd.ensureAvailability()
+    new ZstdCompressor(compressionLevel)
+  }
+  def newDecompressorStage(maxBytesPerChunk: Int) = {
+    Zstd.ensureAvailability()
+    () => new ZstdDecompressor(maxBytesPerChunk)
+  }
+}
+
+/** Internal API */
+@InternalApi
+private[http] object Zstd {
+  // the zstd default, both faster and denser than gzip's default level
+  val DefaultCompressionLevel = 3
+
+  private[this] lazy val available: Boolean =
+    try {
+      Native.load()
+      Native.isLoaded
+    } catch {
+      case _: LinkageError => false
+      case NonFatal(_)     => false
+    }
+
+  /** Whether zstd-jni and its native library could be loaded */
+  def isAvailable: Boolean = available
+
+  def ensureAvailability(): Unit =
+    if (!isAvailable)
+      throw new UnsupportedOperationException(
+        "The 'zstd' content coding needs `com.github.luben:zstd-jni` on the classpath")
+}
+
+/** Internal API */
+@InternalApi
+private[coding] class ZstdCompressor(compressionLevel: Int) extends OutputStreamCompressor {
+  require(compressionLevel >= 1 && compressionLevel <= 22, "Compression level needs to be between 1 and 22")
+
+  protected def newCompressingStream(underlying: OutputStream): OutputStream =
+    new ZstdOutputStream(underlying, compressionLevel)
+}
+
+/** Internal API */
+@InternalApi
+private[coding] class ZstdDecompressor(maxBytesPerChunk: Int = Decoder.MaxBytesPerChunkDefault)
+    extends PushDecompressorStage(maxBytesPerChunk) {
+
+  protected def newDecompression(): Decompression = new Decompression {
+    private[this] val context = new ZstdDecompressCtx
+    // zstd-jni only supports streaming from and to direct buffers
+    private[this] val inBuffer = ByteBuffer.allocateDirect(ZstdDecompressor.BufferSize)
+    private[this] val outBuffer = ByteBuffer.allocateDirect(ZstdDecompressor.BufferSize)
+    private[this] var frameFinished = true
+
+    def decompress(input: ByteString): ByteString = {
+      val output = new ByteStringBuilder
+      @tailrec def feed(remaining: ByteString): Unit =
+        if (remaining.nonEmpty) {
+          inBuffer.clear()
+          val (now, later) = remaining.splitAt(inBuffer.remaining)
+          now.copyToBuffer(inBuffer)
+          inBuffer.flip()
+          frameFinished = false
+          drain(output)
+          feed(later)
+        }
+
+      feed(input)
+      output.result()
+    }
+
+    /** Decompresses the contents of `inBuffer` until all of it is consumed and all output is flushed */
+    @tailrec private def drain(output: ByteStringBuilder): Unit = {
+      outBuffer.clear()
+      val flushed =
+        try context.decompressDirectByteBufferStream(outBuffer, inBuffer)
+        catch { case e: ZstdException => throw new DataFormatException(s"Corrupt zstd stream: ${e.getMessage}") }
+      outBuffer.flip()
+      if (outBuffer.hasRemaining) output ++= ByteString.fromByteBuffer(outBuffer)
+      frameFinished = flushed && !inBuffer.hasRemaining
+      // a full output buffer means the decoder might hold more data
+      if (inBuffer.hasRemaining || outBuffer.limit == outBuffer.capacity) drain(output)
+    }
+
+    def isFinished: Boolean = frameFinished
+
+    def close(): Unit = context.close()
+  }
+
+  protected def truncated(): Throwable = new ZipException("Truncated zstd stream")
+}
+
+/** Internal API */
+@InternalApi
+private[coding] object ZstdDecompressor {
+  val BufferSize = 65536
+}
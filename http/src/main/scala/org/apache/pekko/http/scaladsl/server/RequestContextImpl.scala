@@ -47,8 +47,15 @@ private[http] class RequestContextImpl(
       settings: RoutingSettings): RequestContext =
     copy(executionContext = executionContext, materializer = materializer, log = log, routingSettings = settings)
 
-  override def complete(trm: ToResponseMarshallable): Future[RouteResult] =
-    trm(request)(executionContext)
+  override def complete(trm: ToResponseMarshallable): Future[RouteResult] = {
+    val marshalled = trm(request)(executionContext)
+    val response = FastFuture.successfulValueOrNull(marshalled)
+    if (response ne null) FastFuture.successful(RouteResult.Complete(response))
+    else completeAsync(marshalled)
+  }
+
+  private def completeAsync(marshalled: Future[HttpResponse]): Future[RouteResult] =
+    marshalled
       .fast.map(res => RouteResult.Complete(res))(executionContext)
       .fast.recover {
         case Marshal.UnacceptableResponseContentTypeException(supported) =>
@@ -58,7 +65,8 @@ private[http] class RequestContextImpl(
       }(executionContext)
 
   override def reject(rejections: Rejection*): Future[RouteResult] =
-    FastFuture.successful(RouteResult.Rejected(rejections.toList))
+    if (rejections.isEmpty) RouteResult.NoRejections
+    else FastFuture.successful(RouteResult.Rejected(rejections.toList))
 
   override def redirect(uri: Uri, redirectionType: Redirection): Future[RouteResult] = {
     // #red-impl
@@ -19,6 +19,7 @@ import pekko.actor.ClassicActorSystemProvider
 import pekko.http.scaladsl.model.{ HttpRequest, HttpResponse }
 import pekko.http.scaladsl.server.directives.BasicDirectives
 import pekko.http.scaladsl.settings.{ ParserSettings, RoutingSettings }
+import pekko.http.scaladsl.util.FastFuture
 import pekko.http.scaladsl.util.FastFuture._
 import pekko.stream.scaladsl.Flow
 import pekko.stream.{ ActorMaterializerHelper, Materializer, SystemMaterializer }
@@ -124,11 +125,17 @@ object Route {
       parserSettings: ParserSettings)(
       implicit ec: ExecutionContextExecutor, mat: Materializer): HttpRequest => Future[HttpResponse] = {
     request =>
-      sealedRoute(new RequestContextImpl(request, routingLog.requestLog(request), routingSettings, parserSettings)).fast
-        .map {
-          case RouteResult.Complete(response) => response
-          case RouteResult.Rejected(rejected) =>
-            throw new IllegalStateException(s"Unhandled rejections '$rejected', unsealed RejectionHandler?!")
-        }
+      val result =
+        sealedRoute(new RequestContextImpl(request, routingLog.requestLog(request), routingSettings, parserSettings))
+      FastFuture.successfulValueOrNull(result) match {
+        case RouteResult.Complete(response) => FastFuture.successful(response)
+        case _                              => result.fast.map(toResponse)
+      }
+  }
+
+  private val toResponse: RouteResult => HttpResponse = {
+    case RouteResult.Complete(response) => response
+    case RouteResult.Rejected(rejected) =>
+      throw new IllegalStateException(s"Unhandled rejections '$rejected', unsealed RejectionHandler?!")
   }
 }
@@ -13,6 +13,11 @@
 
 package org.apache.pekko.http.scaladsl.server
 
+import scala.annotation.tailrec
+import scala.collection.immutable
+import scala.concurrent.Future
+import scala.util.control.NonFatal
+
 import org.apache.pekko
 import pekko.http.scaladsl.server.Directives.reject
 import pekko.http.scaladsl.util.FastFuture
@@ -36,10 +41,17 @@ trait RouteConcatenation {
    * it is omitted, the program will still be syntactically correct, but will not actually attempt to match multiple
    * routes, as intended.
    *
+   * Rejections of routes that rejected the request are only merged if all routes rejected it, and routes that
+   * complete synchronously are evaluated without any intermediate `Future` transformations.
+   *
    * @param routes subroutes to concatenate
    * @return the concatenated route
    */
-  def concat(routes: Route*): Route = routes.foldLeft[Route](reject)(_ ~ _)
+  def concat(routes: Route*): Route = routes.length match {
+    case 0 => reject
+    case 1 => routes.head
+    case _ => new RouteConcatenation.ConcatenatedRoutes(routes.toArray)
+  }
 }
 
 object RouteConcatenation extends RouteConcatenation {
@@ -51,15 +63,74 @@ object RouteConcatenation extends RouteConcatenation {
      * chance to act upon the request.
      */
     def ~(other: Route): Route = { ctx =>
-      import ctx.executionContext
-      route(ctx).fast.flatMap {
-        case x: RouteResult.Complete => FastFuture.successful(x)
-        case RouteResult.Rejected(outerRejections) =>
-          other(ctx).fast.map {
-            case x: RouteResult.Complete               => x
-            case RouteResult.Rejected(innerRejections) => RouteResult.Rejected(outerRejections ++ innerRejections)
+      val first = runSafely(route, ctx)
+      FastFuture.successfulValueOrNull(first) match {
+        case RouteResult.Rejected(outerRejections) => runOther(other, ctx, outerRejections)
+        case null                                  =>
+          import ctx.executionContext
+          first.fast.flatMap {
+            case RouteResult.Rejected(outerRejections) => runOther(other, ctx, outerRejections)
+            case _                                     => first
           }
+        case _ => first
+      }
+    }
+  }
+
+  private def runOther(other: Route, ctx: RequestContext,
+      outerRejections: immutable.Seq[Rejection]): Future[RouteResult] = {
+    val second = runSafely(other, ctx)
+    if (outerRejections.isEmpty) second
+    else FastFuture.successfulValueOrNull(second) match {
+      case RouteResult.Rejected(innerRejections) =>
+        FastFuture.successful(RouteResult.Rejected(outerRejections ++ innerRejections))
+      case null =>
+        import ctx.executionContext
+        second.fast.map {
+          case x: RouteResult.Complete               => x
+          case RouteResult.Rejected(innerRejections) => RouteResult.Rejected(outerRejections ++ innerRejections)
+        }
+      case _ => second
+    }
+  }
+
+  private def runSafely(route: Route, ctx: RequestContext): Future[RouteResult] =
+    try route(ctx)
+    catch { case NonFatal(e) => FastFuture.failed(e) }
+
+  /**
+   * The route created by `concat`. Routes are tried in turn without allocating anything on the way for routes that
+   * reject synchronously. The (non-empty) rejection lists of earlier routes are only kept as they are and merged
+   * if no route accepts the request.
+   */
+  private final class ConcatenatedRoutes(routes: Array[Route]) extends Route {
+    def apply(ctx: RequestContext): Future[RouteResult] = run(ctx, 0, Nil)
+
+    @tailrec
+    private def run(ctx: RequestContext, ix: Int, rejections: List[immutable.Seq[Rejection]]): Future[RouteResult] =
+      if (ix == routes.length) rejected(rejections)
+      else {
+        val result = runSafely(routes(ix), ctx)
+        FastFuture.successfulValueOrNull(result) match {
+          case RouteResult.Rejected(r) => run(ctx, ix + 1, if (r.isEmpty) rejections else r :: rejections)
+          case null                    => runPending(ctx, ix, rejections, result)
+          case _                       => result
+        }
       }
+
+    private def runPending(ctx: RequestContext, ix: Int, rejections: List[immutable.Seq[Rejection]],
+        pending: Future[RouteResult]): Future[RouteResult] = {
+      import ctx.executionContext
+      pending.fast.flatMap {
+        case RouteResult.Rejected(r) => run(ctx, ix + 1, if (r.isEmpty) rejections else r :: rejections)
+        case _                       => pending
+      }
+    }
+
+    private def rejected(rejections: List[immutable.Seq[Rejection]]): Future[RouteResult] = rejections match {
+      case Nil      => RouteResult.NoRejections
+      case r :: Nil => FastFuture.successful(RouteResult.Rejected(r))
+      case _        => FastFuture.successful(RouteResult.Rejected(rejections.reverse.flatten))
     }
   }
 }
@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.scaladsl.server
+
+import scala.annotation.tailrec
+import scala.collection.immutable
+import scala.collection.mutable
+import scala.concurrent.Future
+import scala.util.control.NonFatal
+
+import org.apache.pekko
+import pekko.annotation.ApiMayChange
+import pekko.http.scaladsl.model.HttpMethod
+import pekko.http.scaladsl.model.Uri.Path
+import pekko.http.scaladsl.server.directives.MethodDirectives
+import pekko.http.scaladsl.util.FastFuture
+import pekko.http.scaladsl.util.FastFuture._
+
+/**
+ * Builds a route that dispatches requests over a set of alternatives by looking at the unmatched path and the
+ * request method only once, instead of trying every alternative in turn as `concat` does.
+ *
+ * The static path prefixes of all branches are compiled into a prefix trie up front. For an incoming request only
+ * the branches whose prefix matches the unmatched path are evaluated, together with all [[RouteDispatch.dynamic]]
+ * branches, which are always tried. Candidates are tried in declaration order and rejections are collected in the
+ * same way as with `concat`, so
+ *
+ * {{{
+ * RouteDispatch(
+ *   RouteDispatch.pathPrefix("users", HttpMethods.GET) { listUsers },
+ *   RouteDispatch.pathPrefix("orders/open") { openOrders },
+ *   RouteDispatch.dynamic(pathPrefix(IntNumber) { id => ... }))
+ * }}}
+ *
+ * behaves like
+ *
+ * {{{
+ * concat(
+ *   pathPrefix("users") { get { listUsers } },
+ *   pathPrefix(separateOnSlashes("orders/open")) { openOrders },
+ *   pathPrefix(IntNumber) { id => ... })
+ * }}}
+ *
+ * but does not evaluate (or allocate rejections for) the branches that cannot match.
+ */
+@ApiMayChange
+object RouteDispatch {
+
+  /**
+   * An alternative of a [[RouteDispatch]] route. Create instances with [[RouteDispatch.pathPrefix]],
+   * [[RouteDispatch.method]] or [[RouteDispatch.dynamic]].
+   */
+  final class Branch private[RouteDispatch] (
+      private[RouteDispatch] val prefix: String,
+      private[RouteDispatch] val method: HttpMethod,
+      private[RouteDispatch] val route: Route) {
+    override def toString: String =
+      s"Branch(${if (prefix eq null) "*" else "/" + prefix}, ${if (method eq null) "*" else method.value})"
+  }
+
+  /**
+   * A branch that is taken if the unmatched path starts with the given prefix, with the same semantics as
+   * `pathPrefix(separateOnSlashes(prefix))`. The matched prefix is consumed before the inner route runs.
+   */
+  def pathPrefix(prefix: String)(route: Route): Branch = {
+    require(prefix ne null, "prefix must not be null")
+    new Branch(prefix, null, route)
+  }
+
+  /**
+   * A branch that is taken if the unmatched path starts with the given prefix and the request has the given method,
+   * with the same semantics as `pathPrefix(separateOnSlashes(prefix)) { method(method) { route } }`.
+   */
+  def pathPrefix(prefix: String, method: HttpMethod)(route: Route): Branch = {
+    require(prefix ne null, "prefix must not be null")
+    require(method ne null, "method must not be null")
+    new Branch(prefix, method, route)
+  }
+
+  /**
+   * A branch that is taken for any path if the request has the given method, with the same semantics as
+   * `method(method) { route }`.
+   */
+  def method(method: HttpMethod)(route: Route): Branch = {
+    require(method ne null, "method must not be null")
+    new Branch(null, method, route)
+  }
+
+  /**
+   * A branch that cannot be analysed up front, e.g. because it matches on dynamic path segments.
+   * It is tried for every request, in declaration order with the other candidates.
+   */
+  def dynamic(route: Route): Branch = new Branch(null, null, route)
+
+  /**
+   * Compiles the given branches into a single route.
+   */
+  def apply(branches: Branch*): Route = new Dispatcher(branches.toVector)
+
+  private final class CompiledBranch(val method: HttpMethod, val route: Route) {
+    val methodRejections: immutable.Seq[Rejection] =
+      if (method eq null) Nil else MethodRejection(method) :: Nil
+  }
+
+  /** Prefix trie node, keyed by path characters with slashes (as path separators) kept apart. */
+  private final class Node {
+    var slash: Node = _
+    var keys: Array[Char] = Array.emptyCharArray
+    var children: Array[Node] = Array.empty[Node]
+    var branches: Array[Int] = Array.emptyIntArray
+
+    def child(c: Char): Node = {
+      val ix = java.util.Arrays.binarySearch(keys, c)
+      if (ix >= 0) children(ix) else null
+    }
+  }
+
+  private final class NodeBuilder {
+    var slash: NodeBuilder = _
+    val children = mutable.TreeMap.empty[Char, NodeBuilder]
+    val branches = mutable.ArrayBuffer.empty[Int]
+
+    def add(prefix: String, ix: Int, branch: Int): Unit =
+      if (ix == prefix.length) branches += branch
+      else prefix.charAt(ix) match {
+        case '/' =>
+          if (slash eq null) slash = new NodeBuilder
+          slash.add(prefix, ix + 1, branch)
+        case c =>
+          children.getOrElseUpdate(c, new NodeBuilder).add(prefix, ix + 1, branch)
+      }
+
+    def result(): Node = {
+      val node = new Node
+      if (slash ne null) node.slash = slash.result()
+      node.keys = children.keysIterator.toArray
+      node.children = children.valuesIterator.map(_.result()).toArray
+      node.branches = branches.toArray
+      node
+    }
+  }
+
+  private final class Dispatcher(branches: Vector[Branch]) extends Route {
+    private[this] val compiled: Array[CompiledBranch] = branches.iterator.map { b =>
+      val route = if (b.method eq null) b.route else MethodDirectives.method(b.method)(b.route)
+      new CompiledBranch(b.method, route)
+    }.toArray
+
+    private[this] val dynamicBranches: Array[Int] = branches.indices.filter(branches(_).prefix eq null).toArray
+
+    // every prefix is matched like `pathPrefix`, i.e. after consuming a leading slash
+    private[this] val root: Node = {
+      val builder = new NodeBuilder
+      branches.iterator.zipWithIndex.foreach {
+        case (b, ix) => if (b.prefix ne null) builder.add("/" + b.prefix, 0, ix)
+      }
+      builder.result()
+    }
+
+    def apply(ctx: RequestContext): Future[RouteResult] = {
+      val matches = new mutable.ArrayBuffer[(Array[Int], Path)](4)
+      if (dynamicBranches.length > 0) matches += ((dynamicBranches, null))
+      collectMatches(ctx.unmatchedPath, matches)
+
+      if (matches.isEmpty) RouteResult.NoRejections
+      else {
+        val (candidates, rests) = mergeInOrder(matches)
+        tryCandidates(ctx, candidates, rests, 0, Nil)
+      }
+    }
+
+    /**
+     * Walks the trie along the given path and collects the branches of every node passed together with
+     * the path that remains after consuming the node's prefix.
+     */
+    private def collectMatches(path: Path, matches: mutable.ArrayBuffer[(Array[Int], Path)]): Unit = {
+      def addMatch(node: Node, rest: => Path): Unit =
+        if (node.branches.length > 0) matches += ((node.branches, rest))
+
+      @tailrec def walkSegment(node: Node, segment: String, ix: Int, tail: Path.SlashOrEmpty): Unit =
+        if (ix < segment.length) {
+          val next = node.child(segment.charAt(ix))
+          if (next ne null) {
+            val nextIx = ix + 1
+            addMatch(next, if (nextIx == segment.length) tail else Path.Segment(segment.substring(nextIx), tail))
+            walkSegment(next, segment, nextIx, tail)
+          }
+        } else walk(node, tail)
+
+      @tailrec def walk(node: Node, path: Path): Unit = path match {
+        case Path.Slash(tail) if node.slash ne null =>
+          addMatch(node.slash, tail)
+          walk(node.slash, tail)
+        case Path.Segment(head, tail) => walkSegment(node, head, 0, tail)
+        case _                        =>
+      }
+
+      walk(root, path)
+    }
+
+    private def mergeInOrder(matches: mutable.ArrayBuffer[(Array[Int], Path)]): (Array[Int], Array[Path]) =
+      if (matches.size == 1) {
+        val (indices, rest) = matches.head
+        (indices, Array.fill(indices.length)(rest))
+      } else {
+        val total = matches.iterator.map(_._1.length).sum
+        val candidates = new Array[Int](total)
+        val rests = new Array[Path](total)
+        val cursors = new Array[Int](matches.size)
+        var i = 0
+        while (i < total) {
+          var best = -1
+          var m = 0
+          while (m < matches.size) {
+            val indices = matches(m)._1
+            if (cursors(m) < indices.length &&
+              (best < 0 || indices(cursors(m)) < matches(best)._1(cursors(best)))) best = m
+            m += 1
+          }
+          candidates(i) = matches(best)._1(cursors(best))
+          rests(i) = matches(best)._2
+          cursors(best) += 1
+          i += 1
+        }
+        (candidates, rests)
+      }
+
+    private def tryCandidates(ctx: RequestContext, candidates: Array[Int], rests: Array[Path], ix: Int,
+        rejections: immutable.Seq[Rejection]): Future[RouteResult] =
+      if (ix == candidates.length) {
+        if (rejections.isEmpty) RouteResult.NoRejections else FastFuture.successful(RouteResult.Rejected(rejections))
+      } else {
+        val branch = compiled(candidates(ix))
+        if ((branch.method ne null) && ctx.request.method != branch.method)
+          tryCandidates(ctx, candidates, rests, ix + 1, rejections ++ branch.methodRejections)
+        else {
+          val rest = rests(ix)
+          val result =
+            try branch.route(if (rest eq null) ctx else ctx.withUnmatchedPath(rest))
+            catch { case NonFatal(e) => FastFuture.failed(e) }
+          FastFuture.successfulValueOrNull(result) match {
+            case RouteResult.Rejected(branchRejections) =>
+              tryCandidates(ctx, candidates, rests, ix + 1, rejections ++ branchRejections)
+            case null =>
+              import ctx.executionContext
+              result.fast.flatMap {
+                case RouteResult.Rejected(branchRejections) =>
+                  tryCandidates(ctx, candidates, rests, ix + 1, rejections ++ branchRejections)
+                case _ => result
+              }
+            case _ => result
+          }
+        }
+      }
+  }
+}
@@ -19,6 +19,7 @@ import pekko.actor.ClassicActorSystemProvider
 import pekko.http.javadsl
 import pekko.http.scaladsl.model.{ HttpRequest, HttpResponse }
 import pekko.http.scaladsl.settings.{ ParserSettings, RoutingSettings }
+import pekko.http.scaladsl.util.FastFuture
 import pekko.stream.{ ActorMaterializerHelper, Materializer }
 import pekko.stream.scaladsl.Flow
 
@@ -42,6 +43,9 @@ object RouteResult extends LowerPriorityRouteResultImplicits {
     override def getRejections = rejections.map(r => r: javadsl.server.Rejection).asJava
   }
 
+  /** A completed future of a rejection without any rejections, shared to avoid allocating it for every request. */
+  private[server] val NoRejections: Future[RouteResult] = FastFuture.successful(Rejected(Nil))
+
   /**
    * Turns a `Route` into a server flow.
    *
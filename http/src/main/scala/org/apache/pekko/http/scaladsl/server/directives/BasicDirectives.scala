@@ -77,25 +77,58 @@ trait BasicDirectives {
    * @group basic
    */
   def mapRouteResult(f: RouteResult => RouteResult): Directive0 =
-    Directive { inner => ctx => inner(())(ctx).fast.map(f)(ctx.executionContext) }
+    Directive { inner => ctx =>
+      val result = inner(())(ctx)
+      val value = FastFuture.successfulValueOrNull(result)
+      if (value eq null) result.fast.map(f)(ctx.executionContext)
+      else
+        try FastFuture.successful(f(value))
+        catch { case NonFatal(e) => FastFuture.failed(e) }
+    }
 
   /**
    * @group basic
    */
   def mapRouteResultWith(f: RouteResult => Future[RouteResult]): Directive0 =
-    Directive { inner => ctx => inner(())(ctx).fast.flatMap(f)(ctx.executionContext) }
+    Directive { inner => ctx =>
+      val result = inner(())(ctx)
+      val value = FastFuture.successfulValueOrNull(result)
+      if (value eq null) result.fast.flatMap(f)(ctx.executionContext)
+      else
+        try f(value)
+        catch { case NonFatal(e) => FastFuture.failed(e) }
+    }
 
   /**
    * @group basic
    */
   def mapRouteResultPF(f: PartialFunction[RouteResult, RouteResult]): Directive0 =
-    mapRouteResult(f.applyOrElse(_, identity[RouteResult]))
+    Directive { inner => ctx =>
+      val result = inner(())(ctx)
+      val value = FastFuture.successfulValueOrNull(result)
+      if (value eq null) result.fast.map(f.applyOrElse(_, identity[RouteResult]))(ctx.executionContext)
+      else
+        try {
+          // keep the inner future if `f` doesn't apply, e.g. for a completed result passing a rejection handler
+          val mapped = f.applyOrElse(value, identity[RouteResult])
+          if (mapped eq value) result else FastFuture.successful(mapped)
+        } catch { case NonFatal(e) => FastFuture.failed(e) }
+    }
 
   /**
    * @group basic
    */
   def mapRouteResultWithPF(f: PartialFunction[RouteResult, Future[RouteResult]]): Directive0 =
-    mapRouteResultWith(f.applyOrElse(_, FastFuture.successful[RouteResult]))
+    Directive { inner => ctx =>
+      val result = inner(())(ctx)
+      val value = FastFuture.successfulValueOrNull(result)
+      if (value eq null) result.fast.flatMap(f.applyOrElse(_, FastFuture.successful[RouteResult]))(ctx.executionContext)
+      else
+        try {
+          val mapped = f.applyOrElse(value, BasicDirectives.notApplied)
+          if (mapped eq null) result else mapped
+        } catch { case NonFatal(e) => FastFuture.failed(e) }
+    }
 
   /**
    * @group basic
@@ -425,6 +458,10 @@ trait BasicDirectives {
 }
 
 object BasicDirectives extends BasicDirectives {
+
+  /** Fallback for `mapRouteResultWithPF` marking results that the partial function isn't defined for. */
+  private val notApplied: Any => Future[RouteResult] = _ => null
+
   private val _extractUnmatchedPath: Directive1[Uri.Path] = extract(_.unmatchedPath)
   private val _extractMatchedPath: Directive1[Uri.Path] = extract(extractMatched)
   private val _extractRequest: Directive1[HttpRequest] = extract(_.request)
@@ -56,6 +56,10 @@ trait CodingDirectives {
    * If the `Accept-Encoding` header is missing or empty or specifies an encoding other than
    * identity, gzip or deflate then no encoding is used.
    *
+   * If the optional Zstandard (`zstd-jni`) or Brotli (`brotli4j`) libraries are available on the classpath
+   * the `zstd` and `br` encodings are supported as well and preferred over gzip and deflate when the client
+   * accepts them with equal preference.
+   *
    * @group coding
    */
   def encodeResponse: Directive0 =
@@ -131,7 +135,8 @@ trait CodingDirectives {
     theseOrDefault(decoders).map(decodeRequestWith).reduce(_ | _)
 
   /**
-   * Decompresses the incoming request if it is `gzip` or `deflate` compressed.
+   * Decompresses the incoming request if it is `gzip` or `deflate` compressed (or `zstd` or `br` compressed,
+   * if the respective optional library is available on the classpath).
    * Uncompressed requests are passed through untouched.
    * If the request encoded with another encoding the request is rejected with an `UnsupportedRequestEncodingRejection`.
    *
@@ -157,7 +162,8 @@ object CodingDirectives extends CodingDirectives {
   def DefaultCoders: immutable.Seq[Coder] = Coders.DefaultCoders
 
   // same entries as DefaultCoders but in different order
-  private[http] val DefaultEncodeResponseEncoders = immutable.Seq(Coders.NoCoding, Coders.Gzip, Coders.Deflate)
+  private[http] val DefaultEncodeResponseEncoders =
+    Coders.NoCoding +: Coders.AvailableNativeCoders ++: immutable.Seq(Coders.Gzip, Coders.Deflate)
 
   def theseOrDefault[T >: Coder](these: Seq[T]): Seq[T] = if (these.isEmpty) DefaultCoders else these
 
@@ -39,8 +39,12 @@ trait ExecutionDirectives {
       import ctx.executionContext
       def handleException: PartialFunction[Throwable, Future[RouteResult]] =
         handler.andThen(_(ctx.withAcceptAll))
-      try innerRouteBuilder(())(ctx).fast.recoverWith(handleException)
-      catch {
+      try {
+        val result = innerRouteBuilder(())(ctx)
+        // only set up the recovery if the result isn't already known to be successful
+        if (FastFuture.successfulValueOrNull(result) ne null) result
+        else result.fast.recoverWith(handleException)
+      } catch {
         case NonFatal(e) => handleException.applyOrElse[Throwable, Future[RouteResult]](e, throw _)
       }
     }
@@ -19,7 +19,7 @@ import java.net.{ URI, URL }
 
 import org.apache.pekko
 import pekko.http.javadsl.{ marshalling, model }
-import pekko.stream.scaladsl.{ FileIO, StreamConverters }
+import pekko.stream.scaladsl.StreamConverters
 
 import scala.annotation.tailrec
 import pekko.actor.ActorSystem
@@ -68,17 +68,24 @@ trait FileAndResourceDirectives {
    * Completes GET requests with the content of the given file.
    * If the file cannot be found or read the request is rejected.
    *
+   * If `pekko.http.routing.file-get-precompressed` is enabled, a pre-compressed sibling file
+   * (`<file>.br`, `<file>.zst` or `<file>.gz`) accepted by the client is served instead.
+   *
    * @group fileandresource
    */
   def getFromFile(file: File, contentType: ContentType): Route =
     get {
-      if (file.isFile && file.canRead)
-        conditionalFor(file.length, file.lastModified) {
-          if (file.length > 0) {
-            withRangeSupportAndPrecompressedMediaTypeSupport {
-              complete(HttpEntity.Default(contentType, file.length, FileIO.fromPath(file.toPath)))
+      if (isReadableFile(file))
+        withPrecompressedVariant(file, suffix => Some(new File(file.getPath + suffix)).filter(isReadableFile)) {
+          servedFile =>
+            val length = servedFile.length
+            conditionalFor(length, servedFile.lastModified) {
+              if (length > 0) {
+                withRangeSupportAndPrecompressedMediaTypeSupport {
+                  complete(HttpEntity.Default(contentType, length, FileRegionSource(servedFile.toPath, 0, length)))
+                }
+              } else complete(HttpEntity.Empty)
             }
-          } else complete(HttpEntity.Empty)
         }
       else reject
     }
@@ -104,6 +111,9 @@ trait FileAndResourceDirectives {
    * Completes GET requests with the content of the given resource.
    * If the resource is a directory or cannot be found or read the Route rejects the request.
    *
+   * If `pekko.http.routing.file-get-precompressed` is enabled, a pre-compressed sibling resource
+   * (`<resource>.br`, `<resource>.zst` or `<resource>.gz`) accepted by the client is served instead.
+   *
    * @group fileandresource
    */
   def getFromResource(
@@ -111,14 +121,18 @@ trait FileAndResourceDirectives {
     if (!resourceName.endsWith("/"))
       get {
         Option(classLoader.getResource(resourceName)).flatMap(ResourceFile.apply) match {
-          case Some(ResourceFile(url, length, lastModified)) =>
-            conditionalFor(length, lastModified) {
-              if (length > 0) {
-                withRangeSupportAndPrecompressedMediaTypeSupport {
-                  complete(HttpEntity.Default(contentType, length,
-                    StreamConverters.fromInputStream(() => url.openStream())))
+          case Some(resourceFile) =>
+            withPrecompressedVariant(resourceFile,
+              suffix => Option(classLoader.getResource(resourceName + suffix)).flatMap(ResourceFile.apply)) {
+              case ResourceFile(url, length, lastModified) =>
+                conditionalFor(length, lastModified) {
+                  if (length > 0) {
+                    withRangeSupportAndPrecompressedMediaTypeSupport {
+                      complete(HttpEntity.Default(contentType, length,
+                        StreamConverters.fromInputStream(() => url.openStream())))
+                    }
+                  } else complete(HttpEntity.Empty)
                 }
-              } else complete(HttpEntity.Empty)
             }
           case _ => reject // not found or directory
         }
@@ -225,6 +239,46 @@ object FileAndResourceDirectives extends FileAndResourceDirectives {
 
   private def withTrailingSlash(path: String): String = if (path.endsWith("/")) path else path + '/'
 
+  private def isReadableFile(file: File): Boolean = file.isFile && file.canRead
+
+  /** Suffixes of pre-compressed variants of files and resources, in order of preference */
+  private val PrecompressedVariants: List[(HttpEncoding, String)] =
+    List(HttpEncodings.br -> ".br", HttpEncodings.zstd -> ".zst", HttpEncodings.gzip -> ".gz")
+
+  private val VaryAcceptEncoding = RawHeader("Vary", "Accept-Encoding")
+
+  /**
+   * Provides the pre-compressed variant of `original` that fits the request's `Accept-Encoding` header best
+   * (and adds the matching `Content-Encoding` to the response) if `file-get-precompressed` is enabled and
+   * `variant` finds any for the given suffix. Provides `original` otherwise.
+   */
+  private def withPrecompressedVariant[T](original: T, variant: String => Option[T]): Directive1[T] =
+    BasicDirectives.extractRequestContext.flatMap { ctx =>
+      val available =
+        if (ctx.settings.fileGetPrecompressed)
+          PrecompressedVariants.flatMap { case (encoding, suffix) => variant(suffix).map(encoding -> _) }
+        else Nil
+
+      if (available.isEmpty) BasicDirectives.provide(original)
+      else {
+        val negotiator = EncodingNegotiator(ctx.request.headers)
+        // without an `Accept-Encoding` header all encodings are acceptable, we still prefer identity then
+        val chosen =
+          if (negotiator.acceptedEncodingRanges.isEmpty) None
+          else
+            negotiator.pickEncoding(available.map(_._1) :+ HttpEncodings.identity)
+              .flatMap(encoding => available.find(_._1 == encoding))
+
+        chosen match {
+          case Some((encoding, servedVariant)) =>
+            RespondWithDirectives.respondWithHeaders(List(`Content-Encoding`(encoding), VaryAcceptEncoding)) &
+            BasicDirectives.provide(servedVariant)
+          case None =>
+            RespondWithDirectives.respondWithHeader(VaryAcceptEncoding) & BasicDirectives.provide(original)
+        }
+      }
+    }
+
   /**
    * Given a base directory and a (Uri) path, returns a path to a location contained in the base directory,
    * while checking that no path traversal is possible. Path traversal is prevented by two individual measures:
@@ -59,7 +59,12 @@ trait RangeDirectives {
       class IndexRange(val start: Long, val end: Long) {
         def length = end - start
         def apply(entity: UniversalEntity): UniversalEntity =
-          entity.transformDataBytes(length, StreamUtils.sliceBytesTransformer(start, length))
+          FileRegionSource.slice(entity.dataBytes, start, length) match {
+            case Some(bytes) => HttpEntity.Default(entity.contentType, length, bytes)
+            case None        => entity.transformDataBytes(length, StreamUtils.sliceBytesTransformer(start, length))
+          }
+        def bodyPart(entity: UniversalEntity, entityLength: Long): Multipart.ByteRanges.BodyPart =
+          Multipart.ByteRanges.BodyPart(contentRange(entityLength), apply(entity))
         def distance(other: IndexRange) = mergedEnd(other) - mergedStart(other) - (length + other.length)
         def mergeWith(other: IndexRange) = new IndexRange(mergedStart(other), mergedEnd(other))
         def contentRange(entityLength: Long) = ContentRange(start, end - 1, entityLength)
@@ -93,13 +98,10 @@ trait RangeDirectives {
         val coalescedRanges = coalesceRanges(iRanges).sortBy(_.start)
         val source = coalescedRanges.size match {
           case 0 => Source.empty
-          case 1 =>
-            val range = coalescedRanges.head
-            val flow = StreamUtils.sliceBytesTransformer(range.start, range.length)
-            val bytes = entity.dataBytes.via(flow)
-            val part = Multipart.ByteRanges.BodyPart(range.contentRange(length),
-              HttpEntity(entity.contentType, range.length, bytes))
-            Source.single(part)
+          case 1 => Source.single(coalescedRanges.head.bodyPart(entity, length))
+          case _ if FileRegionSource.isFileRegion(entity.dataBytes) =>
+            // the data of a file entity can be read separately for each range, skipping the parts in between
+            Source(coalescedRanges.toList).map(_.bodyPart(entity, length))
           case n =>
             Source.fromGraph(GraphDSL.create() { implicit b =>
               import GraphDSL.Implicits._
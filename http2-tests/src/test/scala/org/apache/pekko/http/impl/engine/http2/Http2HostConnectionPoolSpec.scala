@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.engine.http2
+
+import java.util.concurrent.{ ConcurrentHashMap, ConcurrentLinkedQueue }
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.http.impl.util.{ ExampleHttpContexts, PekkoSpecWithMaterializer }
+import pekko.http.scaladsl.{ ClientTransport, Http }
+import pekko.http.scaladsl.Http.ServerBinding
+import pekko.http.scaladsl.model.{ AttributeKeys, HttpProtocols, HttpRequest, HttpResponse, StatusCodes }
+import pekko.http.scaladsl.settings.{ ClientConnectionSettings, ConnectionPoolSettings, ServerSettings }
+import pekko.stream.{ KillSwitches, UniqueKillSwitch }
+import pekko.stream.scaladsl.{ Flow, Keep }
+import pekko.stream.testkit.Utils.TE
+import pekko.util.ByteString
+
+import scala.concurrent.{ Future, Promise }
+
+class Http2HostConnectionPoolSpec extends PekkoSpecWithMaterializer("""
+    pekko.http.server.preview.enable-http2 = on
+  """) {
+  import system.dispatcher
+
+  "The HTTP/2 host connection pool" should {
+
+    "open another connection once the maximum number of concurrent streams of a connection is reached" in {
+      val connections = ConcurrentHashMap.newKeySet[Int]()
+      val secondConnectionUsed = Promise[HttpResponse]()
+      val binding = bindServer(_.mapHttp2Settings(_.withMaxConcurrentStreams(2))) { req =>
+        connections.add(remotePort(req))
+        if (connections.size == 2) secondConnectionUsed.trySuccess(HttpResponse())
+        // held requests are only answered once the pool has opened a second connection
+        if (req.uri.path.toString == "/held") secondConnectionUsed.future
+        else Future.successful(HttpResponse())
+      }
+      val settings = ConnectionPoolSettings(system).withHttp2Enabled(true).withMaxConnections(2)
+
+      // the first request lets the client learn about the limit of the server
+      request(binding, "/", settings).futureValue.status shouldEqual StatusCodes.OK
+      connections.size shouldEqual 1
+
+      val responses = Future.sequence((1 to 4).map(_ => request(binding, "/held", settings))).futureValue
+      responses.foreach { response =>
+        response.protocol shouldEqual HttpProtocols.`HTTP/2.0`
+        response.status shouldEqual StatusCodes.OK
+      }
+      connections.size shouldEqual 2
+    }
+
+    "retry requests that were in flight on a connection that failed" in new KillableConnections {
+      val requestsSeen = new AtomicInteger
+      val release = Promise[HttpResponse]()
+      val binding = bindServer() { _ =>
+        requestsSeen.incrementAndGet()
+        release.future
+      }
+
+      val response = request(binding, "/", settings)
+      awaitCond(requestsSeen.get == 1)
+      killSwitches.poll().abort(TE("Connection lost"))
+
+      // the request is sent again over a new connection
+      awaitCond(requestsSeen.get == 2)
+      release.success(HttpResponse())
+      response.futureValue.status shouldEqual StatusCodes.OK
+      killSwitches.size shouldEqual 1
+    }
+
+    "fail requests that were in flight on a connection that failed if they cannot be retried" in
+      new KillableConnections {
+        val requestsSeen = new AtomicInteger
+        val binding = bindServer() { _ =>
+          requestsSeen.incrementAndGet()
+          Promise[HttpResponse]().future
+        }
+
+        val response = request(binding, "/", settings.withMaxRetries(0))
+        awaitCond(requestsSeen.get == 1)
+        killSwitches.poll().abort(TE("Connection lost"))
+
+        response.failed.futureValue shouldBe an[Exception]
+        requestsSeen.get shouldEqual 1
+      }
+
+    "multiplex requests over a TLS connection that negotiated HTTP/2 with ALPN" in {
+      val connections = ConcurrentHashMap.newKeySet[Int]()
+      val binding = bindServer(https = true) { req =>
+        connections.add(remotePort(req))
+        Future.successful(HttpResponse(status = StatusCodes.ImATeapot))
+      }
+      val settings = ConnectionPoolSettings(system).withHttp2Enabled(true).withMaxConnections(1)
+        .withConnectionSettings(
+          ClientConnectionSettings(system).withTransport(ExampleHttpContexts.proxyTransport(binding.localAddress)))
+
+      val responses = Future.sequence((1 to 10).map(_ =>
+        Http().singleRequest(HttpRequest(uri = "https://pekko.example.org/"),
+          ExampleHttpContexts.exampleClientContext, settings))).futureValue
+      responses.foreach { response =>
+        response.entity.discardBytes()
+        response.protocol shouldEqual HttpProtocols.`HTTP/2.0`
+        response.status shouldEqual StatusCodes.ImATeapot
+      }
+      connections.size shouldEqual 1
+    }
+  }
+
+  /** Records a kill switch for each connection opened by pools using `settings` */
+  trait KillableConnections {
+    val killSwitches = new ConcurrentLinkedQueue[UniqueKillSwitch]
+    val transport = new ClientTransport {
+      override def connectTo(host: String, port: Int, settings: ClientConnectionSettings)(
+          implicit system: ActorSystem): Flow[ByteString, ByteString, Future[Http.OutgoingConnection]] =
+        ClientTransport.TCP.connectTo(host, port, settings)
+          .viaMat(KillSwitches.single[ByteString])(Keep.both)
+          .mapMaterializedValue {
+            case (connection, killSwitch) =>
+              killSwitches.add(killSwitch)
+              connection
+          }
+    }
+    val settings = ConnectionPoolSettings(system).withHttp2Enabled(true).withMaxConnections(1)
+      .withConnectionSettings(ClientConnectionSettings(system).withTransport(transport))
+  }
+
+  def bindServer(adaptSettings: ServerSettings => ServerSettings = identity, https: Boolean = false)(
+      handler: HttpRequest => Future[HttpResponse]): ServerBinding = {
+    val builder =
+      Http().newServerAt("127.0.0.1", 0).adaptSettings(s => adaptSettings(s.withRemoteAddressAttribute(true)))
+    (if (https) builder.enableHttps(ExampleHttpContexts.exampleServerContext) else builder).bind(handler).futureValue
+  }
+
+  def remotePort(req: HttpRequest): Int = req.attribute(AttributeKeys.remoteAddress).get.getPort
+
+  def request(binding: ServerBinding, path: String, settings: ConnectionPoolSettings): Future[HttpResponse] = {
+    val (host, port) = (binding.localAddress.getHostString, binding.localAddress.getPort)
+    Http().singleRequest(HttpRequest(uri = s"http://$host:$port$path"), settings = settings)
+  }
+}
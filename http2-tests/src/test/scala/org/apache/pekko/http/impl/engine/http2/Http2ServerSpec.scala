@@ -1263,6 +1263,87 @@ class Http2ServerSpec extends PekkoSpecWithMaterializer("""
         }))
     }
 
+    "schedule response data by priority" should {
+      abstract class PendingResponseDataSetup extends TestSetup with RequestResponseProbes {
+        // use up the connection-level window, so that the data of the following responses stays pending
+        network.sendRequest(1, HttpRequest(protocol = HttpProtocols.`HTTP/2.0`))
+        user.expectRequest()
+        val fillerDataOut = TestPublisher.probe[ByteString]()
+        user.emitResponse(1, HttpResponse(entity =
+          HttpEntity(ContentTypes.`application/octet-stream`, Source.fromPublisher(fillerDataOut))))
+        network.expectDecodedHEADERS(streamId = 1, endStream = false)
+        fillerDataOut.sendNext(bytes(Http2Protocol.InitialWindowSize, 0x23))
+        network.expectDATA(1, endStream = false, Http2Protocol.InitialWindowSize)
+
+        def sendRequest(streamId: Int, priority: Option[String] = None): Unit = {
+          network.sendRequest(streamId,
+            HttpRequest(protocol = HttpProtocols.`HTTP/2.0`, headers = priority.map(RawHeader("priority", _)).toList))
+          user.expectRequest()
+        }
+
+        /** Emits a response with two DATA frames worth of data */
+        def emitResponse(streamId: Int): Unit = {
+          user.emitResponse(streamId,
+            HttpResponse(entity = HttpEntity(ContentTypes.`application/octet-stream`, bytes(20000, 0x42))))
+          network.expectDecodedHEADERS(streamId = streamId, endStream = false)
+        }
+
+        /** Opens the connection-level window and returns the stream ids of the DATA frames in the order they're sent */
+        def dataFrameOrder(streamIds: Int*): Seq[Int] = {
+          network.expectNoBytes(100.millis) // nothing is sent without connection-level window
+          network.sendWINDOW_UPDATE(0, Http2Protocol.InitialWindowSize)
+
+          val order = Seq.newBuilder[Int]
+          var completed = Set.empty[Int]
+          while (completed != streamIds.toSet) {
+            val (flags, streamId, payload) = network.expectFrameFlagsStreamIdAndPayload(FrameType.DATA)
+            if (payload.nonEmpty) order += streamId
+            if (Flags.END_STREAM.isSet(flags)) completed += streamId
+          }
+          order.result()
+        }
+      }
+
+      "send the data of more urgent streams first".inAssertAllStagesStopped(new PendingResponseDataSetup {
+        sendRequest(3)
+        sendRequest(5, priority = Some("u=0"))
+        emitResponse(3)
+        emitResponse(5)
+
+        dataFrameOrder(3, 5) shouldEqual Seq(5, 5, 3, 3)
+      })
+      "apply priorities of PRIORITY_UPDATE frames".inAssertAllStagesStopped(new PendingResponseDataSetup {
+        sendRequest(3)
+        sendRequest(5)
+        network.sendFrame(PriorityUpdateFrame(5, "u=0"))
+        // make sure that the update has been handled before the responses are emitted
+        val pingData = bytes(8, 0x23)
+        network.sendFrame(PingFrame(ack = false, pingData))
+        network.expectFrame(FrameType.PING, Flags.ACK, 0, pingData)
+        emitResponse(3)
+        emitResponse(5)
+
+        dataFrameOrder(3, 5) shouldEqual Seq(5, 5, 3, 3)
+      })
+      "send non-incremental streams of the same urgency one after the other".inAssertAllStagesStopped(
+        new PendingResponseDataSetup {
+          sendRequest(3, priority = Some("u=3"))
+          sendRequest(5, priority = Some("u=3"))
+          emitResponse(3)
+          emitResponse(5)
+
+          dataFrameOrder(3, 5) shouldEqual Seq(3, 3, 5, 5)
+        })
+      "interleave incremental streams of the same urgency".inAssertAllStagesStopped(new PendingResponseDataSetup {
+        sendRequest(3, priority = Some("u=3, i"))
+        sendRequest(5, priority = Some("u=3, i"))
+        emitResponse(3)
+        emitResponse(5)
+
+        dataFrameOrder(3, 5) shouldEqual Seq(3, 5, 3, 5)
+      })
+    }
+
     "respect flow-control" should {
       "not exceed connection-level window while sending" in pending
       "not exceed stream-level window while sending" in pending
@@ -1285,6 +1366,46 @@ class Http2ServerSpec extends PekkoSpecWithMaterializer("""
           network.expectRST_STREAM(1, ErrorCode.PROTOCOL_ERROR)
         })
 
+      "grow the incoming windows with auto-tuning alongside keep-alive pings" in StreamTestKit.assertAllStagesStopped(
+        new TestSetup with RequestResponseProbes {
+          override def settings: ServerSettings =
+            super.settings.mapHttp2Settings(_.withIncomingWindowAutoTuning(true)
+              .withIncomingConnectionLevelBufferSize(512 * 1024)
+              .withIncomingStreamLevelBufferSize(512 * 1024)
+              .withPingInterval(2.seconds))
+
+          network.sendRequestHEADERS(1, HttpRequest(HttpMethods.POST), endStream = false)
+          val entityDataIn = ByteStringSinkProbe(user.expectRequest().entity.dataBytes)
+
+          // the first DATA frame starts a round-trip measurement
+          network.sendDATA(1, endStream = false, bytes(16384, 0x23))
+          network.expectFrame(FrameType.PING, ByteFlag.Zero, 0, IncomingFlowController.BdpPing.data)
+          entityDataIn.expectBytes(16384)
+
+          // the peer uses most of the initial window until the ack
+          network.sendDATA(1, endStream = false, bytes(16384, 0x23))
+          network.sendDATA(1, endStream = false, bytes(16384, 0x23))
+          entityDataIn.expectBytes(2 * 16384)
+          network.pollForWindowUpdates(100.millis)
+          network.sendFrame(FrameType.PING, Flags.ACK, 0, IncomingFlowController.BdpPing.data)
+
+          // windows are now updated up to twice the sample
+          network.sendDATA(1, endStream = false, bytes(16384, 0x23))
+          network.expectFrame(FrameType.PING, ByteFlag.Zero, 0, IncomingFlowController.BdpPing.data)
+          entityDataIn.expectBytes(16384)
+          network.pollForWindowUpdates(100.millis)
+          network.remainingWindowForIncomingDataOnConnection shouldEqual 2 * 3 * 16384
+          network.remainingWindowForIncomingData(1) shouldEqual 2 * 3 * 16384
+
+          // keep-alive pings are sent and acked independently of the outstanding BDP ping
+          network.expectFrame(FrameType.PING, ByteFlag.Zero, 0, ConfigurablePing.Ping.data)
+          network.sendFrame(FrameType.PING, Flags.ACK, 0, ConfigurablePing.Ping.data)
+          network.sendFrame(FrameType.PING, Flags.ACK, 0, IncomingFlowController.BdpPing.data)
+          network.expectNoBytes(100.millis)
+
+          network.toNet.cancel()
+        })
+
       "backpressure incoming frames when outgoing control frame buffer fills".inAssertAllStagesStopped(
         new TestSetup with HandlerFunctionSupport {
           override def settings: ServerSettings =
@@ -1475,6 +1596,13 @@ class Http2ServerSpec extends PekkoSpecWithMaterializer("""
 
         network.expectNoBytes(100.millis)
       })
+      "respond to BDP PING ACK frames without a BDP ping in flight with GOAWAY PROTOCOL_ERROR".inAssertAllStagesStopped(
+        new TestSetup with RequestResponseProbes {
+          network.sendFrame(FrameType.PING, Flags.ACK, 0, IncomingFlowController.BdpPing.data)
+
+          val (_, errorCode) = network.expectGOAWAY()
+          errorCode should ===(ErrorCode.PROTOCOL_ERROR)
+        })
       "respond to invalid (not 0x0 streamId) PING with GOAWAY PROTOCOL_ERROR (spec 6_7)".inAssertAllStagesStopped(
         new TestSetup with RequestResponseProbes {
           val invalidIdForPing = 1
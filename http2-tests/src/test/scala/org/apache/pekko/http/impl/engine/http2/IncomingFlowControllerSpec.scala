@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.engine.http2
+
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class IncomingFlowControllerSpec extends AnyWordSpec with Matchers {
+  val InitialWindow = Http2Protocol.InitialWindowSize
+
+  /** Simulates one round-trip of a BDP ping during which `bytes` are received in frames of 16kB */
+  def roundTrip(controller: IncomingFlowController.AutoTuning, bytes: Int): Unit = {
+    controller.onDataReceived(math.min(bytes, 16384)) shouldBe true
+    Iterator.iterate(bytes - 16384)(_ - 16384).takeWhile(_ > 0).foreach { remaining =>
+      controller.onDataReceived(math.min(remaining, 16384)) shouldBe false
+    }
+    controller.onBdpPingAck() shouldBe true
+  }
+
+  "The auto-tuning IncomingFlowController" should {
+    "start with the protocol default stream window and keep the configured connection to stream ratio" in {
+      val controller = new IncomingFlowController.AutoTuning(10 * 1024 * 1024, 512 * 1024)
+      controller.streamLevelWindow shouldBe InitialWindow
+      controller.connectionLevelWindow shouldBe InitialWindow * 20
+    }
+    "grow the windows up to the maximum while the peer uses most of them" in {
+      val controller = new IncomingFlowController.AutoTuning(10 * 1024 * 1024, 512 * 1024)
+      roundTrip(controller, InitialWindow)
+      controller.streamLevelWindow shouldBe InitialWindow * 2
+      roundTrip(controller, InitialWindow * 2)
+      controller.streamLevelWindow shouldBe InitialWindow * 4
+      roundTrip(controller, InitialWindow * 4)
+      roundTrip(controller, 512 * 1024)
+      controller.streamLevelWindow shouldBe 512 * 1024
+      controller.connectionLevelWindow shouldBe 10 * 1024 * 1024
+    }
+    "keep the windows if the peer uses a part of them" in {
+      val controller = new IncomingFlowController.AutoTuning(10 * 1024 * 1024, 512 * 1024)
+      roundTrip(controller, 200000)
+      controller.streamLevelWindow shouldBe 400000
+      roundTrip(controller, 200000)
+      controller.streamLevelWindow shouldBe 400000
+    }
+    "shrink the windows down to the protocol default if the peer uses only a small part of them" in {
+      val controller = new IncomingFlowController.AutoTuning(10 * 1024 * 1024, 512 * 1024)
+      roundTrip(controller, 200000)
+      roundTrip(controller, 1000)
+      controller.streamLevelWindow shouldBe 200000
+      roundTrip(controller, 1000)
+      roundTrip(controller, 1000)
+      controller.streamLevelWindow shouldBe InitialWindow
+    }
+    "send window updates against the current windows" in {
+      val controller = new IncomingFlowController.AutoTuning(10 * 1024 * 1024, 512 * 1024)
+      controller.onStreamDataDispatched(InitialWindow, 0, 20000, 0) shouldBe
+        IncomingFlowController.WindowIncrements(InitialWindow * 20 - InitialWindow, InitialWindow - 20000)
+      controller.onStreamDataDispatched(InitialWindow * 20, 0, 40000, 0) shouldBe
+        IncomingFlowController.WindowIncrements.NoIncrements
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.engine.http2
+
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class StreamSchedulerSpec extends AnyWordSpec with Matchers {
+  import ExtensiblePriority._
+
+  def dequeueAll(scheduler: StreamScheduler): Seq[Int] =
+    Iterator.continually(scheduler).takeWhile(_.nonEmpty).map(_.dequeue()).toList
+
+  "ExtensiblePriority" should {
+    "parse priority field values" in {
+      parse("") shouldBe DefaultUrgency
+      parse("u=1") shouldBe 1
+      parse("u=5, i") shouldBe (5 | Incremental)
+      parse("i=?1,u=0") shouldBe (0 | Incremental)
+      parse("u=2, i=?0") shouldBe 2
+      parse("u=6;foo=bar, i;x") shouldBe (6 | Incremental)
+    }
+    "ignore invalid and unknown parameters" in {
+      parse("u=8") shouldBe DefaultUrgency
+      parse("u=high, i=yes") shouldBe DefaultUrgency
+      parse("x=1, u=4") shouldBe 4
+    }
+  }
+
+  "StreamScheduler" should {
+    "send streams without a priority round robin" in {
+      val scheduler = new StreamScheduler
+      scheduler.enqueue(1)
+      scheduler.enqueue(3)
+      scheduler.dequeue() shouldBe 1
+      scheduler.requeue(1)
+      dequeueAll(scheduler) shouldBe Seq(3, 1)
+    }
+    "send more urgent streams first" in {
+      val scheduler = new StreamScheduler
+      scheduler.updatePriority(3, parse("u=5"))
+      scheduler.updatePriority(5, parse("u=0"))
+      scheduler.enqueue(1)
+      scheduler.enqueue(3)
+      scheduler.enqueue(5)
+      dequeueAll(scheduler) shouldBe Seq(5, 1, 3)
+    }
+    "send non-incremental streams of an urgency one after the other, before incremental ones" in {
+      val scheduler = new StreamScheduler
+      scheduler.updatePriority(1, parse("u=3, i"))
+      scheduler.updatePriority(3, parse("u=3"))
+      scheduler.updatePriority(5, parse("u=3"))
+      scheduler.enqueue(1)
+      scheduler.enqueue(3)
+      scheduler.enqueue(5)
+
+      scheduler.dequeue() shouldBe 3
+      scheduler.requeue(3) // continues before stream 5
+      scheduler.dequeue() shouldBe 3
+      dequeueAll(scheduler) shouldBe Seq(5, 1)
+    }
+    "remove streams" in {
+      val scheduler = new StreamScheduler
+      scheduler.updatePriority(3, parse("u=1"))
+      scheduler.enqueue(1)
+      scheduler.enqueue(3)
+      scheduler.enqueue(5)
+      scheduler.remove(3)
+      scheduler.remove(7)
+      scheduler.size shouldBe 2
+      scheduler.contains(3) shouldBe false
+      dequeueAll(scheduler) shouldBe Seq(1, 5)
+    }
+    "forget the priority of a stream" in {
+      val scheduler = new StreamScheduler
+      scheduler.updatePriority(1, parse("u=0"))
+      scheduler.removePriority(1)
+      scheduler.priorityOf(1) shouldBe Unsignalled
+    }
+  }
+}
@@ -19,6 +19,7 @@ import org.apache.pekko
 import pekko.http.impl.util.PekkoSpecWithMaterializer
 import pekko.http.scaladsl.Http
 import pekko.http.scaladsl.model.{ HttpProtocols, HttpRequest, HttpResponse, StatusCodes }
+import pekko.http.scaladsl.settings.ConnectionPoolSettings
 import pekko.stream.OverflowStrategy
 import pekko.stream.scaladsl.Sink
 import pekko.stream.scaladsl.{ Keep, Source, Tcp }
@@ -88,5 +89,19 @@ class WithPriorKnowledgeSpec extends PekkoSpecWithMaterializer("""
       response.status should ===(StatusCodes.ImATeapot)
       queue.complete()
     }
+
+    "respond to cleartext HTTP/2 requests with cleartext HTTP/2 (host connection pool API)" in {
+      val (host, port) = (binding.localAddress.getHostName, binding.localAddress.getPort)
+      val settings = ConnectionPoolSettings(system).withHttp2Enabled(true).withMaxConnections(1)
+
+      import system.dispatcher
+      val responses = Future.sequence((1 to 10).map(_ =>
+        Http().singleRequest(HttpRequest(uri = s"http://$host:$port/"), settings = settings))).futureValue
+      responses.foreach { response =>
+        response.entity.discardBytes()
+        response.protocol should be(HttpProtocols.`HTTP/2.0`)
+        response.status should ===(StatusCodes.ImATeapot)
+      }
+    }
   }
 }
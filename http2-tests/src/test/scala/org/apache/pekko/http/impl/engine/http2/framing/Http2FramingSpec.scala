@@ -20,6 +20,7 @@ import pekko.http.impl.engine.http2.Http2Protocol.ErrorCode
 import pekko.http.impl.engine.ws.BitBuilder
 import pekko.http.impl.util._
 import pekko.stream.scaladsl.{ Sink, Source }
+import pekko.stream.testkit.TestSubscriber
 import pekko.util.ByteString
 import pekko.testkit._
 import org.scalatest.matchers.Matcher
@@ -424,6 +425,25 @@ class Http2FramingSpec extends PekkoSpecWithMaterializer {
           xxxxxxxx=15   # weight
          """ should parseTo(PriorityFrame(0xDEAD, exclusiveFlag = false, streamDependency = 0xBEEF, weight = 0x15))
     }
+    "PRIORITY_UPDATE" in {
+      b"""xxxxxxxx
+          xxxxxxxx
+          xxxxxxxx=7   # length
+          xxxxxxxx=10  # type = 0x10 = PRIORITY_UPDATE
+          00000000     # no flags
+          xxxxxxxx
+          xxxxxxxx
+          xxxxxxxx
+          xxxxxxxx=0   # stream ID = 0
+          xxxxxxxx
+          xxxxxxxx
+          xxxxxxxx
+          xxxxxxxx=23  # prioritized stream ID = 23
+          xxxxxxxx=75  # priority field value
+          xxxxxxxx=3d
+          xxxxxxxx=31
+         """ should parseTo(PriorityUpdateFrame(0x23, "u=1"))
+    }
     "WINDOW_UPDATE" in {
       b"""xxxxxxxx
           xxxxxxxx
@@ -485,6 +505,24 @@ class Http2FramingSpec extends PekkoSpecWithMaterializer {
     }
   }
 
+  "Batching of rendered frames" should {
+    "combine frames up to the batch size while downstream backpressures" in {
+      val frames = Vector.tabulate(7)(i => ByteString(Array.fill[Byte](10)(i.toByte)))
+      val sub = TestSubscriber.probe[ByteString]()
+      Source(frames).via(Http2Blueprint.batchFrames(35)).runWith(Sink.fromSubscriber(sub))
+
+      sub.ensureSubscription()
+      sub.expectNoMessage(100.millis)
+      sub.request(1)
+      sub.expectNext() shouldEqual frames.take(3).reduce(_ ++ _)
+      sub.request(10)
+      val rest = sub.receiveWithin(1.second.dilated)
+      sub.expectComplete()
+      rest.foreach(_.length should be <= 35)
+      rest.reduce(_ ++ _) shouldEqual frames.drop(3).reduce(_ ++ _)
+    }
+  }
+
   private def parseTo(events: FrameEvent*): Matcher[ByteString] =
     parseMultipleTo(events: _*).compose(Seq(_)) // TODO: try random chunkings
 
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.http.impl.engine.http2.hpack
+
+import org.apache.pekko
+import pekko.http.impl.engine.http2.Http2Protocol
+import pekko.http.shaded.com.twitter.hpack.{ Decoder, Encoder, HeaderListener }
+import pekko.util.ByteString
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import scala.collection.immutable.VectorBuilder
+
+class HpackCodecSpec extends AnyWordSpec with Matchers {
+  val headers = Seq(
+    ":method" -> "POST",
+    ":path" -> "/helloworld.Greeter/SayHello",
+    "content-type" -> "application/grpc",
+    "te" -> "trailers",
+    "x-custom" -> "x",
+    "user-agent" -> ("grpc-java-netty/" + "1.0" * 100))
+
+  def encode(encoder: Encoder, os: ByteStringOutputStream, headers: Seq[(String, String)]): ByteString = {
+    headers.foreach { case (name, value) => encoder.encodeHeader(os, name, value, false) }
+    os.result()
+  }
+
+  def decode(decoder: Decoder, block: ByteString): Seq[(String, String)] = {
+    val result = new VectorBuilder[(String, String)]
+    decoder.decode(ByteStringInputStream(block), new HeaderListener {
+      def addHeader(name: String, value: String, parsed: AnyRef, sensitive: Boolean): AnyRef = {
+        result += name -> value
+        null
+      }
+    })
+    decoder.endHeaderBlock() shouldBe false
+    result.result()
+  }
+
+  class CountingListener extends HeaderListener {
+    var parses = 0
+    var hits = 0
+    def addHeader(name: String, value: String, parsed: AnyRef, sensitive: Boolean): AnyRef =
+      if (parsed ne null) {
+        hits += 1
+        parsed
+      } else {
+        parses += 1
+        name -> value
+      }
+  }
+
+  "The HPACK codec" should {
+    "round-trip header blocks through the reused buffers" in {
+      val encoder = new Encoder(Http2Protocol.InitialMaxHeaderTableSize)
+      val decoder = new Decoder(Http2Protocol.InitialMaxHeaderListSize, Http2Protocol.InitialMaxHeaderTableSize)
+      val os = new ByteStringOutputStream(16)
+
+      val first = encode(encoder, os, headers)
+      val second = encode(encoder, os, headers)
+      second.length should be < first.length // now served from the dynamic table
+
+      decode(decoder, first) shouldEqual headers
+      decode(decoder, second) shouldEqual headers
+    }
+    "decode header blocks that consist of several segments" in {
+      val encoder = new Encoder(Http2Protocol.InitialMaxHeaderTableSize)
+      val decoder = new Decoder(Http2Protocol.InitialMaxHeaderListSize, Http2Protocol.InitialMaxHeaderTableSize)
+      val block = encode(encoder, new ByteStringOutputStream(16), headers)
+      val (a, b) = block.splitAt(block.length / 2)
+
+      decode(decoder, a ++ b) shouldEqual headers
+    }
+    "pass the value returned for a table entry back on every hit, separately for each decoder" in {
+      val headers = Seq(":method" -> "POST", "te" -> "trailers")
+      val encoder = new Encoder(Http2Protocol.InitialMaxHeaderTableSize)
+      val os = new ByteStringOutputStream(16)
+      val first = encode(encoder, os, headers) // static table reference and dynamic table insertion
+      val second = encode(encoder, os, headers) // static and dynamic table references
+
+      val decoder = new Decoder(Http2Protocol.InitialMaxHeaderListSize, Http2Protocol.InitialMaxHeaderTableSize)
+      val listener = new CountingListener
+      decoder.decode(ByteStringInputStream(first), listener)
+      decoder.endHeaderBlock()
+      listener.parses shouldBe 2
+      listener.hits shouldBe 0
+      decoder.decode(ByteStringInputStream(second), listener)
+      decoder.endHeaderBlock()
+      listener.parses shouldBe 2
+      listener.hits shouldBe 2
+
+      val otherDecoder = new Decoder(Http2Protocol.InitialMaxHeaderListSize, Http2Protocol.InitialMaxHeaderTableSize)
+      val otherListener = new CountingListener
+      otherDecoder.decode(ByteStringInputStream(first), otherListener)
+      otherDecoder.endHeaderBlock()
+      otherListener.parses shouldBe 2
+      otherListener.hits shouldBe 0
+    }
+    "reuse the static table's names for literal header names" in {
+      val decoder = new Decoder(Http2Protocol.InitialMaxHeaderListSize, Http2Protocol.InitialMaxHeaderTableSize)
+      // literal header field without indexing and with a literal (not Huffman coded) name
+      val block =
+        ByteString(Array[Byte](0x00, 12)) ++ ByteString("content-type") ++
+        ByteString(Array[Byte](16)) ++ ByteString("application/grpc")
+
+      val decoded = decode(decoder, block)
+      decoded shouldEqual Seq("content-type" -> "application/grpc")
+      decoded.head._1 should be theSameInstanceAs "content-type"
+    }
+  }
+}
@@ -28,6 +28,9 @@ object Dependencies {
   val h2specExe = "h2spec" + DependencyHelpers.exeIfWindows
   val h2specUrl = s"https://github.com/summerwind/h2spec/releases/download/v${h2specVersion}/${h2specName}.zip"
 
+  val brotli4jVersion = "1.12.0"
+  val zstdJniVersion = "1.5.5-5"
+
   val scalaTestVersion = "3.1.4"
   val specs2Version = "4.10.6"
   val scalaCheckVersion = "1.14.3"
@@ -46,6 +49,10 @@ object Dependencies {
     val jsr305 = "com.google.code.findbugs" % "jsr305" % "3.0.2" % "provided" // ApacheV2
 
     val scalaReflect = ScalaVersionDependentModuleID.versioned("org.scala-lang" % "scala-reflect" % _ % "provided") // Scala License
+
+    // For the optional `br` and `zstd` content codings
+    val brotli4j = "com.aayushatharva.brotli4j" % "brotli4j" % brotli4jVersion % "provided" // ApacheV2
+    val zstdJni = "com.github.luben" % "zstd-jni" % zstdJniVersion % "provided" // BSD
   }
 
   object Compile {
@@ -84,6 +91,11 @@ object Dependencies {
       val scalatestplusScalacheck = "org.scalatestplus" %% "scalacheck-1-14" % (scalaTestVersion + ".0") % "test"
       val scalatestplusJUnit = "org.scalatestplus" %% "junit-4-13" % (scalaTestVersion + ".0") % "test"
 
+      val brotli4j = "com.aayushatharva.brotli4j" % "brotli4j" % brotli4jVersion % "test" // ApacheV2
+      val brotli4jNative =
+        "com.aayushatharva.brotli4j" % s"native-${DependencyHelpers.brotli4jPlatform}" % brotli4jVersion % "test" // ApacheV2
+      val zstdJni = "com.github.luben" % "zstd-jni" % zstdJniVersion % "test" // BSD
+
       // HTTP/2
       val h2spec = ("io.github.summerwind" % h2specName % h2specVersion % "test").from(h2specUrl) // MIT
     }
@@ -107,7 +119,7 @@ object Dependencies {
     Provided.jsr305,
     Test.scalatest)
 
-  lazy val http = Seq()
+  lazy val http = l ++= Seq(Provided.brotli4j, Provided.zstdJni)
 
   lazy val http2Tests = l ++= Seq(Test.h2spec)
 
@@ -116,7 +128,8 @@ object Dependencies {
     Test.scalatest.withConfigurations(Some("provided; test")),
     Test.specs2.withConfigurations(Some("provided; test")))
 
-  lazy val httpTests = l ++= Seq(Test.junit, Test.scalatest, Test.junitIntf)
+  lazy val httpTests = l ++= Seq(Test.junit, Test.scalatest, Test.junitIntf,
+    Test.brotli4j, Test.brotli4jNative, Test.zstdJni)
 
   lazy val httpXml = Seq(
     versionDependentDeps(scalaXml),
@@ -170,6 +183,20 @@ object DependencyHelpers {
     else "linux"
   }
 
+  // Platform suffix of the brotli4j native library artifact
+  def brotli4jPlatform: String = {
+    val os = osName match {
+      case "darwin" => "osx"
+      case other    => other
+    }
+    val arch = System.getProperty("os.arch").toLowerCase() match {
+      case "amd64" | "x86_64"  => "x86_64"
+      case "aarch64" | "arm64" => "aarch64"
+      case other               => other
+    }
+    s"$os-$arch"
+  }
+
   def exeIfWindows: String = {
     val os = System.getProperty("os.name").toLowerCase()
     if (os.startsWith("win")) ".exe"